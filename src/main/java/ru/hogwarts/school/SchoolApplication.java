@@ -3,9 +3,15 @@ package ru.hogwarts.school;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import ru.hogwarts.school.config.SchoolRuntimeHints;
 
 @OpenAPIDefinition
-@SpringBootApplication
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
+@EnableScheduling
+@ImportRuntimeHints(SchoolRuntimeHints.class)
 public class SchoolApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,93 @@
+package ru.hogwarts.school.analytics;
+
+import org.slf4j.LoggerFactory;
+import ru.hogwarts.school.dto.StudentFilter;
+
+/**
+ * Filter-and-aggregate pass over {@link StudentColumns}.
+ */
+abstract class ColumnScan {
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    abstract String name();
+
+    abstract void scan(StudentColumns columns, Bounds bounds, Result result);
+
+    /**
+     * The Vector API scan if the JVM was started with {@code --add-modules jdk.incubator.vector},
+     * otherwise the scalar one. The vector class is loaded by name so that nothing links against
+     * the incubator module when it is absent.
+     */
+    static ColumnScan best() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            try {
+                return (ColumnScan) Class.forName(ColumnScan.class.getPackageName() + ".VectorColumnScan")
+                        .getDeclaredConstructor()
+                        .newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                LoggerFactory.getLogger(ColumnScan.class).warn("Vector API unavailable, using scalar scans", e);
+            }
+        }
+        return new ScalarColumnScan();
+    }
+
+    /**
+     * A {@link StudentFilter} turned into inclusive int bounds. Every row must satisfy
+     * {@code (flags & flagMask) == flagValue}, which both drops deleted rows and applies the
+     * avatar condition.
+     */
+    record Bounds(int minAge, int maxAge, boolean byFaculty, int facultyId, int minNameLength, int maxNameLength,
+                  int flagMask, int flagValue) {
+
+        static Bounds of(StudentFilter filter) {
+            int flagMask = StudentColumns.DELETED;
+            int flagValue = 0;
+            if (filter.hasAvatar() != null) {
+                flagMask |= StudentColumns.HAS_AVATAR;
+                flagValue = filter.hasAvatar() ? StudentColumns.HAS_AVATAR : 0;
+            }
+            Long facultyId = filter.facultyId();
+            return new Bounds(
+                    filter.minAge() == null ? Integer.MIN_VALUE : filter.minAge(),
+                    filter.maxAge() == null ? Integer.MAX_VALUE : filter.maxAge(),
+                    facultyId != null,
+                    facultyId == null || facultyId < 1 || facultyId > Integer.MAX_VALUE ? -1 : facultyId.intValue(),
+                    filter.minNameLength() == null ? Integer.MIN_VALUE : filter.minNameLength(),
+                    filter.maxNameLength() == null ? Integer.MAX_VALUE : filter.maxNameLength(),
+                    flagMask, flagValue);
+        }
+
+        boolean matches(StudentColumns columns, int row) {
+            int age = columns.ages[row];
+            int nameLength = columns.nameLengths[row];
+            return age >= minAge && age <= maxAge
+                    && (!byFaculty || columns.facultyIds[row] == facultyId)
+                    && nameLength >= minNameLength && nameLength <= maxNameLength
+                    && (columns.flags[row] & flagMask) == flagValue;
+        }
+    }
+
+    /**
+     * Running count and age sum, plus the ids of the first {@code limit} matches.
+     */
+    static final class Result {
+
+        final long[] ids;
+        int idCount;
+        long count;
+        long ageSum;
+
+        Result(int limit) {
+            this.ids = new long[limit];
+        }
+
+        void add(StudentColumns columns, int row) {
+            count++;
+            ageSum += columns.ages[row];
+            if (idCount < ids.length) {
+                ids[idCount++] = columns.ids[row];
+            }
+        }
+    }
+}
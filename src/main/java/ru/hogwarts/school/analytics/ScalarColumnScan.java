@@ -0,0 +1,22 @@
+package ru.hogwarts.school.analytics;
+
+final class ScalarColumnScan extends ColumnScan {
+
+    @Override
+    String name() {
+        return "scalar";
+    }
+
+    @Override
+    void scan(StudentColumns columns, Bounds bounds, Result result) {
+        scanRange(columns, bounds, result, 0, columns.size);
+    }
+
+    static void scanRange(StudentColumns columns, Bounds bounds, Result result, int from, int to) {
+        for (int row = from; row < to; row++) {
+            if (bounds.matches(columns, row)) {
+                result.add(columns, row);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package ru.hogwarts.school.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Students as parallel primitive arrays sorted by id. Row {@code i} of every column describes
+ * the same student; deleted students keep their row with {@link #DELETED} set until the next
+ * full load. Faculty ids are stored as ints, see {@link #facultyKey}.
+ */
+final class StudentColumns {
+
+    static final int DELETED = 1;
+    static final int HAS_AVATAR = 2;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    long[] ids;
+    int[] ages;
+    int[] facultyIds;
+    int[] nameLengths;
+    int[] flags;
+    int size;
+
+    StudentColumns() {
+        this(INITIAL_CAPACITY);
+    }
+
+    StudentColumns(int capacity) {
+        ids = new long[capacity];
+        ages = new int[capacity];
+        facultyIds = new int[capacity];
+        nameLengths = new int[capacity];
+        flags = new int[capacity];
+    }
+
+    /**
+     * Column value for a faculty id; ids beyond the int range, which no filter can name, share
+     * {@link Integer#MIN_VALUE}.
+     */
+    static int facultyKey(Long facultyId) {
+        if (facultyId == null) {
+            return 0;
+        }
+        return facultyId > 0 && facultyId <= Integer.MAX_VALUE ? facultyId.intValue() : Integer.MIN_VALUE;
+    }
+
+    /**
+     * Row of {@code id}, or {@code -(insertion point) - 1} if there is none.
+     */
+    int indexOf(long id) {
+        return Arrays.binarySearch(ids, 0, size, id);
+    }
+
+    /**
+     * Inserts or overwrites the row of {@code id}, keeping the existing flags other than
+     * {@link #DELETED}.
+     */
+    void upsert(long id, int age, int facultyId, int nameLength) {
+        int index = indexOf(id);
+        if (index < 0) {
+            index = -index - 1;
+            insertAt(index);
+            ids[index] = id;
+            flags[index] = 0;
+        }
+        ages[index] = age;
+        facultyIds[index] = facultyId;
+        nameLengths[index] = nameLength;
+        flags[index] &= ~DELETED;
+    }
+
+    /**
+     * Appends a row during a load, where ids arrive in ascending order.
+     */
+    void append(long id, int age, int facultyId, int nameLength, int rowFlags) {
+        insertAt(size);
+        ids[size - 1] = id;
+        ages[size - 1] = age;
+        facultyIds[size - 1] = facultyId;
+        nameLengths[size - 1] = nameLength;
+        flags[size - 1] = rowFlags;
+    }
+
+    private void insertAt(int index) {
+        if (size == ids.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, size + (size >> 1));
+            ids = Arrays.copyOf(ids, capacity);
+            ages = Arrays.copyOf(ages, capacity);
+            facultyIds = Arrays.copyOf(facultyIds, capacity);
+            nameLengths = Arrays.copyOf(nameLengths, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+        }
+        int tail = size - index;
+        if (tail > 0) {
+            System.arraycopy(ids, index, ids, index + 1, tail);
+            System.arraycopy(ages, index, ages, index + 1, tail);
+            System.arraycopy(facultyIds, index, facultyIds, index + 1, tail);
+            System.arraycopy(nameLengths, index, nameLengths, index + 1, tail);
+            System.arraycopy(flags, index, flags, index + 1, tail);
+        }
+        size++;
+    }
+}
@@ -0,0 +1,197 @@
+package ru.hogwarts.school.analytics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.hogwarts.school.cache.invalidation.Invalidation;
+import ru.hogwarts.school.cache.invalidation.RemoteInvalidationEvent;
+import ru.hogwarts.school.datasource.ReadYourWrites;
+import ru.hogwarts.school.dto.StudentFilter;
+import ru.hogwarts.school.dto.StudentFilterResult;
+import ru.hogwarts.school.event.AvatarChangedEvent;
+import ru.hogwarts.school.event.FacultyChangedEvent;
+import ru.hogwarts.school.event.StudentChangedEvent;
+import ru.hogwarts.school.model.Student;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Column-oriented copy of the student table for ad-hoc filters and aggregates. Loaded from the
+ * primary on first use, kept current from the write-path events and reloaded by
+ * {@code students.snapshot.refresh.cron}. Scans share a read lock; events and loads take the
+ * write lock. Enabled with {@code students.snapshot.enabled=true}; scans use the Vector API
+ * when available unless {@code students.snapshot.vectorized=false}.
+ */
+@Component
+public class StudentSnapshot {
+
+    private static final int FETCH_SIZE = 1000;
+    private static final String LOAD = "SELECT s.id, s.age, s.faculty_id, LENGTH(s.name), a.id FROM student s " +
+            "LEFT JOIN avatar a ON a.student_id = s.id ORDER BY s.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final ColumnScan scan;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private StudentColumns columns;
+
+    @Autowired
+    public StudentSnapshot(DataSource dataSource, @Value("${students.snapshot.enabled:false}") boolean enabled,
+                           @Value("${students.snapshot.vectorized:true}") boolean vectorized) {
+        this(dataSource, enabled, vectorized ? ColumnScan.best() : new ScalarColumnScan());
+    }
+
+    StudentSnapshot(DataSource dataSource, boolean enabled, ColumnScan scan) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.enabled = enabled;
+        this.scan = scan;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String scanName() {
+        return scan.name();
+    }
+
+    public StudentFilterResult filter(StudentFilter filter, int limit) {
+        ColumnScan.Bounds bounds = ColumnScan.Bounds.of(filter);
+        ColumnScan.Result result = new ColumnScan.Result(limit);
+        lock.readLock().lock();
+        try {
+            if (columns != null) {
+                scan.scan(columns, bounds, result);
+                return toResult(result);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            if (columns == null) {
+                columns = load();
+            }
+            scan.scan(columns, bounds, result);
+            return toResult(result);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the snapshot with a fresh load, which also drops the rows of deleted students.
+     */
+    @Scheduled(cron = "${students.snapshot.refresh.cron:-}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            columns = load();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChanged(StudentChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (columns == null) {
+                return;
+            }
+            if (event.isDeleted()) {
+                int row = columns.indexOf(event.studentId());
+                if (row >= 0) {
+                    columns.flags[row] |= StudentColumns.DELETED;
+                }
+            } else if (event.isPatched()) {
+                int row = columns.indexOf(event.studentId());
+                if (row >= 0) {
+                    if (event.patch().name() != null) {
+                        columns.nameLengths[row] = event.patch().name().length();
+                    }
+                    if (event.patch().age() != null) {
+                        columns.ages[row] = event.patch().age();
+                    }
+                }
+            } else {
+                Student student = event.student();
+                columns.upsert(student.getId(), student.getAge(),
+                        StudentColumns.facultyKey(student.getFaculty() == null ? null : student.getFaculty().getId()),
+                        student.getName() == null ? 0 : student.getName().length());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvatarChanged(AvatarChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            int row = columns == null ? -1 : columns.indexOf(event.studentId());
+            if (row >= 0) {
+                columns.flags[row] |= StudentColumns.HAS_AVATAR;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFacultyChanged(FacultyChangedEvent event) {
+        if (event.isDeleted()) {
+            drop();
+        }
+    }
+
+    @EventListener
+    public void onRemoteInvalidation(RemoteInvalidationEvent event) {
+        if (event.touches(Invalidation.STUDENT) || event.touches(Invalidation.AVATAR)) {
+            drop();
+        }
+    }
+
+    private void drop() {
+        lock.writeLock().lock();
+        try {
+            columns = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private StudentColumns load() {
+        StudentColumns loaded = new StudentColumns();
+        RowCallbackHandler handler = rs -> {
+            long facultyId = rs.getLong(3);
+            loaded.append(rs.getLong(1), rs.getInt(2),
+                    StudentColumns.facultyKey(rs.wasNull() ? null : facultyId),
+                    rs.getInt(4),
+                    rs.getObject(5) == null ? 0 : StudentColumns.HAS_AVATAR);
+        };
+        ReadYourWrites.onPrimary(() -> {
+            jdbcTemplate.query(LOAD, handler);
+            return null;
+        });
+        return loaded;
+    }
+
+    private static StudentFilterResult toResult(ColumnScan.Result result) {
+        return new StudentFilterResult(result.count,
+                result.count == 0 ? null : (double) result.ageSum / result.count,
+                Arrays.stream(result.ids, 0, result.idCount).boxed().toList());
+    }
+}
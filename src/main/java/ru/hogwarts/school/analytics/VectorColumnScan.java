@@ -0,0 +1,53 @@
+package ru.hogwarts.school.analytics;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Compares a full vector of rows per step and combines the conditions into one lane mask. Ages
+ * of the matching lanes are summed with a masked reduction; ids are only picked out lane by lane
+ * while the result still wants them. The tail that does not fill a vector is scanned scalar.
+ */
+final class VectorColumnScan extends ColumnScan {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    String name() {
+        return "vector-" + SPECIES.vectorBitSize();
+    }
+
+    @Override
+    void scan(StudentColumns columns, Bounds bounds, Result result) {
+        int bound = SPECIES.loopBound(columns.size);
+        int row = 0;
+        for (; row < bound; row += SPECIES.length()) {
+            IntVector ages = IntVector.fromArray(SPECIES, columns.ages, row);
+            IntVector nameLengths = IntVector.fromArray(SPECIES, columns.nameLengths, row);
+            IntVector flags = IntVector.fromArray(SPECIES, columns.flags, row);
+            VectorMask<Integer> mask = ages.compare(VectorOperators.GE, bounds.minAge())
+                    .and(ages.compare(VectorOperators.LE, bounds.maxAge()))
+                    .and(nameLengths.compare(VectorOperators.GE, bounds.minNameLength()))
+                    .and(nameLengths.compare(VectorOperators.LE, bounds.maxNameLength()))
+                    .and(flags.and(bounds.flagMask()).compare(VectorOperators.EQ, bounds.flagValue()));
+            if (bounds.byFaculty()) {
+                mask = mask.and(IntVector.fromArray(SPECIES, columns.facultyIds, row)
+                        .compare(VectorOperators.EQ, bounds.facultyId()));
+            }
+            int matches = mask.trueCount();
+            if (matches == 0) {
+                continue;
+            }
+            result.count += matches;
+            result.ageSum += ages.reduceLanes(VectorOperators.ADD, mask);
+            long lanes = mask.toLong();
+            while (lanes != 0 && result.idCount < result.ids.length) {
+                result.ids[result.idCount++] = columns.ids[row + Long.numberOfTrailingZeros(lanes)];
+                lanes &= lanes - 1;
+            }
+        }
+        ScalarColumnScan.scanRange(columns, bounds, result, row, columns.size);
+    }
+}
@@ -0,0 +1,188 @@
+package ru.hogwarts.school.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.catalina.connector.CoyoteOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.hogwarts.school.cache.invalidation.Invalidation;
+import ru.hogwarts.school.cache.invalidation.RemoteInvalidationEvent;
+import ru.hogwarts.school.event.AvatarChangedEvent;
+import ru.hogwarts.school.event.StudentChangedEvent;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of avatar previews keyed by student id. Bytes are kept in direct buffers,
+ * so cached avatars do not add to the heap, and the total size never exceeds {@code maxBytes}.
+ * Loaders take a {@link #version(long)} before reading the database and pass it to
+ * {@link #put}, which refuses to cache data read before an invalidation of the same key.
+ */
+@Component
+public class AvatarCache {
+
+    private static final String CACHE_NAME = "avatars";
+    private static final int VERSION_STRIPES = 256;
+
+    private final long maxBytes;
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long[] versions = new long[VERSION_STRIPES];
+    private long bytes;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public AvatarCache(@Value("${avatars.cache.max-bytes:33554432}") long maxBytes, MeterRegistry meterRegistry) {
+        this.maxBytes = maxBytes;
+        this.hits = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("cache.evictions").tag("cache", CACHE_NAME).register(meterRegistry);
+        Gauge.builder("cache.size", this, AvatarCache::size).tag("cache", CACHE_NAME).register(meterRegistry);
+        Gauge.builder("cache.bytes", this, AvatarCache::bytes).tag("cache", CACHE_NAME).baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("cache.hit.ratio", this, AvatarCache::hitRatio).tag("cache", CACHE_NAME).register(meterRegistry);
+    }
+
+    public synchronized Entry get(long studentId) {
+        Entry entry = entries.get(studentId);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry;
+    }
+
+    /**
+     * Invalidation version of {@code studentId}'s stripe; take it before loading the avatar.
+     */
+    public synchronized long version(long studentId) {
+        return versions[stripe(studentId)];
+    }
+
+    /**
+     * Copies {@code data} off-heap and caches it, unless the key was invalidated since
+     * {@code version} was taken. Avatars larger than the whole budget are returned without
+     * being cached.
+     */
+    public Entry put(long studentId, long version, String mediaType, byte[] data) {
+        if (data.length > maxBytes) {
+            return new Entry(mediaType, ByteBuffer.wrap(data).asReadOnlyBuffer());
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
+        buffer.put(data).flip();
+        Entry entry = new Entry(mediaType, buffer.asReadOnlyBuffer());
+        synchronized (this) {
+            if (versions[stripe(studentId)] != version) {
+                return entry;
+            }
+            Entry previous = entries.put(studentId, entry);
+            if (previous != null) {
+                bytes -= previous.size();
+            }
+            bytes += entry.size();
+            evictOverflow();
+        }
+        return entry;
+    }
+
+    public synchronized void invalidate(long studentId) {
+        versions[stripe(studentId)]++;
+        Entry removed = entries.remove(studentId);
+        if (removed != null) {
+            bytes -= removed.size();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvatarChanged(AvatarChangedEvent event) {
+        invalidate(event.studentId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChanged(StudentChangedEvent event) {
+        if (event.isDeleted()) {
+            invalidate(event.studentId());
+        }
+    }
+
+    @EventListener
+    public void onRemoteInvalidation(RemoteInvalidationEvent event) {
+        if (event.flushAll()) {
+            clear();
+            return;
+        }
+        for (Invalidation invalidation : event.invalidations()) {
+            if (invalidation.region().equals(Invalidation.AVATAR) || invalidation.region().equals(Invalidation.STUDENT)) {
+                if (invalidation.key() == null) {
+                    clear();
+                } else {
+                    invalidate(invalidation.key());
+                }
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < versions.length; i++) {
+            versions[i]++;
+        }
+        entries.clear();
+        bytes = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    public double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private static int stripe(long studentId) {
+        return Long.hashCode(studentId) & (VERSION_STRIPES - 1);
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<Long, Entry>> iterator = entries.entrySet().iterator();
+        while (bytes > maxBytes && iterator.hasNext()) {
+            bytes -= iterator.next().getValue().size();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    public record Entry(String mediaType, ByteBuffer data) {
+
+        public int size() {
+            return data.capacity();
+        }
+
+        /**
+         * Writes the avatar straight from the off-heap buffer. Tomcat's output stream accepts
+         * a {@link ByteBuffer} directly; other streams go through a channel adapter.
+         */
+        public void writeTo(OutputStream os) throws IOException {
+            ByteBuffer buffer = data.duplicate();
+            if (os instanceof CoyoteOutputStream coyote) {
+                coyote.write(buffer);
+            } else {
+                Channels.newChannel(os).write(buffer);
+            }
+        }
+    }
+}
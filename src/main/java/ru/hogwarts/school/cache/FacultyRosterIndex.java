@@ -0,0 +1,135 @@
+package ru.hogwarts.school.cache;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.hogwarts.school.cache.invalidation.Invalidation;
+import ru.hogwarts.school.cache.invalidation.RemoteInvalidationEvent;
+import ru.hogwarts.school.datasource.ReadYourWrites;
+import ru.hogwarts.school.event.FacultyChangedEvent;
+import ru.hogwarts.school.event.StudentChangedEvent;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Per-faculty rosters served from memory. Readers take the current map without locking;
+ * writers copy only the rosters they touch and publish a new map with a volatile write.
+ * Students changed on other nodes are read back in one query and applied the same way.
+ * After-commit events can arrive out of commit order, so the index remembers the version it holds
+ * for every student and drops changes that are not newer.
+ */
+@Component
+public class FacultyRosterIndex {
+
+    private final StudentRepository studentRepository;
+
+    private volatile Map<String, StudentRoster> rosters;
+
+    /**
+     * Version of every student applied since the last load; deleted students keep {@link Long#MAX_VALUE}.
+     * Guarded by {@code this}.
+     */
+    private final Map<Long, Long> versions = new HashMap<>();
+
+    public FacultyRosterIndex(StudentRepository studentRepository) {
+        this.studentRepository = studentRepository;
+    }
+
+    public Collection<Student> findByFaculty(String facultyName) {
+        Map<String, StudentRoster> current = rosters;
+        if (current == null) {
+            current = load();
+        }
+        return current.getOrDefault(facultyName, StudentRoster.EMPTY).toStudents();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onStudentChanged(StudentChangedEvent event) {
+        Map<String, StudentRoster> current = rosters;
+        if (current == null) {
+            return;
+        }
+        Long applied = versions.get(event.studentId());
+        if (applied != null && applied >= event.version()) {
+            return;
+        }
+        versions.put(event.studentId(), event.version());
+        Map<String, StudentRoster> updated = new HashMap<>(current);
+        if (event.isPatched()) {
+            current.forEach((facultyName, roster) -> {
+                Student existing = roster.get(event.studentId());
+                if (existing != null) {
+                    Student patched = event.patch().applyTo(existing);
+                    updated.put(facultyName, roster.with(patched.getId(), patched.getName(), patched.getAge()));
+                }
+            });
+            rosters = Map.copyOf(updated);
+            return;
+        }
+
+        String newFaculty = event.isDeleted() || event.student().getFaculty() == null
+                ? null
+                : event.student().getFaculty().getName();
+        current.forEach((facultyName, roster) -> {
+            if (!facultyName.equals(newFaculty) && roster.contains(event.studentId())) {
+                updated.put(facultyName, roster.without(event.studentId()));
+            }
+        });
+        if (newFaculty != null) {
+            Student student = event.student();
+            updated.put(newFaculty, updated.getOrDefault(newFaculty, StudentRoster.EMPTY)
+                    .with(student.getId(), student.getName(), student.getAge()));
+        }
+        rosters = Map.copyOf(updated);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onFacultyChanged(FacultyChangedEvent event) {
+        rosters = null;
+    }
+
+    @EventListener
+    public synchronized void onRemoteInvalidation(RemoteInvalidationEvent event) {
+        if (rosters == null) {
+            return;
+        }
+        if (event.wipes(Invalidation.STUDENT) || event.touches(Invalidation.FACULTY)) {
+            rosters = null;
+            return;
+        }
+        Set<Long> studentIds = event.keys(Invalidation.STUDENT);
+        if (studentIds.isEmpty()) {
+            return;
+        }
+        Map<Long, Student> current = ReadYourWrites.onPrimary(() -> studentRepository.findAllWithFacultyByIdIn(studentIds))
+                .stream()
+                .collect(Collectors.toMap(Student::getId, Function.identity()));
+        for (Long studentId : studentIds) {
+            Student student = current.get(studentId);
+            onStudentChanged(student == null
+                    ? StudentChangedEvent.deleted(studentId)
+                    : StudentChangedEvent.saved(student));
+        }
+    }
+
+    private synchronized Map<String, StudentRoster> load() {
+        if (rosters != null) {
+            return rosters;
+        }
+        List<Student> students = ReadYourWrites.onPrimary(studentRepository::findAllWithFaculty);
+        versions.clear();
+        students.forEach(student -> versions.put(student.getId(), student.getVersion()));
+        rosters = Map.copyOf(students.stream()
+                .collect(Collectors.groupingBy(student -> student.getFaculty().getName(),
+                        Collectors.collectingAndThen(Collectors.toList(), StudentRoster::of))));
+        return rosters;
+    }
+}
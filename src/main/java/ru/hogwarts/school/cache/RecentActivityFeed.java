@@ -0,0 +1,160 @@
+package ru.hogwarts.school.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.hogwarts.school.cache.invalidation.Invalidation;
+import ru.hogwarts.school.cache.invalidation.RemoteInvalidationEvent;
+import ru.hogwarts.school.datasource.ReadYourWrites;
+import ru.hogwarts.school.dto.StudentActivity;
+import ru.hogwarts.school.dto.StudentActivityPage;
+import ru.hogwarts.school.event.StudentChangedEvent;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The most recent student mutations in a fixed-size ring. Writers claim a sequence number with
+ * one atomic increment and then fill its slot, overwriting the entry one lap older; readers never
+ * lock and recognise a slot by the sequence number stored in it. A slot still holding an older
+ * entry belongs to a writer that has claimed but not yet filled it, so delta reads stop there
+ * rather than let the cursor skip it; a writer that finds its slot already taken by a later lap
+ * drops its entry instead. Seeded with the newest students when the application starts.
+ * <p>
+ * Sequence numbers only mean something within one ring: they restart at 1 with the process and
+ * every node counts on its own. Each ring therefore has a random epoch that clients send back
+ * with their cursor, and a cursor from another epoch is answered from the oldest entry as truncated.
+ */
+@Component
+public class RecentActivityFeed {
+
+    public static final int MAX_LIMIT = 1000;
+
+    private final StudentRepository studentRepository;
+    private final int capacity;
+    private final AtomicReferenceArray<StudentActivity> slots;
+    private final AtomicLong next = new AtomicLong(1);
+    private final String epoch = UUID.randomUUID().toString();
+
+    public RecentActivityFeed(StudentRepository studentRepository,
+                              @Value("${students.activity.capacity:1024}") int capacity) {
+        this.studentRepository = studentRepository;
+        this.capacity = Integer.highestOneBit(Math.max(capacity, MAX_LIMIT) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(this.capacity);
+    }
+
+    /**
+     * Fills the ring with the newest students, oldest first, unless something was already
+     * recorded.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        List<Student> newest = ReadYourWrites.onPrimary(() -> studentRepository.findByOrderByIdDesc(Limit.of(capacity)));
+        if (newest.isEmpty() || !next.compareAndSet(1, 1 + newest.size())) {
+            return;
+        }
+        long seq = 1;
+        for (int i = newest.size() - 1; i >= 0; i--, seq++) {
+            slots.set(index(seq), saved(seq, newest.get(i)));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChanged(StudentChangedEvent event) {
+        long seq = next.getAndIncrement();
+        StudentActivity activity;
+        if (event.isDeleted()) {
+            activity = new StudentActivity(seq, "DELETED", event.studentId(), null, null, null);
+        } else if (event.isPatched()) {
+            activity = new StudentActivity(seq, "PATCHED", event.studentId(), event.patch().name(),
+                    event.patch().age(), null);
+        } else {
+            activity = saved(seq, event.student());
+        }
+        // A writer held up for a whole lap must not put its entry back over the newer one
+        slots.accumulateAndGet(index(seq), activity,
+                (current, update) -> current != null && current.seq() > update.seq() ? current : update);
+    }
+
+    /**
+     * Records changes made through other nodes by reading the touched students back.
+     */
+    @EventListener
+    public void onRemoteInvalidation(RemoteInvalidationEvent event) {
+        for (Invalidation invalidation : event.invalidations()) {
+            if (invalidation.region().equals(Invalidation.STUDENT) && invalidation.key() != null) {
+                long studentId = invalidation.key();
+                Student student = ReadYourWrites.onPrimary(() -> studentRepository.findById(studentId).orElse(null));
+                onStudentChanged(student == null
+                        ? StudentChangedEvent.deleted(studentId)
+                        : StudentChangedEvent.saved(student));
+            }
+        }
+    }
+
+    /**
+     * Up to {@code limit} entries, newest first.
+     */
+    public List<StudentActivity> latest(int limit) {
+        long head = next.get() - 1;
+        long oldest = Math.max(1, head - capacity + 1);
+        List<StudentActivity> items = new ArrayList<>(Math.min(limit, capacity));
+        for (long seq = head; seq >= oldest && items.size() < limit; seq--) {
+            StudentActivity activity = slots.get(index(seq));
+            if (activity != null && activity.seq() == seq) {
+                items.add(activity);
+            }
+        }
+        return items;
+    }
+
+    public String epoch() {
+        return epoch;
+    }
+
+    /**
+     * Up to {@code limit} entries after {@code cursor}, oldest first. {@code cursor = 0} reads
+     * from the oldest retained entry. Any other cursor must come with the {@code epoch} it was
+     * issued in; without it, or from another epoch or beyond the head, reading restarts from
+     * the oldest entry with {@code truncated} set.
+     */
+    public StudentActivityPage since(String epoch, long cursor, int limit) {
+        long head = next.get() - 1;
+        long oldest = Math.max(1, head - capacity + 1);
+        boolean restarted = cursor > 0 && !this.epoch.equals(epoch) || cursor > head;
+        long start = restarted ? oldest : Math.max(cursor + 1, oldest);
+        boolean truncated = restarted || (cursor > 0 && start > cursor + 1);
+        List<StudentActivity> items = new ArrayList<>(Math.min(limit, capacity));
+        long last = start - 1;
+        for (long seq = start; seq <= head && items.size() < limit; seq++) {
+            StudentActivity activity = slots.get(index(seq));
+            if (activity == null || activity.seq() < seq) {
+                break;
+            }
+            if (activity.seq() > seq) {
+                truncated = true;
+            } else {
+                items.add(activity);
+            }
+            last = seq;
+        }
+        return new StudentActivityPage(items, this.epoch, restarted || last > cursor ? last : cursor, truncated);
+    }
+
+    private int index(long seq) {
+        return (int) (seq & (capacity - 1));
+    }
+
+    private static StudentActivity saved(long seq, Student student) {
+        return new StudentActivity(seq, "SAVED", student.getId(), student.getName(), student.getAge(),
+                student.getFaculty() == null ? null : student.getFaculty().getId());
+    }
+}
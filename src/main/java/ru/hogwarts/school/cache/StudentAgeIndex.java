@@ -0,0 +1,156 @@
+package ru.hogwarts.school.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.hogwarts.school.cache.invalidation.Invalidation;
+import ru.hogwarts.school.cache.invalidation.RemoteInvalidationEvent;
+import ru.hogwarts.school.datasource.ReadYourWrites;
+import ru.hogwarts.school.event.StudentChangedEvent;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Students bucketed by age: {@code buckets[age]} holds everyone of that age. Range queries walk
+ * the buckets between min and max instead of going to the database. Enabled with
+ * {@code students.age-index.enabled=true}. Only ages up to {@code students.age-index.max-age}
+ * get a bucket; the part of a range above it is read from the database.
+ */
+@Component
+public class StudentAgeIndex {
+
+    private final StudentRepository studentRepository;
+    private final boolean enabled;
+    private final int maxAge;
+
+    private volatile StudentRoster[] buckets;
+
+    public StudentAgeIndex(StudentRepository studentRepository,
+                           @Value("${students.age-index.enabled:false}") boolean enabled,
+                           @Value("${students.age-index.max-age:150}") int maxAge) {
+        this.studentRepository = studentRepository;
+        this.enabled = enabled;
+        this.maxAge = maxAge;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Collection<Student> findByAge(int min, int max) {
+        StudentRoster[] current = buckets;
+        if (current == null) {
+            current = load();
+        }
+        List<Student> students = new ArrayList<>();
+        for (int age = Math.max(min, 0); age <= Math.min(max, maxAge); age++) {
+            current[age].appendTo(students);
+        }
+        if (max > maxAge) {
+            students.addAll(studentRepository.findByAgeBetween(Math.max(min, maxAge + 1), max));
+        }
+        return students;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onStudentChanged(StudentChangedEvent event) {
+        StudentRoster[] current = buckets;
+        if (current == null) {
+            return;
+        }
+        Student student = event.student();
+        if (event.isPatched()) {
+            student = Arrays.stream(current)
+                    .map(bucket -> bucket.get(event.studentId()))
+                    .filter(Objects::nonNull)
+                    .findFirst()
+                    .map(event.patch()::applyTo)
+                    .orElseGet(() -> outOfRange(event.studentId()));
+            if (student == null) {
+                return;
+            }
+        }
+        int newAge = student == null || !indexed(student.getAge()) ? -1 : student.getAge();
+        StudentRoster[] updated = current.clone();
+        for (int age = 0; age < updated.length; age++) {
+            if (age != newAge && updated[age].contains(event.studentId())) {
+                updated[age] = updated[age].without(event.studentId());
+            }
+        }
+        if (newAge >= 0) {
+            updated[newAge] = updated[newAge].with(student.getId(), student.getName(), newAge);
+        }
+        buckets = updated;
+    }
+
+    /**
+     * Reads students changed on other nodes back in one query and moves them between buckets.
+     */
+    @EventListener
+    public synchronized void onRemoteInvalidation(RemoteInvalidationEvent event) {
+        if (buckets == null) {
+            return;
+        }
+        if (event.wipes(Invalidation.STUDENT)) {
+            buckets = null;
+            return;
+        }
+        Set<Long> studentIds = event.keys(Invalidation.STUDENT);
+        if (studentIds.isEmpty()) {
+            return;
+        }
+        Map<Long, Student> current = ReadYourWrites.onPrimary(() -> studentRepository.findAllById(studentIds))
+                .stream()
+                .collect(Collectors.toMap(Student::getId, Function.identity()));
+        for (Long studentId : studentIds) {
+            Student student = current.get(studentId);
+            onStudentChanged(student == null
+                    ? StudentChangedEvent.deleted(studentId)
+                    : StudentChangedEvent.saved(student));
+        }
+    }
+
+    private boolean indexed(int age) {
+        return age >= 0 && age <= maxAge;
+    }
+
+    /**
+     * A patched student the index does not hold: one outside the indexed ages, which the patch
+     * may just have moved inside them.
+     */
+    private Student outOfRange(long studentId) {
+        return ReadYourWrites.onPrimary(() -> studentRepository.findById(studentId).orElse(null));
+    }
+
+    private synchronized StudentRoster[] load() {
+        if (buckets != null) {
+            return buckets;
+        }
+        List<List<Student>> byAge = new ArrayList<>(maxAge + 1);
+        for (int age = 0; age <= maxAge; age++) {
+            byAge.add(new ArrayList<>());
+        }
+        for (Student student : ReadYourWrites.onPrimary(studentRepository::findAll)) {
+            if (indexed(student.getAge())) {
+                byAge.get(student.getAge()).add(student);
+            }
+        }
+        StudentRoster[] loaded = new StudentRoster[maxAge + 1];
+        for (int age = 0; age <= maxAge; age++) {
+            loaded[age] = StudentRoster.of(byAge.get(age));
+        }
+        buckets = loaded;
+        return loaded;
+    }
+}
@@ -0,0 +1,108 @@
+package ru.hogwarts.school.cache;
+
+import ru.hogwarts.school.model.Student;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable group of students (one faculty, one age) stored as parallel arrays sorted by id.
+ * Every change returns a new roster.
+ */
+public final class StudentRoster {
+
+    public static final StudentRoster EMPTY = new StudentRoster(new long[0], new String[0], new int[0]);
+
+    private final long[] ids;
+    private final String[] names;
+    private final int[] ages;
+
+    private StudentRoster(long[] ids, String[] names, int[] ages) {
+        this.ids = ids;
+        this.names = names;
+        this.ages = ages;
+    }
+
+    public static StudentRoster of(List<Student> students) {
+        Student[] sorted = students.toArray(new Student[0]);
+        Arrays.sort(sorted, (a, b) -> Long.compare(a.getId(), b.getId()));
+        long[] ids = new long[sorted.length];
+        String[] names = new String[sorted.length];
+        int[] ages = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            ids[i] = sorted[i].getId();
+            names[i] = sorted[i].getName();
+            ages[i] = sorted[i].getAge();
+        }
+        return new StudentRoster(ids, names, ages);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public boolean contains(long studentId) {
+        return Arrays.binarySearch(ids, studentId) >= 0;
+    }
+
+    public Student get(long studentId) {
+        int index = Arrays.binarySearch(ids, studentId);
+        return index >= 0 ? new Student(ids[index], names[index], ages[index]) : null;
+    }
+
+    public StudentRoster with(long studentId, String name, int age) {
+        int index = Arrays.binarySearch(ids, studentId);
+        if (index >= 0) {
+            String[] newNames = names.clone();
+            int[] newAges = ages.clone();
+            newNames[index] = name;
+            newAges[index] = age;
+            return new StudentRoster(ids, newNames, newAges);
+        }
+        int insertAt = -index - 1;
+        long[] newIds = new long[ids.length + 1];
+        String[] newNames = new String[ids.length + 1];
+        int[] newAges = new int[ids.length + 1];
+        System.arraycopy(ids, 0, newIds, 0, insertAt);
+        System.arraycopy(names, 0, newNames, 0, insertAt);
+        System.arraycopy(ages, 0, newAges, 0, insertAt);
+        newIds[insertAt] = studentId;
+        newNames[insertAt] = name;
+        newAges[insertAt] = age;
+        System.arraycopy(ids, insertAt, newIds, insertAt + 1, ids.length - insertAt);
+        System.arraycopy(names, insertAt, newNames, insertAt + 1, ids.length - insertAt);
+        System.arraycopy(ages, insertAt, newAges, insertAt + 1, ids.length - insertAt);
+        return new StudentRoster(newIds, newNames, newAges);
+    }
+
+    public StudentRoster without(long studentId) {
+        int index = Arrays.binarySearch(ids, studentId);
+        if (index < 0) {
+            return this;
+        }
+        long[] newIds = new long[ids.length - 1];
+        String[] newNames = new String[ids.length - 1];
+        int[] newAges = new int[ids.length - 1];
+        System.arraycopy(ids, 0, newIds, 0, index);
+        System.arraycopy(names, 0, newNames, 0, index);
+        System.arraycopy(ages, 0, newAges, 0, index);
+        System.arraycopy(ids, index + 1, newIds, index, ids.length - index - 1);
+        System.arraycopy(names, index + 1, newNames, index, ids.length - index - 1);
+        System.arraycopy(ages, index + 1, newAges, index, ids.length - index - 1);
+        return new StudentRoster(newIds, newNames, newAges);
+    }
+
+    public List<Student> toStudents() {
+        List<Student> students = new ArrayList<>(ids.length);
+        appendTo(students);
+        return students;
+    }
+
+    public void appendTo(Collection<Student> students) {
+        for (int i = 0; i < ids.length; i++) {
+            students.add(new Student(ids[i], names[i], ages[i]));
+        }
+    }
+}
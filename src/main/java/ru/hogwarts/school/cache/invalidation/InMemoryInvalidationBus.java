@@ -0,0 +1,22 @@
+package ru.hogwarts.school.cache.invalidation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-JVM bus for a single node and for tests that simulate several nodes in one JVM.
+ */
+public class InMemoryInvalidationBus implements InvalidationBus {
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String nodeId, List<Invalidation> invalidations) {
+        listeners.forEach(listener -> listener.onInvalidations(nodeId, invalidations));
+    }
+
+    @Override
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+}
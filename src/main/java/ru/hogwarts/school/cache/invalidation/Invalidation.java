@@ -0,0 +1,22 @@
+package ru.hogwarts.school.cache.invalidation;
+
+/**
+ * One invalidated cache key. A {@code null} key invalidates the whole region.
+ */
+public record Invalidation(String region, Long key) {
+
+    public static final String AVATAR = "avatar";
+    public static final String STUDENT = "student";
+    public static final String FACULTY = "faculty";
+
+    public static Invalidation parse(String value) {
+        int separator = value.indexOf(':');
+        String key = value.substring(separator + 1);
+        return new Invalidation(value.substring(0, separator), key.equals("*") ? null : Long.valueOf(key));
+    }
+
+    @Override
+    public String toString() {
+        return region + ":" + (key == null ? "*" : key);
+    }
+}
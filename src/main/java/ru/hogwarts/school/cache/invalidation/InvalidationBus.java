@@ -0,0 +1,24 @@
+package ru.hogwarts.school.cache.invalidation;
+
+import java.util.List;
+
+/**
+ * Carries invalidation batches between application nodes. Every subscriber receives every
+ * batch, including the ones its own node sent.
+ */
+public interface InvalidationBus {
+
+    void publish(String nodeId, List<Invalidation> invalidations);
+
+    void subscribe(Listener listener);
+
+    interface Listener {
+
+        void onInvalidations(String nodeId, List<Invalidation> invalidations);
+
+        /**
+         * Called after the bus (re)connects: notifications sent while it was down are lost.
+         */
+        void onReconnect();
+    }
+}
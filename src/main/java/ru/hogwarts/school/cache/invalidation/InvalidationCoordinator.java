@@ -0,0 +1,80 @@
+package ru.hogwarts.school.cache.invalidation;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.hogwarts.school.event.AvatarChangedEvent;
+import ru.hogwarts.school.event.FacultyChangedEvent;
+import ru.hogwarts.school.event.StudentChangedEvent;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Sends this node's committed changes to the other nodes and turns their changes into
+ * {@link RemoteInvalidationEvent}s. Outgoing invalidations are deduplicated and sent in batches
+ * every {@code school.invalidation.batch-interval} milliseconds.
+ */
+@Component
+public class InvalidationCoordinator implements InvalidationBus.Listener {
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final InvalidationBus invalidationBus;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private Set<Invalidation> pending = new LinkedHashSet<>();
+
+    public InvalidationCoordinator(InvalidationBus invalidationBus, ApplicationEventPublisher eventPublisher) {
+        this.invalidationBus = invalidationBus;
+        this.eventPublisher = eventPublisher;
+        invalidationBus.subscribe(this);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChanged(StudentChangedEvent event) {
+        enqueue(new Invalidation(Invalidation.STUDENT, event.studentId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFacultyChanged(FacultyChangedEvent event) {
+        enqueue(new Invalidation(Invalidation.FACULTY, event.facultyId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvatarChanged(AvatarChangedEvent event) {
+        enqueue(new Invalidation(Invalidation.AVATAR, event.studentId()));
+    }
+
+    @Scheduled(fixedDelayString = "${school.invalidation.batch-interval:50}")
+    public void flush() {
+        Set<Invalidation> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new LinkedHashSet<>();
+        }
+        invalidationBus.publish(nodeId, new ArrayList<>(batch));
+    }
+
+    @Override
+    public void onInvalidations(String senderNodeId, List<Invalidation> invalidations) {
+        if (!nodeId.equals(senderNodeId)) {
+            eventPublisher.publishEvent(RemoteInvalidationEvent.of(invalidations));
+        }
+    }
+
+    @Override
+    public void onReconnect() {
+        eventPublisher.publishEvent(RemoteInvalidationEvent.flush());
+    }
+
+    private synchronized void enqueue(Invalidation invalidation) {
+        pending.add(invalidation);
+    }
+}
@@ -0,0 +1,145 @@
+package ru.hogwarts.school.cache.invalidation;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Bus on Postgres {@code LISTEN/NOTIFY}. Notifications are sent through the pool; listening
+ * uses one dedicated connection that is reopened when it breaks, after which subscribers are
+ * told to flush everything.
+ */
+public class PostgresInvalidationBus implements InvalidationBus, SmartLifecycle {
+
+    static final String CHANNEL = "school_invalidation";
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresInvalidationBus.class);
+    private static final int MAX_PAYLOAD = 7000;
+    private static final int POLL_TIMEOUT_MS = 1000;
+    private static final long RECONNECT_DELAY_MS = 2000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public PostgresInvalidationBus(JdbcTemplate jdbcTemplate, String url, String username, String password) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    @Override
+    public void publish(String nodeId, List<Invalidation> invalidations) {
+        StringBuilder payload = new StringBuilder(nodeId).append('|');
+        int header = payload.length();
+        for (Invalidation invalidation : invalidations) {
+            String value = invalidation.toString();
+            if (payload.length() + value.length() + 1 > MAX_PAYLOAD) {
+                notify(payload.toString());
+                payload.setLength(header);
+            }
+            if (payload.length() > header) {
+                payload.append(',');
+            }
+            payload.append(value);
+        }
+        if (payload.length() > header) {
+            notify(payload.toString());
+        }
+    }
+
+    @Override
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public synchronized void start() {
+        running = true;
+        listenerThread = new Thread(this::listen, "invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void notify(String payload) {
+        jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, CHANNEL, payload);
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                listeners.forEach(Listener::onReconnect);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications != null) {
+                        deliver(notifications);
+                    }
+                }
+            } catch (SQLException e) {
+                logger.warn("Invalidation listener lost its connection, reconnecting", e);
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Hands each notification to the listeners. A malformed payload or a failing listener is
+     * logged and skipped so that the listener thread keeps running.
+     */
+    private void deliver(PGNotification[] notifications) {
+        for (PGNotification notification : notifications) {
+            String payload = notification.getParameter();
+            try {
+                int separator = payload.indexOf('|');
+                String nodeId = payload.substring(0, separator);
+                List<Invalidation> invalidations = new ArrayList<>();
+                Arrays.stream(payload.substring(separator + 1).split(","))
+                        .map(Invalidation::parse)
+                        .forEach(invalidations::add);
+                listeners.forEach(listener -> listener.onInvalidations(nodeId, invalidations));
+            } catch (RuntimeException e) {
+                logger.error("Cannot apply invalidation notification '{}'", payload, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package ru.hogwarts.school.cache.invalidation;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Invalidations received from another node. {@code flushAll} means notifications may have been
+ * lost and every cache must be dropped.
+ */
+public record RemoteInvalidationEvent(List<Invalidation> invalidations, boolean flushAll) {
+
+    public static RemoteInvalidationEvent of(List<Invalidation> invalidations) {
+        return new RemoteInvalidationEvent(invalidations, false);
+    }
+
+    public static RemoteInvalidationEvent flush() {
+        return new RemoteInvalidationEvent(List.of(), true);
+    }
+
+    public boolean touches(String region) {
+        return flushAll || invalidations.stream().anyMatch(invalidation -> invalidation.region().equals(region));
+    }
+
+    /**
+     * Whether the whole {@code region} must be dropped rather than individual keys.
+     */
+    public boolean wipes(String region) {
+        return flushAll || invalidations.stream()
+                .anyMatch(invalidation -> invalidation.region().equals(region) && invalidation.key() == null);
+    }
+
+    public Set<Long> keys(String region) {
+        Set<Long> keys = new LinkedHashSet<>();
+        for (Invalidation invalidation : invalidations) {
+            if (invalidation.region().equals(region) && invalidation.key() != null) {
+                keys.add(invalidation.key());
+            }
+        }
+        return keys;
+    }
+}
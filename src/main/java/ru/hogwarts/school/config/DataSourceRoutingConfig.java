@@ -0,0 +1,66 @@
+package ru.hogwarts.school.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import ru.hogwarts.school.datasource.ReadYourWritesFilter;
+import ru.hogwarts.school.datasource.ReplicaRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Replaces the single datasource with a primary plus read replicas. Enabled with
+ * {@code school.datasource.routing.enabled=true}; replicas are listed under
+ * {@code school.datasource.routing.replicas[n]}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "school.datasource.routing.enabled", havingValue = "true")
+@EnableConfigurationProperties(RoutingProperties.class)
+public class DataSourceRoutingConfig {
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                             RoutingProperties routingProperties,
+                                                             Environment environment) {
+        Binder binder = Binder.get(environment);
+        DataSource primary = pool(binder, dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build());
+        List<DataSource> replicas = routingProperties.replicas().stream()
+                .map(replica -> (DataSource) pool(binder, DataSourceBuilder.create()
+                        .type(HikariDataSource.class)
+                        .url(replica.url())
+                        .username(replica.username())
+                        .password(replica.password())
+                        .build()))
+                .toList();
+        return new ReplicaRoutingDataSource(primary, replicas, routingProperties.maxLag(), routingProperties.lagQuery());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(RoutingProperties routingProperties) {
+        return new FilterRegistrationBean<>(new ReadYourWritesFilter(
+                routingProperties.maxLag().plus(routingProperties.lagCheckInterval())));
+    }
+
+    private static HikariDataSource pool(Binder binder, HikariDataSource dataSource) {
+        return binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource)).orElse(dataSource);
+    }
+}
@@ -0,0 +1,30 @@
+package ru.hogwarts.school.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.hogwarts.school.deadline.DeadlineDataSource;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class DeadlineConfig {
+
+    /**
+     * Wraps the application's datasource (whichever configuration created it) so that JPA and
+     * JDBC statements inherit the request deadline as their query timeout.
+     */
+    @Bean
+    public static BeanPostProcessor deadlineDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (beanName.equals("dataSource") && bean instanceof DataSource dataSource
+                        && !(bean instanceof DeadlineDataSource)) {
+                    return new DeadlineDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package ru.hogwarts.school.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.hogwarts.school.cache.invalidation.InMemoryInvalidationBus;
+import ru.hogwarts.school.cache.invalidation.InvalidationBus;
+import ru.hogwarts.school.cache.invalidation.PostgresInvalidationBus;
+
+@Configuration
+public class InvalidationBusConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "school.invalidation.bus", havingValue = "postgres")
+    public InvalidationBus postgresInvalidationBus(JdbcTemplate jdbcTemplate, DataSourceProperties dataSourceProperties) {
+        return new PostgresInvalidationBus(jdbcTemplate,
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "school.invalidation.bus", havingValue = "memory", matchIfMissing = true)
+    public InvalidationBus inMemoryInvalidationBus() {
+        return new InMemoryInvalidationBus();
+    }
+}
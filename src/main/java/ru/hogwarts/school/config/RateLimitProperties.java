@@ -0,0 +1,29 @@
+package ru.hogwarts.school.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Overrides for {@link ru.hogwarts.school.ratelimit.RateLimited} endpoints, keyed by endpoint
+ * name. Unset values fall back to the annotation. Clients are told apart by {@code clientHeader}
+ * when it is set and present (an API key, say), by remote address otherwise. The header is taken
+ * as is from {@code trustedProxies}, which are expected to set it themselves; any other address
+ * gets at most {@code maxClientKeysPerAddress} distinct header values per eviction interval and
+ * is limited by its address after that, so rotating the header neither escapes the limit nor
+ * grows the bucket map without bound.
+ */
+@ConfigurationProperties("school.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        String clientHeader,
+        @DefaultValue Set<String> trustedProxies,
+        @DefaultValue("16") int maxClientKeysPerAddress,
+        @DefaultValue Map<String, Endpoint> endpoints) {
+
+    public record Endpoint(Double clientRate, Integer clientBurst, Double endpointRate, Integer endpointBurst,
+                           Integer maxConcurrency) {
+    }
+}
@@ -0,0 +1,55 @@
+package ru.hogwarts.school.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import ru.hogwarts.school.reactive.ReactiveDatabase;
+import ru.hogwarts.school.reactive.ReactiveReadServer;
+import ru.hogwarts.school.reactive.ReactiveStudentHandler;
+import ru.hogwarts.school.reactive.ReactiveStudentRepository;
+
+/**
+ * Reactive read API on {@code school.reactive.port}, off unless {@code school.reactive.enabled}
+ * is set. The R2DBC url defaults to the JDBC one, so both stacks read the same schema.
+ */
+@Configuration
+@ConditionalOnProperty(name = "school.reactive.enabled", havingValue = "true")
+public class ReactiveConfig {
+
+    @Bean
+    public ReactiveDatabase reactiveDatabase(DataSourceProperties dataSourceProperties,
+                                             @Value("${school.reactive.r2dbc-url:}") String r2dbcUrl,
+                                             @Value("${school.reactive.pool-size:10}") int poolSize) {
+        String url = r2dbcUrl.isBlank() ? ReactiveDatabase.urlFromJdbc(dataSourceProperties.determineUrl()) : r2dbcUrl;
+        return new ReactiveDatabase(url, dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword(), poolSize);
+    }
+
+    @Bean
+    public ReactiveStudentRepository reactiveStudentRepository(ReactiveDatabase reactiveDatabase) {
+        return new ReactiveStudentRepository(reactiveDatabase.client());
+    }
+
+    @Bean
+    public ReactiveReadServer reactiveReadServer(ReactiveStudentRepository reactiveStudentRepository,
+                                                 ObjectMapper objectMapper,
+                                                 @Value("${school.reactive.port:0}") int port) {
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper,
+                            MediaType.APPLICATION_JSON, MediaType.APPLICATION_NDJSON));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        return new ReactiveReadServer(port, RouterFunctions.toHttpHandler(
+                new ReactiveStudentHandler(reactiveStudentRepository).routes(), strategies));
+    }
+}
@@ -0,0 +1,22 @@
+package ru.hogwarts.school.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties("school.datasource.routing")
+public record RoutingProperties(
+        boolean enabled,
+        @DefaultValue List<Replica> replicas,
+        @DefaultValue("5s") Duration maxLag,
+        @DefaultValue("5000ms") Duration lagCheckInterval,
+        @DefaultValue("SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 "
+                + "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() "
+                + "AND EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN 0 "
+                + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END") String lagQuery) {
+
+    public record Replica(String url, String username, String password) {
+    }
+}
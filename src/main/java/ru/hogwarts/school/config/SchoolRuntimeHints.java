@@ -0,0 +1,77 @@
+package ru.hogwarts.school.config;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import ru.hogwarts.school.dto.FacultyPatch;
+import ru.hogwarts.school.dto.StudentPatch;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.ChangeEvent;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Native-image hints for what AOT processing cannot see on its own: the entities as Jackson
+ * sees them, the Liquibase changelogs and Liquibase's own resources, and the JDBC drivers,
+ * which are loaded by name.
+ */
+public class SchoolRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final List<Class<?>> ENTITIES = List.of(Student.class, Faculty.class, Avatar.class, ChangeEvent.class);
+    private static final List<Class<?>> PAYLOADS = List.of(StudentPatch.class, FacultyPatch.class);
+    private static final List<String> DRIVERS = List.of("org.postgresql.Driver", "org.h2.Driver");
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> type : ENTITIES) {
+            hints.reflection().registerType(type, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS, MemberCategory.DECLARED_FIELDS);
+        }
+        for (Class<?> type : PAYLOADS) {
+            hints.reflection().registerType(type, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        for (String driver : DRIVERS) {
+            hints.reflection().registerTypeIfPresent(classLoader, driver, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+        hints.resources().registerPattern("liquibase/*.yml");
+        hints.resources().registerPattern("liquibase/scripts/*.sql");
+        hints.resources().registerPattern("liquibase.build.properties");
+        hints.resources().registerPattern("liquibase/i18n/*.properties");
+        hints.resources().registerPattern("www.liquibase.org/xml/ns/dbchangelog/*.xsd");
+        hints.resources().registerPattern("META-INF/services/liquibase.*");
+        registerLiquibaseServices(hints, classLoader);
+    }
+
+    /**
+     * Liquibase finds its databases, change types and parsers through service files and creates
+     * them reflectively, so every listed implementation needs a hint.
+     */
+    private static void registerLiquibaseServices(RuntimeHints hints, ClassLoader classLoader) {
+        try {
+            Resource[] serviceFiles = new PathMatchingResourcePatternResolver(classLoader)
+                    .getResources("classpath*:META-INF/services/liquibase.*");
+            for (Resource serviceFile : serviceFiles) {
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(serviceFile.getInputStream(), StandardCharsets.UTF_8))) {
+                    reader.lines()
+                            .map(line -> line.replaceFirst("#.*", "").trim())
+                            .filter(line -> !line.isEmpty())
+                            .forEach(type -> hints.reflection().registerTypeIfPresent(classLoader, type,
+                                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read Liquibase service files", e);
+        }
+    }
+}
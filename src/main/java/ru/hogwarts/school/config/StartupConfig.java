@@ -0,0 +1,37 @@
+package ru.hogwarts.school.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import ru.hogwarts.school.startup.LazyPackagesPostProcessor;
+import ru.hogwarts.school.startup.LiquibaseChecksumSkipper;
+
+import java.util.List;
+
+@Configuration
+public class StartupConfig {
+
+    /**
+     * Beans under {@code school.startup.lazy-packages} (springdoc by default) are created on
+     * first use. Set the property to an empty value to initialize them eagerly again.
+     */
+    @Bean
+    public static LazyPackagesPostProcessor lazyPackagesPostProcessor(Environment environment) {
+        return new LazyPackagesPostProcessor(Binder.get(environment)
+                .bind("school.startup.lazy-packages", String[].class)
+                .map(List::of)
+                .orElse(List.of("org.springdoc")));
+    }
+
+    /**
+     * Lets Boot's Liquibase bean skip the update when the changelog is unchanged. Opt-in with
+     * {@code school.liquibase.skip-unchanged=true}, which the fast-start build sets.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "school.liquibase.skip-unchanged", havingValue = "true")
+    public static LiquibaseChecksumSkipper liquibaseChecksumSkipper() {
+        return new LiquibaseChecksumSkipper();
+    }
+}
@@ -0,0 +1,36 @@
+package ru.hogwarts.school.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.hogwarts.school.deadline.DeadlineInterceptor;
+import ru.hogwarts.school.ratelimit.RateLimitInterceptor;
+import ru.hogwarts.school.upload.UploadLimitInterceptor;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class WebConfig implements WebMvcConfigurer {
+
+    private final RateLimitProperties rateLimitProperties;
+    private final RateLimitInterceptor rateLimitInterceptor;
+    private final UploadLimitInterceptor uploadLimitInterceptor;
+    private final DeadlineInterceptor deadlineInterceptor;
+
+    public WebConfig(RateLimitProperties rateLimitProperties, RateLimitInterceptor rateLimitInterceptor,
+                     UploadLimitInterceptor uploadLimitInterceptor, DeadlineInterceptor deadlineInterceptor) {
+        this.rateLimitProperties = rateLimitProperties;
+        this.rateLimitInterceptor = rateLimitInterceptor;
+        this.uploadLimitInterceptor = uploadLimitInterceptor;
+        this.deadlineInterceptor = deadlineInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (rateLimitProperties.enabled()) {
+            registry.addInterceptor(rateLimitInterceptor);
+        }
+        registry.addInterceptor(uploadLimitInterceptor);
+        registry.addInterceptor(deadlineInterceptor);
+    }
+}
@@ -0,0 +1,52 @@
+package ru.hogwarts.school.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.hogwarts.school.deadline.RequestDeadline;
+import ru.hogwarts.school.model.ChangeEvent;
+import ru.hogwarts.school.service.ChangeEventService;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/events")
+public class ChangeEventController {
+
+    private static final int MAX_LIMIT = 1000;
+    private static final long MAX_WAIT_MS = 30_000;
+    private static final long STREAM_TIMEOUT_MS = 30 * 60 * 1000;
+
+    private final ChangeEventService changeEventService;
+
+    public ChangeEventController(ChangeEventService changeEventService) {
+        this.changeEventService = changeEventService;
+    }
+
+    @GetMapping
+    @RequestDeadline("35s")
+    public ResponseEntity<List<ChangeEvent>> getEvents(@RequestParam(defaultValue = "0") long after,
+                                                       @RequestParam(defaultValue = "100") int limit,
+                                                       @RequestParam(defaultValue = "0") long waitMs) throws InterruptedException {
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_LIMIT));
+        Duration wait = Duration.ofMillis(Math.max(0, Math.min(waitMs, MAX_WAIT_MS)));
+        return ResponseEntity.ok(changeEventService.findAfter(after, boundedLimit, wait));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents(@RequestParam(required = false) Long after,
+                                                   @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        long seq = lastEventId != null ? lastEventId : after != null ? after : 0;
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+        try {
+            changeEventService.stream(seq, emitter);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+}
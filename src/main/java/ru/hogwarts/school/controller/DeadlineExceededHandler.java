@@ -0,0 +1,23 @@
+package ru.hogwarts.school.controller;
+
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import ru.hogwarts.school.deadline.DeadlineExceededException;
+
+import java.sql.SQLTimeoutException;
+
+/**
+ * Requests cut off by their deadline, whether in our code or by a query timeout, end in 504.
+ * Handlers also match on nested causes, which covers timeouts wrapped by JPA or transactions.
+ */
+@RestControllerAdvice
+public class DeadlineExceededHandler {
+
+    @ExceptionHandler({DeadlineExceededException.class, QueryTimeoutException.class, SQLTimeoutException.class})
+    public ResponseEntity<Void> handleDeadlineExceeded() {
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+    }
+}
@@ -0,0 +1,28 @@
+package ru.hogwarts.school.controller;
+
+final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Returns the entity version named in an {@code If-Match} header, {@code null} for {@code *},
+     * or {@code -1} when the tag cannot be ours, so that it never matches. {@code If-Match} uses
+     * strong comparison, so a weak tag never matches either.
+     */
+    static Long parseIfMatch(String ifMatch) {
+        String tag = ifMatch.trim();
+        if (tag.equals("*")) {
+            return null;
+        }
+        if (tag.startsWith("W/")) {
+            return -1L;
+        }
+        tag = tag.replace("\"", "");
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+}
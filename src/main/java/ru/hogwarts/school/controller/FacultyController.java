@@ -1,19 +1,86 @@
 package ru.hogwarts.school.controller;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.hogwarts.school.dto.FacultyPatch;
+import ru.hogwarts.school.dto.FacultyRoster;
+import ru.hogwarts.school.dto.SchoolReport;
 import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.FacultyStats;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.ratelimit.RateLimited;
 import ru.hogwarts.school.service.FacultyService;
+import ru.hogwarts.school.service.FacultyStatsService;
+import ru.hogwarts.school.service.ReportService;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/faculty")
 public class FacultyController {
 
+    private static final int MAX_LIMIT = 1000;
+    private static final int MAX_FACULTIES = 100;
+
     private final FacultyService facultyService;
+    private final ReportService reportService;
+    private final FacultyStatsService facultyStatsService;
 
-    public FacultyController(FacultyService facultyService) {
+    public FacultyController(FacultyService facultyService, ReportService reportService,
+                             FacultyStatsService facultyStatsService) {
         this.facultyService = facultyService;
+        this.reportService = reportService;
+        this.facultyStatsService = facultyStatsService;
+    }
+
+    @GetMapping("/report")
+    @RateLimited(value = "faculty-report", clientRate = 0.2, clientBurst = 2, endpointRate = 2, endpointBurst = 4,
+            maxConcurrency = 2)
+    public SchoolReport getReport() {
+        return reportService.facultyReport();
+    }
+
+    @GetMapping("/stats")
+    public List<FacultyStats> getAllStats() {
+        return facultyStatsService.findAllStats();
+    }
+
+    @GetMapping("{id}/stats")
+    public ResponseEntity<FacultyStats> getStats(@PathVariable Long id) {
+        FacultyStats stats = facultyStatsService.findStats(id);
+        if (stats == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("{id}/students")
+    public ResponseEntity<List<Student>> getStudents(@PathVariable Long id,
+                                                     @RequestParam(defaultValue = "0") long after,
+                                                     @RequestParam(defaultValue = "100") int limit) {
+        List<Student> students = facultyService.findStudents(id, after, Math.max(1, Math.min(limit, MAX_LIMIT)));
+        if (students == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(students);
+    }
+
+    /**
+     * The first {@code limit} students of each faculty in {@code ids}. At most {@code MAX_LIMIT}
+     * students are returned in all, so the limit shrinks as more faculties are asked for; the rest
+     * of a roster is paged from its {@code next} cursor with {@code GET /faculty/{id}/students}.
+     */
+    @GetMapping("/students")
+    public ResponseEntity<List<FacultyRoster>> getRosters(@RequestParam List<Long> ids,
+                                                          @RequestParam(defaultValue = "100") int limit) {
+        if (ids.size() > MAX_FACULTIES) {
+            return ResponseEntity.badRequest().build();
+        }
+        int perFaculty = Math.max(1, Math.min(limit, MAX_LIMIT / Math.max(1, ids.size())));
+        return ResponseEntity.ok(facultyService.findRosters(ids, perFaculty));
     }
 
     @GetMapping("{id}")
@@ -22,7 +89,7 @@ public class FacultyController {
         if (faculty == null) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(faculty);
+        return ResponseEntity.ok().eTag(String.valueOf(faculty.getVersion())).body(faculty);
     }
 
     @PostMapping
@@ -31,12 +98,40 @@ public class FacultyController {
     }
 
     @PutMapping
-    public ResponseEntity<Faculty> editFaculty(@RequestBody Faculty faculty) {
-        Faculty foundFaculty = facultyService.editFaculty(faculty);
+    public ResponseEntity<Faculty> editFaculty(@RequestBody Faculty faculty,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = ifMatch == null ? null : ETags.parseIfMatch(ifMatch);
+        Faculty foundFaculty;
+        try {
+            foundFaculty = expectedVersion == null
+                    ? facultyService.editFaculty(faculty)
+                    : facultyService.editFaculty(faculty, expectedVersion);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
         if (foundFaculty == null) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+            return expectedVersion == null
+                    ? ResponseEntity.status(HttpStatus.BAD_REQUEST).build()
+                    : ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok().eTag(String.valueOf(foundFaculty.getVersion())).body(foundFaculty);
+    }
+
+    @PatchMapping("{id}")
+    public ResponseEntity<Void> patchFaculty(@PathVariable Long id, @RequestBody FacultyPatch patch,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = ifMatch == null ? null : ETags.parseIfMatch(ifMatch);
+        try {
+            if (!facultyService.patchFaculty(id, patch, expectedVersion)) {
+                return ResponseEntity.notFound().build();
+            }
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        if (expectedVersion == null) {
+            return ResponseEntity.noContent().build();
         }
-        return ResponseEntity.ok(foundFaculty);
+        return ResponseEntity.noContent().eTag(String.valueOf(expectedVersion + 1)).build();
     }
 
     @DeleteMapping("{id}")
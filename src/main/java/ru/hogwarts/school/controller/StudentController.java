@@ -1,38 +1,106 @@
 package ru.hogwarts.school.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import ru.hogwarts.school.analytics.StudentSnapshot;
+import ru.hogwarts.school.cache.AvatarCache;
+import ru.hogwarts.school.cache.RecentActivityFeed;
+import ru.hogwarts.school.deadline.Deadline;
+import ru.hogwarts.school.deadline.RequestDeadline;
+import ru.hogwarts.school.dto.AvatarImportReport;
+import ru.hogwarts.school.dto.AvatarScanReport;
+import ru.hogwarts.school.dto.StudentActivity;
+import ru.hogwarts.school.dto.StudentActivityPage;
+import ru.hogwarts.school.dto.StudentFilter;
+import ru.hogwarts.school.dto.StudentFilterResult;
+import ru.hogwarts.school.dto.StudentPatch;
 import ru.hogwarts.school.model.Avatar;
 import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.ratelimit.RateLimited;
+import ru.hogwarts.school.service.AvatarExportService;
+import ru.hogwarts.school.service.AvatarImportService;
+import ru.hogwarts.school.service.AvatarScanService;
 import ru.hogwarts.school.service.AvatarService;
 import ru.hogwarts.school.service.StudentService;
+import ru.hogwarts.school.upload.SizeLimitedInputStream;
+import ru.hogwarts.school.upload.UploadLimit;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Instant;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/student")
 public class StudentController {
 
+    private static final int MAX_BULK_DELETE = 10_000;
+
+    private static final int MAX_FILTER_IDS = 1000;
+
+    private static final Map<String, String> AVATAR_EXTENSIONS = Map.of(
+            "image/png", "png",
+            "image/jpeg", "jpg",
+            "image/gif", "gif",
+            "image/webp", "webp",
+            "image/bmp", "bmp");
+
     private final StudentService studentService;
 
     private final AvatarService avatarService;
 
+    private final AvatarCache avatarCache;
+
+    private final AvatarImportService avatarImportService;
+
+    private final AvatarExportService avatarExportService;
+
+    private final AvatarScanService avatarScanService;
+
+    private final StudentSnapshot studentSnapshot;
+
+    private final RecentActivityFeed recentActivityFeed;
+
+    private final long avatarMaxSize;
+
+    private final long avatarImportMaxSize;
+
     public StudentController(StudentService studentService,
-                             AvatarService avatarService) {
+                             AvatarService avatarService,
+                             AvatarCache avatarCache,
+                             AvatarImportService avatarImportService,
+                             AvatarExportService avatarExportService,
+                             AvatarScanService avatarScanService,
+                             StudentSnapshot studentSnapshot,
+                             RecentActivityFeed recentActivityFeed,
+                             @Value("${avatars.max-size:300KB}") DataSize avatarMaxSize,
+                             @Value("${avatars.import.max-size:200MB}") DataSize avatarImportMaxSize) {
         this.studentService = studentService;
         this.avatarService = avatarService;
+        this.avatarCache = avatarCache;
+        this.avatarImportService = avatarImportService;
+        this.avatarExportService = avatarExportService;
+        this.avatarScanService = avatarScanService;
+        this.studentSnapshot = studentSnapshot;
+        this.recentActivityFeed = recentActivityFeed;
+        this.avatarMaxSize = avatarMaxSize.toBytes();
+        this.avatarImportMaxSize = avatarImportMaxSize.toBytes();
     }
 
     @GetMapping("{id}")
@@ -41,7 +109,7 @@ public class StudentController {
         if (student == null) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(student);
+        return ResponseEntity.ok().eTag(String.valueOf(student.getVersion())).body(student);
     }
 
     @PostMapping
@@ -50,12 +118,40 @@ public class StudentController {
     }
 
     @PutMapping
-    public ResponseEntity<Student> editStudent(@RequestBody Student student) {
-        Student foundStudent = studentService.editStudent(student);
+    public ResponseEntity<Student> editStudent(@RequestBody Student student,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = ifMatch == null ? null : ETags.parseIfMatch(ifMatch);
+        Student foundStudent;
+        try {
+            foundStudent = expectedVersion == null
+                    ? studentService.editStudent(student)
+                    : studentService.editStudent(student, expectedVersion);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
         if (foundStudent == null) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+            return expectedVersion == null
+                    ? ResponseEntity.status(HttpStatus.BAD_REQUEST).build()
+                    : ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(foundStudent);
+        return ResponseEntity.ok().eTag(String.valueOf(foundStudent.getVersion())).body(foundStudent);
+    }
+
+    @PatchMapping("{id}")
+    public ResponseEntity<Void> patchStudent(@PathVariable Long id, @RequestBody StudentPatch patch,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = ifMatch == null ? null : ETags.parseIfMatch(ifMatch);
+        try {
+            if (!studentService.patchStudent(id, patch, expectedVersion)) {
+                return ResponseEntity.notFound().build();
+            }
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        if (expectedVersion == null) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.noContent().eTag(String.valueOf(expectedVersion + 1)).build();
     }
 
     @DeleteMapping("{id}")
@@ -64,6 +160,19 @@ public class StudentController {
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * Deletes the listed students together with their avatars, answering with the ids that existed.
+     */
+    @DeleteMapping
+    @RateLimited(value = "student-bulk-delete", clientRate = 0.5, clientBurst = 5, endpointRate = 5, endpointBurst = 10,
+            maxConcurrency = 2)
+    public ResponseEntity<List<Long>> deleteStudents(@RequestBody List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_BULK_DELETE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(studentService.deleteStudents(ids));
+    }
+
     @GetMapping
     public ResponseEntity<Collection<Student>> findStudents(@RequestParam(required = false) Integer min, @RequestParam(required = false) Integer max, @RequestParam(required = false) String facultyName) {
         if (min != null && max != null && min > 0 && max > 0) {
@@ -75,7 +184,31 @@ public class StudentController {
         return ResponseEntity.ok(Collections.emptyList());
     }
 
+    /**
+     * Counts and averages the students matching every given condition, served from
+     * {@link StudentSnapshot}; 404 unless the snapshot is enabled.
+     */
+    @GetMapping("/filter")
+    public ResponseEntity<StudentFilterResult> filterStudents(@RequestParam(required = false) Integer minAge,
+                                                              @RequestParam(required = false) Integer maxAge,
+                                                              @RequestParam(required = false) Long facultyId,
+                                                              @RequestParam(required = false) Integer minNameLength,
+                                                              @RequestParam(required = false) Integer maxNameLength,
+                                                              @RequestParam(required = false) Boolean hasAvatar,
+                                                              @RequestParam(defaultValue = "100") int limit) {
+        if (!studentSnapshot.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (limit < 0 || limit > MAX_FILTER_IDS) {
+            return ResponseEntity.badRequest().build();
+        }
+        StudentFilter filter = new StudentFilter(minAge, maxAge, facultyId, minNameLength, maxNameLength, hasAvatar);
+        return ResponseEntity.ok(studentSnapshot.filter(filter, limit));
+    }
+
     @GetMapping("/all")
+    @RateLimited(value = "students-all", clientRate = 1, clientBurst = 5, endpointRate = 20, endpointBurst = 40,
+            maxConcurrency = 8)
     public ResponseEntity<List<Student>> getAllStudents() {
         List<Student> students = studentService.findAllStudents();
         return ResponseEntity.ok(students);
@@ -83,24 +216,110 @@ public class StudentController {
 
 
     @PostMapping(value = "/{id}/avatar", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @RateLimited(value = "avatar-upload", clientRate = 0.5, clientBurst = 5, endpointRate = 20, endpointBurst = 40,
+            maxConcurrency = 8)
+    @UploadLimit("${avatars.max-size:300KB}")
     public ResponseEntity<String> uploadAvatar(@PathVariable Long id, @RequestParam MultipartFile avatar) throws IOException {
-        if (avatar.getSize() > 1024 * 300) {
-            return ResponseEntity.badRequest().body("Файл слишком большой");
+        if (avatar.getSize() > avatarMaxSize) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body("Файл слишком большой");
         }
 
         studentService.uploadAvatar(id, avatar);
         return ResponseEntity.ok().build();
     }
 
-    @GetMapping(value = "/{id}/avatar/preview")
-    public ResponseEntity<byte[]> downloadAvatar(@PathVariable Long id) {
-        Avatar avatar = avatarService.findAvatar(id);
+    /**
+     * Uploads an avatar as the raw request body ({@code Content-Type: image/png} and so on; other
+     * image types get 415). The body is not spooled by the multipart parser: it is streamed to a
+     * temporary file, with an in-memory copy of at most {@code avatars.max-size} kept for the
+     * preview column, and the upload is aborted with 413 the moment it grows past that size.
+     */
+    @PutMapping(value = "/{id}/avatar", consumes = "image/*")
+    @RateLimited(value = "avatar-upload", clientRate = 0.5, clientBurst = 5, endpointRate = 20, endpointBurst = 40,
+            maxConcurrency = 8)
+    @UploadLimit("${avatars.max-size:300KB}")
+    public ResponseEntity<Void> putAvatar(@PathVariable Long id, @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                          HttpServletRequest request) throws IOException {
+        String mediaType = contentType.getType() + "/" + contentType.getSubtype();
+        String extension = AVATAR_EXTENSIONS.get(mediaType);
+        if (extension == null) {
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).build();
+        }
+        studentService.uploadAvatar(id, new SizeLimitedInputStream(request.getInputStream(), avatarMaxSize),
+                mediaType, extension);
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * Imports many avatars from one ZIP body whose entries are named {@code <studentId>.<ext>},
+     * answering with a result per entry.
+     */
+    @PostMapping(value = "/avatars", consumes = "application/zip")
+    @RateLimited(value = "avatar-import", clientRate = 0.1, clientBurst = 2, endpointRate = 1, endpointBurst = 4,
+            maxConcurrency = 2)
+    @UploadLimit("${avatars.import.max-size:200MB}")
+    @RequestDeadline("10m")
+    public AvatarImportReport importAvatars(HttpServletRequest request) throws IOException {
+        return avatarImportService.importZip(new SizeLimitedInputStream(request.getInputStream(), avatarImportMaxSize));
+    }
+
+    /**
+     * Streams avatars as a ZIP in the format {@link #importAvatars} accepts. {@code sinceId} and
+     * {@code since} restrict the export to avatars added after that id or changed since that time
+     * (reaching back {@code avatars.export.since-overlap} for changes that committed late).
+     */
+    @GetMapping(value = "/avatars", produces = "application/zip")
+    @RateLimited(value = "avatar-export", clientRate = 0.1, clientBurst = 2, endpointRate = 1, endpointBurst = 4,
+            maxConcurrency = 2)
+    @RequestDeadline("30m")
+    public void exportAvatars(@RequestParam(required = false) Long facultyId,
+                              @RequestParam(defaultValue = "0") long sinceId,
+                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant since,
+                              HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"avatars.zip\"");
+        avatarExportService.export(facultyId, sinceId, since, response.getOutputStream());
+    }
+
+    /**
+     * Starts a background check of avatar files against avatar rows; with {@code repair} it also
+     * fixes what it safely can. The result is read from {@code GET /student/avatars/scan}.
+     */
+    @PostMapping("/avatars/scan")
+    public ResponseEntity<Void> startAvatarScan(@RequestParam(defaultValue = "false") boolean repair) {
+        if (!avatarScanService.start(repair)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.accepted().build();
+    }
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType(avatar.getMediaType()));
-        headers.setContentLength(avatar.getData().length);
+    @GetMapping("/avatars/scan")
+    public ResponseEntity<AvatarScanReport> getAvatarScanReport() {
+        AvatarScanReport report = avatarScanService.lastReport();
+        if (report == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(report);
+    }
+
+    @GetMapping(value = "/{id}/avatar/preview")
+    public void downloadAvatarPreview(@PathVariable Long id, HttpServletResponse response) throws IOException {
+        AvatarCache.Entry entry = avatarCache.get(id);
+        if (entry == null) {
+            long version = avatarCache.version(id);
+            Avatar avatar = avatarService.findAvatar(id);
+            if (avatar == null || avatar.getData() == null) {
+                response.setStatus(HttpStatus.NOT_FOUND.value());
+                return;
+            }
+            entry = avatarCache.put(id, version, avatar.getMediaType(), avatar.getData());
+        }
 
-        return ResponseEntity.status(HttpStatus.OK).headers(headers).body(avatar.getData());
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(entry.mediaType());
+        response.setContentLength(entry.size());
+        entry.writeTo(response.getOutputStream());
     }
 
     @GetMapping(value = "/{id}/avatar")
@@ -117,7 +336,7 @@ public class StudentController {
             response.setStatus(200);
             response.setContentType(avatar.getMediaType());
             response.setContentLength((int) avatar.getFileSize());
-            is.transferTo(os);
+            Deadline.transfer(is, os);
         }
         return ResponseEntity.ok().build();
     }
@@ -140,7 +359,34 @@ public class StudentController {
         return ResponseEntity.ok(lastFive);
     }
 
+    /**
+     * The latest student changes, newest first, served from memory.
+     */
+    @GetMapping("/activity")
+    public ResponseEntity<List<StudentActivity>> getRecentActivity(@RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1 || limit > RecentActivityFeed.MAX_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(recentActivityFeed.latest(limit));
+    }
+
+    /**
+     * Student changes after {@code cursor}, oldest first, for clients polling with the epoch and
+     * cursor of their previous response.
+     */
+    @GetMapping("/activity/since")
+    public ResponseEntity<StudentActivityPage> getActivitySince(@RequestParam(required = false) String epoch,
+                                                                @RequestParam(defaultValue = "0") long cursor,
+                                                                @RequestParam(defaultValue = "100") int limit) {
+        if (cursor < 0 || limit < 1 || limit > RecentActivityFeed.MAX_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(recentActivityFeed.since(epoch, cursor, limit));
+    }
+
     @GetMapping("/avatar")
+    @RateLimited(value = "avatar-page", clientRate = 5, clientBurst = 20, endpointRate = 100, endpointBurst = 200,
+            maxConcurrency = 16)
     public ResponseEntity<Collection<Avatar>> getAllAvatars(@RequestParam("page") Integer pageNumber, @RequestParam("size") Integer pageSize) {
         Collection<Avatar> avatars = avatarService.getAllAvatars(pageNumber, pageSize);
         return ResponseEntity.ok(avatars);
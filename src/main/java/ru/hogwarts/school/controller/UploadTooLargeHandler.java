@@ -0,0 +1,24 @@
+package ru.hogwarts.school.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import ru.hogwarts.school.upload.UploadTooLargeException;
+
+/**
+ * Uploads abandoned mid-stream for being too large end in 413, and the connection is closed
+ * rather than drained, so the rest of the body is never read.
+ */
+@RestControllerAdvice
+public class UploadTooLargeHandler {
+
+    @ExceptionHandler({UploadTooLargeException.class, MaxUploadSizeExceededException.class})
+    public ResponseEntity<String> handleUploadTooLarge() {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .header(HttpHeaders.CONNECTION, "close")
+                .body("Файл слишком большой");
+    }
+}
@@ -0,0 +1,116 @@
+package ru.hogwarts.school.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * Startup self-check: times {@code SELECT 1} round trips to the database and logs a suggested
+ * pool size next to the configured one. Enabled with {@code school.datasource.self-check.enabled=true}
+ * (on in the {@code production} profile).
+ */
+@Component
+@ConditionalOnProperty(name = "school.datasource.self-check.enabled", havingValue = "true")
+public class PoolSizeAdvisor implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(PoolSizeAdvisor.class);
+
+    private static final int WARMUP = 5;
+    private static final int SAMPLES = 50;
+
+    private final DataSource dataSource;
+    private final int databaseCores;
+    private final int targetRps;
+    private final int roundTripsPerRequest;
+
+    public PoolSizeAdvisor(DataSource dataSource,
+                           @Value("${school.datasource.self-check.database-cores:0}") int databaseCores,
+                           @Value("${school.datasource.self-check.target-rps:0}") int targetRps,
+                           @Value("${school.datasource.self-check.round-trips-per-request:4}") int roundTripsPerRequest) {
+        this.dataSource = dataSource;
+        this.databaseCores = databaseCores;
+        this.targetRps = targetRps;
+        this.roundTripsPerRequest = roundTripsPerRequest;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            long[] roundTrips = measureRoundTrips();
+            long medianNanos = roundTrips[roundTrips.length / 2];
+            long p95Nanos = roundTrips[roundTrips.length * 95 / 100];
+            int suggested = suggestPoolSize(databaseCores, targetRps, roundTripsPerRequest, medianNanos);
+            Integer configured = configuredPoolSize();
+            if (databaseCores <= 0) {
+                logger.info("Database core count unknown (school.datasource.self-check.database-cores unset); "
+                        + "the cores * 2 + 1 bound is not applied");
+            }
+            if (suggested <= 0) {
+                logger.info("Database round trip: median {} us, p95 {} us. No pool size suggestion without "
+                                + "database-cores or target-rps, configured {}",
+                        medianNanos / 1000, p95Nanos / 1000, configured == null ? "unknown" : configured);
+                return;
+            }
+            logger.info("Database round trip: median {} us, p95 {} us. Suggested pool size {}, configured {}",
+                    medianNanos / 1000, p95Nanos / 1000, suggested, configured == null ? "unknown" : configured);
+            if (configured != null && configured < suggested) {
+                logger.warn("Pool size {} is below the suggested {}; requests may queue for connections",
+                        configured, suggested);
+            }
+        } catch (SQLException e) {
+            logger.warn("Database self-check failed", e);
+        }
+    }
+
+    /**
+     * The larger of the usual {@code cores * 2 + 1} starting point, when the database core count
+     * is known, and, when a target rate is given, the connections Little's law says are busy at
+     * that rate: {@code rps * roundTripsPerRequest * roundTrip}. Zero when neither is known.
+     */
+    static int suggestPoolSize(int databaseCores, int targetRps, int roundTripsPerRequest, long roundTripNanos) {
+        int byCores = databaseCores > 0 ? databaseCores * 2 + 1 : 0;
+        long byLatency = (long) Math.ceil(targetRps * roundTripsPerRequest * roundTripNanos / 1e9);
+        return (int) Math.max(byCores, byLatency);
+    }
+
+    long[] measureRoundTrips() throws SQLException {
+        long[] samples = new long[SAMPLES];
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            for (int i = -WARMUP; i < SAMPLES; i++) {
+                long start = System.nanoTime();
+                try (ResultSet resultSet = statement.executeQuery("SELECT 1")) {
+                    resultSet.next();
+                }
+                if (i >= 0) {
+                    samples[i] = System.nanoTime() - start;
+                }
+            }
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    private Integer configuredPoolSize() {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            logger.debug("Cannot unwrap the pool", e);
+        }
+        return null;
+    }
+}
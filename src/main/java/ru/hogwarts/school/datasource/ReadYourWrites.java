@@ -0,0 +1,72 @@
+package ru.hogwarts.school.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Keeps a client's reads on the primary until the replicas may have caught up with its writes.
+ * State lives only inside a request opened by {@link ReadYourWritesFilter}: the first write of a
+ * request calls back to the filter, which tells the client to stay on the primary for its next
+ * requests too. Writes made outside a request (schedulers, pools) are not remembered.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Scope> SCOPE = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> FORCED = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    /**
+     * Opens the request scope. {@code recentWrite} pins the whole request to the primary;
+     * {@code onFirstWrite} runs once, when the request itself first writes.
+     */
+    public static void begin(boolean recentWrite, Runnable onFirstWrite) {
+        SCOPE.set(new Scope(recentWrite, onFirstWrite));
+    }
+
+    public static void markWrite() {
+        Scope scope = SCOPE.get();
+        if (scope != null && !scope.wrote) {
+            scope.wrote = true;
+            scope.onFirstWrite.run();
+        }
+    }
+
+    public static boolean hasWritten() {
+        Scope scope = SCOPE.get();
+        return FORCED.get() != null || (scope != null && (scope.wrote || scope.recentWrite));
+    }
+
+    /**
+     * Runs {@code action} with replicas bypassed, for reads whose result is cached and must not
+     * be behind the primary. Works on any thread.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean forced = FORCED.get();
+        FORCED.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (forced == null) {
+                FORCED.remove();
+            }
+        }
+    }
+
+    public static void reset() {
+        SCOPE.remove();
+        FORCED.remove();
+    }
+
+    private static final class Scope {
+
+        private final boolean recentWrite;
+        private final Runnable onFirstWrite;
+        private boolean wrote;
+
+        private Scope(boolean recentWrite, Runnable onFirstWrite) {
+            this.recentWrite = recentWrite;
+            this.onFirstWrite = onFirstWrite;
+        }
+    }
+}
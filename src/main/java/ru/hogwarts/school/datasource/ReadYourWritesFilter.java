@@ -0,0 +1,63 @@
+package ru.hogwarts.school.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Makes read-your-writes sticky across requests. A request that writes gets a cookie with the
+ * time of the write; for {@code window} after it, the client's requests read from the primary.
+ * The window should cover the replica lag limit plus the interval between lag checks.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE = "school-last-write";
+
+    private final Duration window;
+
+    public ReadYourWritesFilter(Duration window) {
+        this.window = window;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        long lastWrite = lastWrite(request);
+        ReadYourWrites.begin(lastWrite >= 0 && lastWrite <= now && now - lastWrite < window.toMillis(), () -> {
+            if (!response.isCommitted()) {
+                Cookie cookie = new Cookie(COOKIE, String.valueOf(System.currentTimeMillis()));
+                cookie.setPath("/");
+                cookie.setHttpOnly(true);
+                cookie.setMaxAge((int) Math.max(1, (window.toMillis() + 999) / 1000));
+                response.addCookie(cookie);
+            }
+        });
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.reset();
+        }
+    }
+
+    private static long lastWrite(HttpServletRequest request) {
+        if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (COOKIE.equals(cookie.getName())) {
+                    try {
+                        return Long.parseLong(cookie.getValue());
+                    } catch (NumberFormatException e) {
+                        return -1;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+}
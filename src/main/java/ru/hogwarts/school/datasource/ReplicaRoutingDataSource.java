@@ -0,0 +1,98 @@
+package ru.hogwarts.school.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a healthy replica and everything else to the primary.
+ * Must be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}:
+ * the read-only flag is only known once the transaction has started.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final List<DataSource> replicas;
+    private final Duration maxLag;
+    private final String lagQuery;
+    private volatile boolean[] healthy;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration maxLag, String lagQuery) {
+        this.replicas = replicas;
+        this.maxLag = maxLag;
+        this.lagQuery = lagQuery;
+        boolean[] initial = new boolean[replicas.size()];
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+            initial[i] = true;
+        }
+        this.healthy = initial;
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                ReadYourWrites.markWrite();
+            }
+            return PRIMARY;
+        }
+        if (ReadYourWrites.hasWritten()) {
+            return PRIMARY;
+        }
+        boolean[] current = healthy;
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            int candidate = Math.floorMod(next.getAndIncrement(), replicas.size());
+            if (current[candidate]) {
+                return candidate;
+            }
+        }
+        return PRIMARY;
+    }
+
+    /**
+     * Measures each replica's replay lag with {@code lagQuery} (seconds behind the primary) and
+     * takes replicas that are too far behind, or unreachable, out of rotation. The default query
+     * reports 0 for a replica that has replayed everything it received, so an idle primary does
+     * not push every replica out.
+     */
+    @Scheduled(fixedDelayString = "${school.datasource.routing.lag-check-interval:5000}")
+    public void checkReplicas() {
+        boolean[] checked = new boolean[replicas.size()];
+        for (int i = 0; i < replicas.size(); i++) {
+            try {
+                Double lagSeconds = new JdbcTemplate(replicas.get(i)).queryForObject(lagQuery, Double.class);
+                checked[i] = lagSeconds != null && lagSeconds * 1000 <= maxLag.toMillis();
+            } catch (RuntimeException e) {
+                checked[i] = false;
+            }
+            if (checked[i] != healthy[i]) {
+                logger.warn("Replica {} is now {}", i, checked[i] ? "in rotation" : "out of rotation");
+            }
+        }
+        healthy = checked;
+    }
+
+    public boolean isHealthy(int replica) {
+        return healthy[replica];
+    }
+}
@@ -0,0 +1,73 @@
+package ru.hogwarts.school.deadline;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The current request's deadline, as a {@link System#nanoTime()} value. Threads without a
+ * deadline (schedulers, event listeners) are never timed out.
+ */
+public final class Deadline {
+
+    private static final int TRANSFER_CHUNK = 16 * 1024;
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private Deadline() {
+    }
+
+    public static void set(long deadlineNanos) {
+        DEADLINE.set(deadlineNanos);
+    }
+
+    public static void clear() {
+        DEADLINE.remove();
+    }
+
+    public static boolean isSet() {
+        return DEADLINE.get() != null;
+    }
+
+    /**
+     * Nanoseconds left, {@link Long#MAX_VALUE} when there is no deadline.
+     */
+    public static long remainingNanos() {
+        Long deadline = DEADLINE.get();
+        return deadline == null ? Long.MAX_VALUE : deadline - System.nanoTime();
+    }
+
+    /**
+     * Whole seconds left, rounded up, for JDBC's {@code setQueryTimeout}; 0 means no timeout.
+     */
+    public static int remainingSeconds() {
+        long remaining = remainingNanos();
+        if (remaining == Long.MAX_VALUE) {
+            return 0;
+        }
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, (remaining + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    /**
+     * Copies {@code in} to {@code out}, giving up with {@link DeadlineExceededException} between
+     * chunks once the deadline has passed.
+     */
+    public static long transfer(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[TRANSFER_CHUNK];
+        long transferred = 0;
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            check();
+            out.write(buffer, 0, read);
+            transferred += read;
+        }
+        return transferred;
+    }
+
+    public static void check() {
+        if (remainingNanos() <= 0) {
+            throw new DeadlineExceededException();
+        }
+    }
+}
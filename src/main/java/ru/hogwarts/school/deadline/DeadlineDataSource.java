@@ -0,0 +1,86 @@
+package ru.hogwarts.school.deadline;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+
+/**
+ * Gives every statement created on a request thread a query timeout equal to the time left
+ * before the request deadline, so the database cancels work nobody is waiting for. Once the
+ * deadline has passed no new connection or statement is handed out.
+ */
+public class DeadlineDataSource extends DelegatingDataSource {
+
+    public DeadlineDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(checkDeadline(() -> super.getConnection()));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(checkDeadline(() -> super.getConnection(username, password)));
+    }
+
+    private static Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(DeadlineDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new DeadlineConnection(connection));
+    }
+
+    private static <T> T checkDeadline(SqlSupplier<T> supplier) throws SQLException {
+        if (Deadline.remainingNanos() <= 0) {
+            throw new SQLTimeoutException("Request deadline exceeded");
+        }
+        return supplier.get();
+    }
+
+    private interface SqlSupplier<T> {
+        T get() throws SQLException;
+    }
+
+    private record DeadlineConnection(Connection target) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+            if (result instanceof Statement statement && Deadline.isSet()) {
+                int seconds = Deadline.remainingSeconds();
+                if (Deadline.remainingNanos() <= 0) {
+                    statement.close();
+                    throw new SQLTimeoutException("Request deadline exceeded");
+                }
+                statement.setQueryTimeout(seconds);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package ru.hogwarts.school.deadline;
+
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException() {
+        super("Request deadline exceeded");
+    }
+}
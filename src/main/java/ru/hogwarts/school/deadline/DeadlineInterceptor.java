@@ -0,0 +1,70 @@
+package ru.hogwarts.school.deadline;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sets the request deadline from {@code X-Request-Timeout} (milliseconds), capped by the
+ * endpoint's {@link RequestDeadline} or {@code school.deadline.default}. Values that are not
+ * a positive number get 400.
+ */
+@Component
+public class DeadlineInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+
+    private final Duration defaultDeadline;
+
+    public DeadlineInterceptor(@Value("${school.deadline.default:10s}") Duration defaultDeadline) {
+        this.defaultDeadline = defaultDeadline;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        long budget = endpointDeadline(handler).toNanos();
+        String header = request.getHeader(TIMEOUT_HEADER);
+        if (header != null) {
+            long millis;
+            try {
+                millis = Long.parseLong(header.trim());
+            } catch (NumberFormatException e) {
+                millis = 0;
+            }
+            if (millis < 1) {
+                response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                return false;
+            }
+            budget = Math.min(budget, TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+        Deadline.set(System.nanoTime() + budget);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Deadline.clear();
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Deadline.clear();
+    }
+
+    private Duration endpointDeadline(Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            RequestDeadline requestDeadline = handlerMethod.getMethodAnnotation(RequestDeadline.class);
+            if (requestDeadline != null) {
+                return DurationStyle.detectAndParse(requestDeadline.value());
+            }
+        }
+        return defaultDeadline;
+    }
+}
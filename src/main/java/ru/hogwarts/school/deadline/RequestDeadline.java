@@ -0,0 +1,22 @@
+package ru.hogwarts.school.deadline;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Default deadline for a controller method, replacing {@code school.deadline.default}.
+ * A shorter {@code X-Request-Timeout} from the client still wins.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequestDeadline {
+
+    /**
+     * A duration such as {@code 500ms} or {@code 35s}.
+     */
+    String value();
+}
@@ -0,0 +1,7 @@
+package ru.hogwarts.school.dto;
+
+import java.time.Instant;
+
+public record AvatarFile(long id, long studentId, String filePath, String mediaType, long fileSize,
+                         Instant updatedAt) {
+}
@@ -0,0 +1,13 @@
+package ru.hogwarts.school.dto;
+
+import java.util.List;
+
+public record AvatarImportReport(int saved, int failed, List<Entry> entries) {
+
+    public record Entry(String name, Long studentId, Status status, String message) {
+    }
+
+    public enum Status {
+        SAVED, BAD_NAME, UNSUPPORTED_TYPE, TOO_LARGE, DUPLICATE, UNKNOWN_STUDENT, FAILED
+    }
+}
@@ -0,0 +1,20 @@
+package ru.hogwarts.school.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Outcome of one avatar consistency scan. Counters cover every problem found; {@code issues}
+ * lists at most the first {@code AvatarScanService.MAX_ISSUES} of them.
+ */
+public record AvatarScanReport(Instant startedAt, Instant finishedAt, boolean repair, long files, long rows,
+                               long orphanFiles, long missingFiles, long sizeMismatches, long repaired,
+                               List<Issue> issues) {
+
+    public record Issue(Kind kind, String path, Long avatarId, Long expectedSize, Long actualSize, boolean repaired) {
+    }
+
+    public enum Kind {
+        ORPHAN_FILE, MISSING_FILE, SIZE_MISMATCH
+    }
+}
@@ -0,0 +1,5 @@
+package ru.hogwarts.school.dto;
+
+public record FacultyReport(Long facultyId, String facultyName, long students, Integer minAge, Integer maxAge,
+                            Double averageAge, long withAvatar, double avatarCoverage) {
+}
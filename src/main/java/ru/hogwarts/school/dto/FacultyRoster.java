@@ -0,0 +1,12 @@
+package ru.hogwarts.school.dto;
+
+import ru.hogwarts.school.model.Student;
+
+import java.util.List;
+
+/**
+ * The first students of a faculty. {@code next} is the {@code after} cursor for
+ * {@code GET /faculty/{id}/students} when the faculty has more, {@code null} otherwise.
+ */
+public record FacultyRoster(long facultyId, String facultyName, List<Student> students, Long next) {
+}
@@ -0,0 +1,11 @@
+package ru.hogwarts.school.dto;
+
+import java.util.List;
+
+/**
+ * School totals over every student. Students without a faculty are counted in the totals and
+ * reported separately in {@code unassigned}, whose faculty id and name are {@code null}.
+ */
+public record SchoolReport(long students, Double averageAge, long withAvatar, List<FacultyReport> faculties,
+                           FacultyReport unassigned) {
+}
@@ -0,0 +1,8 @@
+package ru.hogwarts.school.dto;
+
+/**
+ * One student mutation in the recent-activity feed. {@code type} is {@code SAVED}, {@code PATCHED}
+ * or {@code DELETED}; a patch carries only the fields it changed and a delete only the id.
+ */
+public record StudentActivity(long seq, String type, long studentId, String name, Integer age, Long facultyId) {
+}
@@ -0,0 +1,12 @@
+package ru.hogwarts.school.dto;
+
+import java.util.List;
+
+/**
+ * Activity after a cursor, oldest first. {@code epoch} and {@code cursor} are what to pass next
+ * time; {@code truncated} means entries between the old cursor and {@code items} were already
+ * overwritten, or the cursor came from another epoch (a restart or another node), so the client
+ * should reload the latest entries instead of applying a delta.
+ */
+public record StudentActivityPage(List<StudentActivity> items, String epoch, long cursor, boolean truncated) {
+}
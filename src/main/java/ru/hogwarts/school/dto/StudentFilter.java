@@ -0,0 +1,8 @@
+package ru.hogwarts.school.dto;
+
+/**
+ * Ad-hoc student filter; a null field does not restrict the result.
+ */
+public record StudentFilter(Integer minAge, Integer maxAge, Long facultyId, Integer minNameLength,
+                            Integer maxNameLength, Boolean hasAvatar) {
+}
@@ -0,0 +1,9 @@
+package ru.hogwarts.school.dto;
+
+import java.util.List;
+
+/**
+ * Number and average age of all matching students, with the ids of the first {@code limit} of them.
+ */
+public record StudentFilterResult(long count, Double averageAge, List<Long> ids) {
+}
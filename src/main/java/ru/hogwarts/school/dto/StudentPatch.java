@@ -0,0 +1,12 @@
+package ru.hogwarts.school.dto;
+
+import ru.hogwarts.school.model.Student;
+
+public record StudentPatch(String name, Integer age) {
+
+    public Student applyTo(Student student) {
+        return new Student(student.getId(),
+                name != null ? name : student.getName(),
+                age != null ? age : student.getAge());
+    }
+}
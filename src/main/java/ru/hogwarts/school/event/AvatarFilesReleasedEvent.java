@@ -0,0 +1,6 @@
+package ru.hogwarts.school.event;
+
+import java.util.List;
+
+public record AvatarFilesReleasedEvent(List<String> filePaths) {
+}
@@ -0,0 +1,27 @@
+package ru.hogwarts.school.event;
+
+import ru.hogwarts.school.dto.FacultyPatch;
+import ru.hogwarts.school.model.Faculty;
+
+public record FacultyChangedEvent(long facultyId, Faculty faculty, FacultyPatch patch) {
+
+    public static FacultyChangedEvent saved(Faculty faculty) {
+        return new FacultyChangedEvent(faculty.getId(), faculty, null);
+    }
+
+    public static FacultyChangedEvent patched(long facultyId, FacultyPatch patch) {
+        return new FacultyChangedEvent(facultyId, null, patch);
+    }
+
+    public static FacultyChangedEvent deleted(long facultyId) {
+        return new FacultyChangedEvent(facultyId, null, null);
+    }
+
+    public boolean isPatched() {
+        return patch != null;
+    }
+
+    public boolean isDeleted() {
+        return faculty == null && patch == null;
+    }
+}
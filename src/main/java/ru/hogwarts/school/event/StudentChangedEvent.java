@@ -0,0 +1,39 @@
+package ru.hogwarts.school.event;
+
+import ru.hogwarts.school.dto.StudentPatch;
+import ru.hogwarts.school.model.Student;
+
+public record StudentChangedEvent(long studentId, Student student, StudentPatch patch, long patchedVersion) {
+
+    public static StudentChangedEvent saved(Student student) {
+        return new StudentChangedEvent(student.getId(), student, null, 0);
+    }
+
+    public static StudentChangedEvent patched(long studentId, StudentPatch patch, long version) {
+        return new StudentChangedEvent(studentId, null, patch, version);
+    }
+
+    public static StudentChangedEvent deleted(long studentId) {
+        return new StudentChangedEvent(studentId, null, null, 0);
+    }
+
+    public boolean isPatched() {
+        return patch != null;
+    }
+
+    public boolean isDeleted() {
+        return student == null && patch == null;
+    }
+
+    /**
+     * The student version this change produced. Saved students are read when the event is handled,
+     * because Hibernate increments the version on flush, after the event was published.
+     * Nothing follows a deletion, so it reports {@link Long#MAX_VALUE}.
+     */
+    public long version() {
+        if (isDeleted()) {
+            return Long.MAX_VALUE;
+        }
+        return isPatched() ? patchedVersion : student.getVersion();
+    }
+}
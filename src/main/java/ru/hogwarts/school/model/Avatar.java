@@ -2,7 +2,9 @@ package ru.hogwarts.school.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.util.Arrays;
 
 @Entity
@@ -24,6 +26,9 @@ public class Avatar {
     @OneToOne
     private Student student;
 
+    @UpdateTimestamp
+    private Instant updatedAt;
+
     public Avatar() {
     }
 
@@ -84,6 +89,10 @@ public class Avatar {
         this.student = student;
     }
 
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
     @Override
     public String toString() {
         return "Avatar{" + "id=" + id + ", filePath='" + filePath + '\'' + ", fileSize=" + fileSize + ", mediaType='" + mediaType + '\'' + ", data=" + Arrays.toString(data) + ", student=" + student + '}';
@@ -0,0 +1,116 @@
+package ru.hogwarts.school.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "change_event")
+public class ChangeEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long seq;
+
+    @Column(name = "entity")
+    private String entity;
+
+    @Column(name = "entity_id")
+    private long entityId;
+
+    @Column(name = "type")
+    private String type;
+
+    @Column(name = "payload")
+    private String payload;
+
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    @Column(name = "txid_horizon", insertable = false, updatable = false)
+    private Long txidHorizon;
+
+    public ChangeEvent() {
+    }
+
+    public ChangeEvent(String entity, long entityId, String type, String payload, Instant createdAt) {
+        this.entity = entity;
+        this.entityId = entityId;
+        this.type = type;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeEvent{" +
+                "seq=" + seq +
+                ", entity='" + entity + '\'' +
+                ", entityId=" + entityId +
+                ", type='" + type + '\'' +
+                '}';
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    public String getEntity() {
+        return entity;
+    }
+
+    public void setEntity(String entity) {
+        this.entity = entity;
+    }
+
+    public long getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(long entityId) {
+        this.entityId = entityId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    @JsonRawValue
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Transaction id horizon stamped by the insert trigger on Postgres; {@code null} elsewhere.
+     */
+    @JsonIgnore
+    public Long getTxidHorizon() {
+        return txidHorizon;
+    }
+
+    public void setTxidHorizon(Long txidHorizon) {
+        this.txidHorizon = txidHorizon;
+    }
+}
@@ -1,5 +1,6 @@
 package ru.hogwarts.school.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
 import java.util.Collection;
@@ -19,6 +20,10 @@ public class Faculty {
     @Column(name = "color")
     private String color;
 
+    @Version
+    @Column(name = "version")
+    private long version;
+
     @OneToMany(mappedBy = "faculty")
     private Collection<Student> students;
 
@@ -78,4 +83,13 @@ public class Faculty {
     public void setColor(String color) {
         this.color = color;
     }
+
+    @JsonIgnore
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
\ No newline at end of file
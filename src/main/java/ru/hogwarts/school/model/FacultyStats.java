@@ -0,0 +1,63 @@
+package ru.hogwarts.school.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Per-faculty totals kept in {@code faculty_stats} by database triggers, so reading a faculty's
+ * statistics is a primary-key lookup rather than an aggregate over student and avatar.
+ */
+@Entity
+@Immutable
+@Table(name = "faculty_stats")
+public class FacultyStats {
+
+    @Id
+    @Column(name = "faculty_id")
+    private long facultyId;
+
+    @Column(name = "student_count")
+    private long studentCount;
+
+    @Column(name = "age_sum")
+    private long ageSum;
+
+    @Column(name = "avatar_count")
+    private long avatarCount;
+
+    public FacultyStats() {
+    }
+
+    public FacultyStats(long facultyId, long studentCount, long ageSum, long avatarCount) {
+        this.facultyId = facultyId;
+        this.studentCount = studentCount;
+        this.ageSum = ageSum;
+        this.avatarCount = avatarCount;
+    }
+
+    public long getFacultyId() {
+        return facultyId;
+    }
+
+    public long getStudentCount() {
+        return studentCount;
+    }
+
+    @JsonIgnore
+    public long getAgeSum() {
+        return ageSum;
+    }
+
+    public long getAvatarCount() {
+        return avatarCount;
+    }
+
+    public Double getAverageAge() {
+        return studentCount == 0 ? null : (double) ageSum / studentCount;
+    }
+
+    public double getAvatarCoverage() {
+        return studentCount == 0 ? 0 : (double) avatarCount / studentCount;
+    }
+}
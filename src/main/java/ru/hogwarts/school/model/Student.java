@@ -1,5 +1,6 @@
 package ru.hogwarts.school.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
 import java.util.Objects;
@@ -18,6 +19,10 @@ public class Student {
     @Column(name = "age")
     private int age;
 
+    @Version
+    @Column(name = "version")
+    private long version;
+
     @ManyToOne
     @JoinColumn(name = "faculty_id")
     private Faculty faculty;
@@ -78,4 +83,22 @@ public class Student {
     public void setAge(int age) {
         this.age = age;
     }
+
+    @JsonIgnore
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    @JsonIgnore
+    public Faculty getFaculty() {
+        return faculty;
+    }
+
+    public void setFaculty(Faculty faculty) {
+        this.faculty = faculty;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package ru.hogwarts.school.ratelimit;
+
+import java.util.Arrays;
+
+/**
+ * AIMD concurrency limit. The limit grows by one while saturated requests finish close to the
+ * best latency seen, and is cut by {@link #BACKOFF} when the {@link #PERCENTILE} latency of the
+ * last {@link #DECISION_WINDOW} requests exceeds {@link #TOLERANCE} times that baseline, so
+ * excess requests are shed before queueing makes every request slow while a single slow request
+ * does not. The baseline is re-learned every {@link #BASELINE_WINDOW} samples so it can follow
+ * real changes in the workload.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    static final double TOLERANCE = 2.0;
+    static final double BACKOFF = 0.9;
+    static final int BASELINE_WINDOW = 1000;
+    static final int DECISION_WINDOW = 20;
+    static final double PERCENTILE = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private double limit;
+    private int inFlight;
+    private long baselineNanos = Long.MAX_VALUE;
+    private long windowMinNanos = Long.MAX_VALUE;
+    private int samples;
+    private final long[] recent = new long[DECISION_WINDOW];
+    private int recentCount;
+
+    public AdaptiveConcurrencyLimit(int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = maxLimit;
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    public synchronized void release(long latencyNanos) {
+        boolean saturated = inFlight >= (int) limit;
+        inFlight--;
+        windowMinNanos = Math.min(windowMinNanos, latencyNanos);
+        baselineNanos = Math.min(baselineNanos, latencyNanos);
+        if (++samples >= BASELINE_WINDOW) {
+            baselineNanos = windowMinNanos;
+            windowMinNanos = Long.MAX_VALUE;
+            samples = 0;
+        }
+
+        recent[recentCount++] = latencyNanos;
+        if (recentCount == DECISION_WINDOW) {
+            recentCount = 0;
+            long[] sorted = recent.clone();
+            Arrays.sort(sorted);
+            if (sorted[(int) (PERCENTILE * (DECISION_WINDOW - 1))] > baselineNanos * TOLERANCE) {
+                limit = Math.max(minLimit, limit * BACKOFF);
+                return;
+            }
+        }
+        if (saturated && latencyNanos <= baselineNanos * TOLERANCE) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
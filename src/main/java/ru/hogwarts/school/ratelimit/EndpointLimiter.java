@@ -0,0 +1,93 @@
+package ru.hogwarts.school.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Limits for one {@link RateLimited} endpoint: a bucket per client, one for the endpoint and an
+ * adaptive concurrency limit, checked in that order. A request rejected by a later check gets
+ * its earlier tokens back, so a busy endpoint does not drain the buckets of its clients.
+ */
+public class EndpointLimiter {
+
+    public enum Rejection {
+        CLIENT_RATE, ENDPOINT_RATE, CONCURRENCY
+    }
+
+    private final String name;
+    private final double clientRate;
+    private final int clientBurst;
+    private final TokenBucket endpointBucket;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final ConcurrentMap<String, TokenBucket> clientBuckets = new ConcurrentHashMap<>();
+
+    public EndpointLimiter(String name, double clientRate, int clientBurst, double endpointRate, int endpointBurst,
+                           int maxConcurrency, long now) {
+        this.name = name;
+        this.clientRate = clientRate;
+        this.clientBurst = clientBurst;
+        this.endpointBucket = endpointRate > 0 ? new TokenBucket(endpointRate, endpointBurst, now) : null;
+        this.concurrencyLimit = new AdaptiveConcurrencyLimit(1, maxConcurrency);
+    }
+
+    /**
+     * Returns {@code null} when the request may proceed; the caller must then {@link #release}.
+     */
+    public Rejection tryAcquire(String client, long now) {
+        TokenBucket clientBucket = clientRate > 0 ? clientBucket(client, now) : null;
+        if (clientBucket != null && !clientBucket.tryAcquire(now)) {
+            return Rejection.CLIENT_RATE;
+        }
+        if (endpointBucket != null && !endpointBucket.tryAcquire(now)) {
+            refund(clientBucket);
+            return Rejection.ENDPOINT_RATE;
+        }
+        if (!concurrencyLimit.tryAcquire()) {
+            refund(clientBucket);
+            refund(endpointBucket);
+            return Rejection.CONCURRENCY;
+        }
+        return null;
+    }
+
+    public void release(long latencyNanos) {
+        concurrencyLimit.release(latencyNanos);
+    }
+
+    public long retryAfterSeconds(Rejection rejection, String client, long now) {
+        return switch (rejection) {
+            case CLIENT_RATE -> Math.max(1, clientBucket(client, now).secondsUntilAvailable(now));
+            case ENDPOINT_RATE -> Math.max(1, endpointBucket.secondsUntilAvailable(now));
+            case CONCURRENCY -> 1;
+        };
+    }
+
+    /**
+     * Drops client buckets that have refilled completely, so the map only holds active clients.
+     */
+    public void evictIdleClients(long now) {
+        clientBuckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public AdaptiveConcurrencyLimit getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    int clientCount() {
+        return clientBuckets.size();
+    }
+
+    private static void refund(TokenBucket bucket) {
+        if (bucket != null) {
+            bucket.refund();
+        }
+    }
+
+    private TokenBucket clientBucket(String client, long now) {
+        return clientBuckets.computeIfAbsent(client, key -> new TokenBucket(clientRate, clientBurst, now));
+    }
+}
@@ -0,0 +1,180 @@
+package ru.hogwarts.school.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import ru.hogwarts.school.config.RateLimitProperties;
+
+import java.lang.reflect.Method;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies {@link RateLimited} to controller methods: 429 with {@code Retry-After} over a token
+ * bucket, 503 over the concurrency limit. Rejections are counted in
+ * {@code ratelimit.rejected{endpoint, reason}}. Methods naming the same endpoint share one
+ * limiter; the controllers are checked at startup, and declaring one name with different settings
+ * fails it.
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor, ApplicationContextAware, SmartInitializingSingleton {
+
+    private static final String ACQUIRED = RateLimitInterceptor.class.getName() + ".acquired";
+    private static final String STARTED = RateLimitInterceptor.class.getName() + ".started";
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Limiter> limiters = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> clientKeysByAddress = new ConcurrentHashMap<>();
+    private ApplicationContext applicationContext;
+
+    public RateLimitInterceptor(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String beanName : applicationContext.getBeanNamesForAnnotation(Controller.class)) {
+            Class<?> type = applicationContext.getType(beanName);
+            if (type == null) {
+                continue;
+            }
+            for (Method method : ReflectionUtils.getUniqueDeclaredMethods(ClassUtils.getUserClass(type))) {
+                RateLimited rateLimited = AnnotatedElementUtils.findMergedAnnotation(method, RateLimited.class);
+                if (rateLimited != null) {
+                    limiter(rateLimited);
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        RateLimited rateLimited = handlerMethod.getMethodAnnotation(RateLimited.class);
+        if (rateLimited == null) {
+            return true;
+        }
+        Limiter registered = limiter(rateLimited);
+        EndpointLimiter limiter = registered.limiter();
+        long now = System.nanoTime();
+        String client = clientKey(request);
+        EndpointLimiter.Rejection rejection = limiter.tryAcquire(client, now);
+        if (rejection != null) {
+            registered.rejected().get(rejection).increment();
+            response.setStatus(rejection == EndpointLimiter.Rejection.CONCURRENCY
+                    ? HttpStatus.SERVICE_UNAVAILABLE.value()
+                    : HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(limiter.retryAfterSeconds(rejection, client, now)));
+            return false;
+        }
+        request.setAttribute(ACQUIRED, limiter);
+        request.setAttribute(STARTED, now);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(ACQUIRED) instanceof EndpointLimiter limiter) {
+            request.removeAttribute(ACQUIRED);
+            limiter.release(System.nanoTime() - (long) request.getAttribute(STARTED));
+        }
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdleClients() {
+        long now = System.nanoTime();
+        limiters.values().forEach(limiter -> limiter.limiter().evictIdleClients(now));
+        clientKeysByAddress.clear();
+    }
+
+    private Limiter limiter(RateLimited rateLimited) {
+        Limiter limiter = limiters.computeIfAbsent(rateLimited.value(), name -> create(rateLimited));
+        if (limiter.declared() != rateLimited && !limiter.declared().equals(rateLimited)) {
+            throw new IllegalStateException("Rate limiter '" + rateLimited.value() + "' is declared with different settings: "
+                    + limiter.declared() + " and " + rateLimited);
+        }
+        return limiter;
+    }
+
+    private Limiter create(RateLimited rateLimited) {
+        String name = rateLimited.value();
+        RateLimitProperties.Endpoint override = properties.endpoints().get(name);
+        EndpointLimiter limiter = new EndpointLimiter(name,
+                override != null && override.clientRate() != null ? override.clientRate() : rateLimited.clientRate(),
+                override != null && override.clientBurst() != null ? override.clientBurst() : rateLimited.clientBurst(),
+                override != null && override.endpointRate() != null ? override.endpointRate() : rateLimited.endpointRate(),
+                override != null && override.endpointBurst() != null ? override.endpointBurst() : rateLimited.endpointBurst(),
+                override != null && override.maxConcurrency() != null ? override.maxConcurrency() : rateLimited.maxConcurrency(),
+                System.nanoTime());
+        AdaptiveConcurrencyLimit concurrencyLimit = limiter.getConcurrencyLimit();
+        Gauge.builder("ratelimit.concurrency.limit", concurrencyLimit, AdaptiveConcurrencyLimit::getLimit)
+                .tag("endpoint", name)
+                .register(meterRegistry);
+        Gauge.builder("ratelimit.concurrency.in.flight", concurrencyLimit, AdaptiveConcurrencyLimit::getInFlight)
+                .tag("endpoint", name)
+                .register(meterRegistry);
+        Map<EndpointLimiter.Rejection, Counter> rejected = new EnumMap<>(EndpointLimiter.Rejection.class);
+        for (EndpointLimiter.Rejection rejection : EndpointLimiter.Rejection.values()) {
+            rejected.put(rejection, Counter.builder("ratelimit.rejected")
+                    .tag("endpoint", name)
+                    .tag("reason", rejection.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+        return new Limiter(limiter, rateLimited, rejected);
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        if (properties.clientHeader() == null) {
+            return address;
+        }
+        String value = request.getHeader(properties.clientHeader());
+        if (value == null || value.isBlank()) {
+            return address;
+        }
+        if (properties.trustedProxies().contains(address)) {
+            return value;
+        }
+        Set<String> keys = clientKeysByAddress.computeIfAbsent(address, key -> ConcurrentHashMap.newKeySet());
+        if (keys.contains(value)) {
+            return value;
+        }
+        synchronized (keys) {
+            if (keys.size() < properties.maxClientKeysPerAddress()) {
+                keys.add(value);
+                return value;
+            }
+        }
+        return address;
+    }
+
+    private record Limiter(EndpointLimiter limiter, RateLimited declared, Map<EndpointLimiter.Rejection, Counter> rejected) {
+    }
+}
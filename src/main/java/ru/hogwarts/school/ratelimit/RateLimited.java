@@ -0,0 +1,42 @@
+package ru.hogwarts.school.ratelimit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits a controller method. Requests over a token bucket get 429, requests over the adaptive
+ * concurrency limit get 503. Every value can be overridden per {@link #value() name} under
+ * {@code school.rate-limit.endpoints.<name>}; a rate of zero or less disables that bucket.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RateLimited {
+
+    /**
+     * Endpoint name used for property overrides and metric tags.
+     */
+    String value();
+
+    /**
+     * Requests per second for one client.
+     */
+    double clientRate() default 5;
+
+    int clientBurst() default 10;
+
+    /**
+     * Requests per second for the endpoint as a whole.
+     */
+    double endpointRate() default 100;
+
+    int endpointBurst() default 200;
+
+    /**
+     * Starting and upper bound for requests in flight; the limit adapts below this.
+     */
+    int maxConcurrency() default 32;
+}
@@ -0,0 +1,60 @@
+package ru.hogwarts.school.ratelimit;
+
+/**
+ * Token bucket refilled at {@code rate} tokens per second up to {@code capacity}. Times are
+ * {@link System#nanoTime()} values passed in by the caller.
+ */
+public class TokenBucket {
+
+    private final double rate;
+    private final double capacity;
+
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(double rate, double capacity, long now) {
+        this.rate = rate;
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.lastRefill = now;
+    }
+
+    public synchronized boolean tryAcquire(long now) {
+        refill(now);
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+
+    /**
+     * Gives back a token taken by {@link #tryAcquire} for a request that was rejected later on.
+     */
+    public synchronized void refund() {
+        tokens = Math.min(capacity, tokens + 1);
+    }
+
+    /**
+     * Seconds until the next token is available, rounded up.
+     */
+    public synchronized long secondsUntilAvailable(long now) {
+        refill(now);
+        return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / rate);
+    }
+
+    /**
+     * A full bucket behaves exactly like a new one, so it can be dropped.
+     */
+    public synchronized boolean isFull(long now) {
+        refill(now);
+        return tokens >= capacity;
+    }
+
+    private void refill(long now) {
+        if (now > lastRefill) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * rate / 1e9);
+            lastRefill = now;
+        }
+    }
+}
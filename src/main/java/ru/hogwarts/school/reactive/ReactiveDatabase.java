@@ -0,0 +1,57 @@
+package ru.hogwarts.school.reactive;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * R2DBC connection pool for the reactive read API. Deliberately not exposed as a
+ * {@link io.r2dbc.spi.ConnectionFactory} bean: Spring Boot backs off its JDBC datasource when
+ * one exists, and the JPA side still needs it.
+ */
+public class ReactiveDatabase implements DisposableBean {
+
+    private final ConnectionPool pool;
+    private final DatabaseClient databaseClient;
+
+    public ReactiveDatabase(String url, String username, String password, int maxSize) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        if (username != null) {
+            options.option(ConnectionFactoryOptions.USER, username);
+        }
+        if (password != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        this.pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+                .maxSize(maxSize)
+                .build());
+        this.databaseClient = DatabaseClient.create(pool);
+    }
+
+    /**
+     * The R2DBC form of a JDBC url, so both stacks read the same database by default:
+     * {@code jdbc:postgresql://host/db} becomes {@code r2dbc:postgresql://host/db}, and
+     * {@code jdbc:h2:mem:db;...} becomes {@code r2dbc:h2:mem:///db}.
+     */
+    public static String urlFromJdbc(String jdbcUrl) {
+        if (jdbcUrl.startsWith("jdbc:h2:mem:")) {
+            String name = jdbcUrl.substring("jdbc:h2:mem:".length()).split(";", 2)[0];
+            return "r2dbc:h2:mem:///" + name;
+        }
+        String url = "r2dbc:" + jdbcUrl.substring("jdbc:".length());
+        int query = url.indexOf('?');
+        return query < 0 ? url : url.substring(0, query);
+    }
+
+    public DatabaseClient client() {
+        return databaseClient;
+    }
+
+    @Override
+    public void destroy() {
+        pool.dispose();
+    }
+}
@@ -0,0 +1,54 @@
+package ru.hogwarts.school.reactive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Serves the reactive API on its own Reactor Netty port next to the servlet container, so the
+ * MVC endpoints keep running on Tomcat unchanged.
+ */
+public class ReactiveReadServer implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveReadServer.class);
+
+    private final int port;
+    private final HttpHandler httpHandler;
+
+    private volatile DisposableServer server;
+
+    public ReactiveReadServer(int port, HttpHandler httpHandler) {
+        this.port = port;
+        this.httpHandler = httpHandler;
+    }
+
+    @Override
+    public synchronized void start() {
+        server = HttpServer.create()
+                .port(port)
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+        logger.info("Reactive read API started on port {}", server.port());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (server != null) {
+            server.disposeNow();
+            server = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    public int getPort() {
+        return server == null ? -1 : server.port();
+    }
+}
@@ -0,0 +1,84 @@
+package ru.hogwarts.school.reactive;
+
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Non-blocking counterparts of the hot {@code /student} reads, under {@code /reactive/student}.
+ * Lists are written as they are read; ask for {@code application/x-ndjson} to get one student
+ * per line, flushed as it arrives. Malformed ids and ages are answered with 400.
+ */
+public class ReactiveStudentHandler {
+
+    private static final int AVATAR_CHUNK = 16 * 1024;
+
+    private final ReactiveStudentRepository repository;
+
+    public ReactiveStudentHandler(ReactiveStudentRepository repository) {
+        this.repository = repository;
+    }
+
+    public RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+                .GET("/reactive/student/count", request -> ServerResponse.ok().body(repository.count(), Long.class))
+                .GET("/reactive/student/avgage", request -> ServerResponse.ok()
+                        .body(repository.averageAge().defaultIfEmpty(0.0), Double.class))
+                .GET("/reactive/student/{id}/avatar", this::downloadAvatar)
+                .GET("/reactive/student/{id}", this::getStudent)
+                .GET("/reactive/student", this::findStudents)
+                .filter((request, next) -> Mono.defer(() -> next.handle(request))
+                        .onErrorResume(NumberFormatException.class, e -> ServerResponse.badRequest().build()))
+                .build();
+    }
+
+    Mono<ServerResponse> getStudent(ServerRequest request) {
+        return repository.findById(Long.parseLong(request.pathVariable("id")))
+                .flatMap(student -> ServerResponse.ok().bodyValue(student))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    Mono<ServerResponse> findStudents(ServerRequest request) {
+        Optional<Integer> min = request.queryParam("min").map(Integer::valueOf);
+        Optional<Integer> max = request.queryParam("max").map(Integer::valueOf);
+        Optional<String> facultyName = request.queryParam("facultyName").filter(name -> !name.isBlank());
+        Flux<StudentView> students;
+        if (min.isPresent() && max.isPresent() && min.get() > 0 && max.get() > 0) {
+            students = repository.findByAgeBetween(min.get(), max.get());
+        } else if (facultyName.isPresent()) {
+            students = repository.findByFacultyName(facultyName.get());
+        } else {
+            students = Flux.empty();
+        }
+        MediaType contentType = request.headers().accept().contains(MediaType.APPLICATION_NDJSON)
+                ? MediaType.APPLICATION_NDJSON
+                : MediaType.APPLICATION_JSON;
+        return ServerResponse.ok().contentType(contentType).body(students, StudentView.class);
+    }
+
+    Mono<ServerResponse> downloadAvatar(ServerRequest request) {
+        return repository.findAvatar(Long.parseLong(request.pathVariable("id")))
+                .filterWhen(avatar -> avatar.filePath() == null
+                        ? Mono.just(false)
+                        : Mono.fromCallable(() -> Files.isReadable(Path.of(avatar.filePath())))
+                                .subscribeOn(Schedulers.boundedElastic()))
+                .flatMap(avatar -> ServerResponse.ok()
+                        .contentType(MediaType.parseMediaType(avatar.mediaType()))
+                        .contentLength(avatar.fileSize())
+                        .body(BodyInserters.fromDataBuffers(DataBufferUtils.read(Path.of(avatar.filePath()),
+                                DefaultDataBufferFactory.sharedInstance, AVATAR_CHUNK))))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+}
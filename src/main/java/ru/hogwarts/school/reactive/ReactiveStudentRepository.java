@@ -0,0 +1,73 @@
+package ru.hogwarts.school.reactive;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-only queries over the JPA schema. Multi-row queries fetch {@link #FETCH_SIZE} rows at a
+ * time, so a slow consumer holds the cursor instead of the whole result in memory.
+ */
+public class ReactiveStudentRepository {
+
+    static final int FETCH_SIZE = 256;
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveStudentRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<StudentView> findById(long id) {
+        return databaseClient.sql("SELECT id, name, age FROM student WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveStudentRepository::student)
+                .one();
+    }
+
+    public Flux<StudentView> findByAgeBetween(int min, int max) {
+        return databaseClient.sql("SELECT id, name, age FROM student WHERE age BETWEEN :min AND :max ORDER BY id")
+                .bind("min", min)
+                .bind("max", max)
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map(ReactiveStudentRepository::student)
+                .all();
+    }
+
+    public Flux<StudentView> findByFacultyName(String facultyName) {
+        return databaseClient.sql("SELECT s.id, s.name, s.age FROM student s JOIN faculty f ON f.id = s.faculty_id "
+                        + "WHERE f.name = :name ORDER BY s.id")
+                .bind("name", facultyName)
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map(ReactiveStudentRepository::student)
+                .all();
+    }
+
+    public Mono<Long> count() {
+        return databaseClient.sql("SELECT COUNT(*) FROM student")
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    public Mono<Double> averageAge() {
+        return databaseClient.sql("SELECT AVG(CAST(age AS DOUBLE PRECISION)) FROM student")
+                .map(row -> row.get(0) instanceof Number average ? average.doubleValue() : 0.0)
+                .one();
+    }
+
+    public Mono<AvatarFile> findAvatar(long studentId) {
+        return databaseClient.sql("SELECT file_path, media_type, file_size FROM avatar WHERE student_id = :id")
+                .bind("id", studentId)
+                .map(row -> new AvatarFile(row.get("file_path", String.class), row.get("media_type", String.class),
+                        row.get("file_size", Long.class)))
+                .one();
+    }
+
+    private static StudentView student(Readable row) {
+        return new StudentView(row.get("id", Long.class), row.get("name", String.class), row.get("age", Integer.class));
+    }
+
+    public record AvatarFile(String filePath, String mediaType, Long fileSize) {
+    }
+}
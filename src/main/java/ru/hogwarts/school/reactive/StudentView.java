@@ -0,0 +1,7 @@
+package ru.hogwarts.school.reactive;
+
+/**
+ * A student row as the reactive API returns it; serializes like {@link ru.hogwarts.school.model.Student}.
+ */
+public record StudentView(long id, String name, int age) {
+}
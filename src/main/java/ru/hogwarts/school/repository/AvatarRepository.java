@@ -1,11 +1,41 @@
 package ru.hogwarts.school.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.hogwarts.school.dto.AvatarFile;
 import ru.hogwarts.school.model.Avatar;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface AvatarRepository extends JpaRepository<Avatar, Long> {
 
     Optional<Avatar> findByStudentId(Long studentId);
+
+    List<Avatar> findByStudentIdIn(Collection<Long> studentIds);
+
+    @Query("SELECT a.filePath FROM Avatar a WHERE a.student.id IN :studentIds")
+    List<String> findFilePathsByStudentIdIn(Collection<Long> studentIds);
+
+    @Modifying
+    @Query("DELETE FROM Avatar a WHERE a.student.id IN :studentIds")
+    int deleteByStudentIdIn(Collection<Long> studentIds);
+
+    @Query("SELECT new ru.hogwarts.school.dto.AvatarFile(a.id, a.student.id, a.filePath, a.mediaType, a.fileSize, " +
+            "a.updatedAt) FROM Avatar a WHERE a.id > :afterId AND a.updatedAt >= :since " +
+            "AND (:facultyId IS NULL OR a.student.faculty.id = :facultyId) ORDER BY a.id")
+    List<AvatarFile> findFilesAfter(long afterId, Instant since, Long facultyId, Limit limit);
+
+    /**
+     * Keyset page in {@code (updatedAt, id)} order, which the {@code (updated_at, id)} index serves.
+     */
+    @Query("SELECT new ru.hogwarts.school.dto.AvatarFile(a.id, a.student.id, a.filePath, a.mediaType, a.fileSize, " +
+            "a.updatedAt) FROM Avatar a WHERE (a.updatedAt, a.id) > (:afterUpdatedAt, :afterId) AND a.id > :sinceId " +
+            "AND (:facultyId IS NULL OR a.student.faculty.id = :facultyId) ORDER BY a.updatedAt, a.id")
+    List<AvatarFile> findFilesChangedAfter(Instant afterUpdatedAt, long afterId, long sinceId, Long facultyId,
+                                           Limit limit);
 }
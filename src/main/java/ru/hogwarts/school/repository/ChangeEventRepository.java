@@ -0,0 +1,25 @@
+package ru.hogwarts.school.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.hogwarts.school.model.ChangeEvent;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ChangeEventRepository extends JpaRepository<ChangeEvent, Long> {
+
+    List<ChangeEvent> findBySeqGreaterThanOrderBySeq(long seq, Limit limit);
+
+    /**
+     * Oldest transaction id still running; Postgres only.
+     */
+    @Query(value = "SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS TEXT) AS BIGINT)", nativeQuery = true)
+    long findTransactionXmin();
+
+    @Modifying
+    @Query("DELETE FROM ChangeEvent e WHERE e.createdAt < :before")
+    int deleteOlderThan(Instant before);
+}
@@ -1,13 +1,31 @@
 package ru.hogwarts.school.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import ru.hogwarts.school.model.Faculty;
 
 public interface FacultyRepository extends JpaRepository<Faculty, Long> {
 
+    /**
+     * Matches on {@code lower(color)} rather than the derived query's {@code upper(color)}, so
+     * Postgres can use {@code faculty_lower_color_index}.
+     */
+    @Query("SELECT f FROM Faculty f WHERE lower(f.color) = lower(:color)")
     Faculty findFacultyByColorIgnoreCase(String color);
 
+    @Query("SELECT f FROM Faculty f WHERE lower(f.name) = lower(:name)")
     Faculty findFacultyByNameIgnoreCase(String name);
 
     Faculty findByStudents_Name(String studentName);
+
+    @Modifying
+    @Query("UPDATE Faculty f SET f.name = COALESCE(:name, f.name), f.color = COALESCE(:color, f.color), " +
+            "f.version = f.version + 1 WHERE f.id = :id")
+    int patch(long id, String name, String color);
+
+    @Modifying
+    @Query("UPDATE Faculty f SET f.name = COALESCE(:name, f.name), f.color = COALESCE(:color, f.color), " +
+            "f.version = f.version + 1 WHERE f.id = :id AND f.version = :version")
+    int patch(long id, String name, String color, long version);
 }
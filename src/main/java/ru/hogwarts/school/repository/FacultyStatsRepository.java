@@ -0,0 +1,26 @@
+package ru.hogwarts.school.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.hogwarts.school.model.FacultyStats;
+
+import java.util.List;
+
+public interface FacultyStatsRepository extends JpaRepository<FacultyStats, Long> {
+
+    List<FacultyStats> findAllByOrderByFacultyId();
+
+    @Modifying
+    @Query(value = "DELETE FROM faculty_stats", nativeQuery = true)
+    int clear();
+
+    @Modifying
+    @Query(value = "INSERT INTO faculty_stats (faculty_id, student_count, age_sum, avatar_count) " +
+            "SELECT f.id, " +
+            "(SELECT COUNT(*) FROM student s WHERE s.faculty_id = f.id), " +
+            "(SELECT COALESCE(SUM(s.age), 0) FROM student s WHERE s.faculty_id = f.id), " +
+            "(SELECT COUNT(*) FROM avatar a JOIN student s ON s.id = a.student_id WHERE s.faculty_id = f.id) " +
+            "FROM faculty f", nativeQuery = true)
+    int recompute();
+}
@@ -1,6 +1,8 @@
 package ru.hogwarts.school.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import ru.hogwarts.school.model.Student;
 
@@ -13,6 +15,34 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
 
     Collection<Student> findStudentsByFaculty_Name(String facultyName);
 
+    @Query("SELECT s FROM Student s JOIN FETCH s.faculty")
+    List<Student> findAllWithFaculty();
+
+    @Query("SELECT s FROM Student s LEFT JOIN FETCH s.faculty WHERE s.id IN :ids")
+    List<Student> findAllWithFacultyByIdIn(Collection<Long> ids);
+
+    List<Student> findByFaculty_IdAndIdGreaterThanOrderById(long facultyId, long afterId, Limit limit);
+
+    List<Student> findByOrderByIdDesc(Limit limit);
+
+    /**
+     * The first {@code perFaculty} students of each faculty by id, in one query.
+     */
+    @Query(value = "SELECT s.* FROM student s JOIN (SELECT id, ROW_NUMBER() OVER (PARTITION BY faculty_id ORDER BY id) AS n " +
+            "FROM student WHERE faculty_id IN :facultyIds) r ON r.id = s.id WHERE r.n <= :perFaculty " +
+            "ORDER BY s.faculty_id, s.id", nativeQuery = true)
+    List<Student> findFirstByFacultyIdIn(Collection<Long> facultyIds, int perFaculty);
+
+    @Query("SELECT s.id FROM Student s WHERE s.id IN :ids")
+    List<Long> findIdsByIdIn(Collection<Long> ids);
+
+    @Query("SELECT s.version FROM Student s WHERE s.id = :id")
+    long findVersionById(long id);
+
+    @Modifying
+    @Query("DELETE FROM Student s WHERE s.id IN :ids")
+    int deleteByIdIn(Collection<Long> ids);
+
     @Query(value = "SELECT COUNT(*) FROM student", nativeQuery = true)
     Long countAllStudents();
 
@@ -21,4 +51,14 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
 
     @Query(value = "SELECT * FROM student ORDER BY id DESC LIMIT 5", nativeQuery = true)
     Collection<Student> getLastFiveStudents();
+
+    @Modifying
+    @Query("UPDATE Student s SET s.name = COALESCE(:name, s.name), s.age = COALESCE(:age, s.age), " +
+            "s.version = s.version + 1 WHERE s.id = :id")
+    int patch(long id, String name, Integer age);
+
+    @Modifying
+    @Query("UPDATE Student s SET s.name = COALESCE(:name, s.name), s.age = COALESCE(:age, s.age), " +
+            "s.version = s.version + 1 WHERE s.id = :id AND s.version = :version")
+    int patch(long id, String name, Integer age, long version);
 }
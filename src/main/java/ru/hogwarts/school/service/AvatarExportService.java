@@ -0,0 +1,150 @@
+package ru.hogwarts.school.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import ru.hogwarts.school.deadline.Deadline;
+import ru.hogwarts.school.dto.AvatarFile;
+import ru.hogwarts.school.repository.AvatarRepository;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes avatar files into a ZIP stream, entries named {@code <studentId>.<ext>} so the archive
+ * can be fed back to {@link AvatarImportService}. Avatar rows are read in keyset pages without
+ * their blobs and each file is copied as soon as its row arrives, so memory use does not depend
+ * on the number of avatars. Files that fit into the copy buffer are stored uncompressed (images
+ * are already compressed); larger ones are deflated as they are read.
+ * <p>
+ * {@code updated_at} is set when a change is flushed, not when it commits, so a transaction still
+ * open during one export can commit afterwards with an earlier time than the newest exported
+ * entry. Incremental exports therefore reach back {@code avatars.export.since-overlap} (longer
+ * than any avatar transaction) before {@code since}; entries in the overlap may be exported twice,
+ * which the import handles as a plain overwrite.
+ */
+@Service
+public class AvatarExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(AvatarExportService.class);
+
+    private static final int OUTPUT_BUFFER = 64 * 1024;
+
+    private final AvatarRepository avatarRepository;
+    private final int pageSize;
+    private final int storedMaxSize;
+    private final Duration sinceOverlap;
+
+    public AvatarExportService(AvatarRepository avatarRepository,
+                               @Value("${avatars.export.page-size:500}") int pageSize,
+                               @Value("${avatars.max-size:300KB}") DataSize storedMaxSize,
+                               @Value("${avatars.export.since-overlap:1m}") Duration sinceOverlap) {
+        this.avatarRepository = avatarRepository;
+        this.pageSize = pageSize;
+        this.storedMaxSize = (int) storedMaxSize.toBytes();
+        this.sinceOverlap = sinceOverlap;
+    }
+
+    /**
+     * Exports avatars with an id above {@code sinceId} that changed at or after {@code since}
+     * minus the overlap, optionally only those of one faculty, oldest change first. Every entry
+     * carries the avatar's change time as its modification time, so the last one is the
+     * {@code since} of the next incremental export.
+     *
+     * @return the number of files written; rows whose file is missing are skipped
+     */
+    public int export(Long facultyId, long sinceId, Instant since, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(out, OUTPUT_BUFFER));
+        zip.setLevel(Deflater.BEST_SPEED);
+        ByteBuffer buffer = ByteBuffer.allocate(storedMaxSize);
+        CRC32 crc = new CRC32();
+
+        int written = 0;
+        Instant afterUpdatedAt = since == null ? Instant.EPOCH : since.minus(sinceOverlap);
+        long afterId = Long.MIN_VALUE;
+        List<AvatarFile> page;
+        do {
+            Deadline.check();
+            page = avatarRepository.findFilesChangedAfter(afterUpdatedAt, afterId, sinceId, facultyId,
+                    Limit.of(pageSize));
+            for (AvatarFile file : page) {
+                if (write(zip, file, buffer, crc)) {
+                    written++;
+                }
+                afterUpdatedAt = file.updatedAt();
+                afterId = file.id();
+            }
+        } while (page.size() == pageSize);
+        zip.finish();
+        zip.flush();
+        return written;
+    }
+
+    private boolean write(ZipOutputStream zip, AvatarFile file, ByteBuffer buffer, CRC32 crc) throws IOException {
+        Path path = Path.of(file.filePath());
+        try (FileChannel channel = FileChannel.open(path)) {
+            ZipEntry entry = new ZipEntry(file.studentId() + extension(path));
+            if (file.updatedAt() != null) {
+                entry.setLastModifiedTime(FileTime.from(file.updatedAt()));
+            }
+            if (channel.size() <= buffer.capacity() && readFully(channel, buffer)) {
+                crc.reset();
+                crc.update(buffer.duplicate());
+                entry.setMethod(ZipEntry.STORED);
+                entry.setSize(buffer.remaining());
+                entry.setCompressedSize(buffer.remaining());
+                entry.setCrc(crc.getValue());
+                zip.putNextEntry(entry);
+                zip.write(buffer.array(), 0, buffer.limit());
+            } else {
+                channel.position(0);
+                zip.putNextEntry(entry);
+                Deadline.transfer(Channels.newInputStream(channel), zip);
+            }
+            zip.closeEntry();
+            return true;
+        } catch (NoSuchFileException e) {
+            log.warn("Avatar {} of student {} has no file at {}", file.id(), file.studentId(), path);
+            return false;
+        }
+    }
+
+    /**
+     * Reads the whole file into {@code buffer}, flipped for reading; false if it did not fit.
+     */
+    private boolean readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                buffer.flip();
+                return true;
+            }
+        }
+        boolean complete = channel.position() >= channel.size();
+        buffer.flip();
+        return complete;
+    }
+
+    private String extension(Path path) {
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot);
+    }
+}
@@ -0,0 +1,93 @@
+package ru.hogwarts.school.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.hogwarts.school.event.AvatarFilesReleasedEvent;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes avatar files whose rows are gone. Paths are queued once the deleting transaction
+ * commits and removed in batches by a single background thread, so a rolled-back delete
+ * keeps its files and the request does not wait for the file system.
+ */
+@Component
+public class AvatarFileCleaner {
+
+    private static final Logger log = LoggerFactory.getLogger(AvatarFileCleaner.class);
+
+    private final int batchSize;
+    private final LinkedBlockingQueue<Path> pending = new LinkedBlockingQueue<>();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "avatar-cleaner");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong deleted = new AtomicLong();
+
+    public AvatarFileCleaner(@Value("${avatars.cleanup.batch-size:256}") int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvatarFilesReleased(AvatarFilesReleasedEvent event) {
+        enqueue(event.filePaths());
+    }
+
+    public void enqueue(Collection<String> filePaths) {
+        List<Path> paths = filePaths.stream().filter(Objects::nonNull).map(Path::of).toList();
+        if (paths.isEmpty()) {
+            return;
+        }
+        pending.addAll(paths);
+        worker.execute(this::drain);
+    }
+
+    public int pending() {
+        return pending.size();
+    }
+
+    public long deleted() {
+        return deleted.get();
+    }
+
+    /**
+     * Stops taking new work and waits for the queued files to be deleted.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        worker.shutdown();
+        worker.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    private void drain() {
+        List<Path> batch = new ArrayList<>(batchSize);
+        while (pending.drainTo(batch, batchSize) > 0) {
+            for (Path path : batch) {
+                try {
+                    if (Files.deleteIfExists(path)) {
+                        deleted.incrementAndGet();
+                    }
+                } catch (IOException e) {
+                    log.warn("Cannot delete avatar file {}", path, e);
+                }
+            }
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package ru.hogwarts.school.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import ru.hogwarts.school.deadline.Deadline;
+import ru.hogwarts.school.dto.AvatarImportReport;
+import ru.hogwarts.school.dto.AvatarImportReport.Entry;
+import ru.hogwarts.school.dto.AvatarImportReport.Status;
+import ru.hogwarts.school.event.AvatarChangedEvent;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+import ru.hogwarts.school.upload.SizeLimitedInputStream;
+import ru.hogwarts.school.upload.UploadTooLargeException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Imports avatars from a ZIP archive whose entries are named {@code <studentId>.<ext>}. The
+ * archive is read as a stream, one entry at a time; entries are grouped into batches that are
+ * written and saved on a bounded worker pool, one transaction per batch. When all workers and
+ * queue slots are busy the reading thread runs the next batch itself, so roughly
+ * {@code 2 × parallelism} batches are held in memory at a time. Batches commit in no particular
+ * order, so only the first accepted entry per student is imported and later ones are reported as
+ * duplicates.
+ */
+@Service
+public class AvatarImportService {
+
+    private static final Pattern ENTRY_NAME = Pattern.compile("(?:.*/)?(\\d{1,18})\\.(\\w+)");
+
+    @Value("${avatars.dir.path}")
+    private String avatarsDir;
+
+    private final StudentRepository studentRepository;
+    private final AvatarRepository avatarRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long maxSize;
+    private final int batchSize;
+    private final ThreadPoolExecutor workers;
+
+    public AvatarImportService(StudentRepository studentRepository, AvatarRepository avatarRepository,
+                               PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+                               @Value("${avatars.max-size:300KB}") DataSize maxSize,
+                               @Value("${avatars.import.batch-size:32}") int batchSize,
+                               @Value("${avatars.import.parallelism:0}") int parallelism) {
+        this.studentRepository = studentRepository;
+        this.avatarRepository = avatarRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.maxSize = maxSize.toBytes();
+        this.batchSize = batchSize;
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.workers = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads), new ThreadPoolExecutor.CallerRunsPolicy());
+        this.workers.allowCoreThreadTimeOut(true);
+    }
+
+    public AvatarImportReport importZip(InputStream body) throws IOException {
+        ConcurrentLinkedQueue<IndexedEntry> results = new ConcurrentLinkedQueue<>();
+        List<Future<?>> batches = new ArrayList<>();
+        List<PendingAvatar> batch = new ArrayList<>(batchSize);
+        Set<Long> accepted = new HashSet<>();
+        int index = 0;
+        try (ZipInputStream zip = new ZipInputStream(body)) {
+            ZipEntry zipEntry;
+            while ((zipEntry = zip.getNextEntry()) != null) {
+                Deadline.check();
+                if (zipEntry.isDirectory()) {
+                    continue;
+                }
+                PendingAvatar pending = read(index++, zipEntry.getName(), zip, accepted, results);
+                if (pending != null) {
+                    batch.add(pending);
+                }
+                if (batch.size() == batchSize) {
+                    batches.add(submit(batch, results));
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(submit(batch, results));
+        }
+        for (Future<?> future : batches) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Avatar import interrupted", e);
+            } catch (ExecutionException e) {
+                // Already recorded per entry by saveBatch
+            }
+        }
+
+        List<Entry> entries = results.stream()
+                .sorted(Comparator.comparingInt(IndexedEntry::index))
+                .map(IndexedEntry::entry)
+                .toList();
+        int saved = (int) entries.stream().filter(entry -> entry.status() == Status.SAVED).count();
+        return new AvatarImportReport(saved, entries.size() - saved, entries);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private PendingAvatar read(int index, String name, ZipInputStream zip, Set<Long> accepted,
+                               ConcurrentLinkedQueue<IndexedEntry> results) throws IOException {
+        Matcher matcher = ENTRY_NAME.matcher(name);
+        if (!matcher.matches()) {
+            results.add(new IndexedEntry(index, new Entry(name, null, Status.BAD_NAME, "Expected <studentId>.<ext>")));
+            return null;
+        }
+        long studentId = Long.parseLong(matcher.group(1));
+        Optional<MediaType> mediaType = MediaTypeFactory.getMediaType(name)
+                .filter(type -> type.getType().equals("image"));
+        if (mediaType.isEmpty()) {
+            results.add(new IndexedEntry(index, new Entry(name, studentId, Status.UNSUPPORTED_TYPE, "Not an image")));
+            return null;
+        }
+        byte[] data;
+        try {
+            data = new SizeLimitedInputStream(new FilterInputStream(zip) {
+                @Override
+                public void close() {
+                    // The archive stays open for the next entry
+                }
+            }, maxSize).readAllBytes();
+        } catch (UploadTooLargeException e) {
+            results.add(new IndexedEntry(index, new Entry(name, studentId, Status.TOO_LARGE, e.getMessage())));
+            return null;
+        }
+        if (!accepted.add(studentId)) {
+            results.add(new IndexedEntry(index, new Entry(name, studentId, Status.DUPLICATE,
+                    "An earlier entry for this student is already imported")));
+            return null;
+        }
+        return new PendingAvatar(index, name, studentId, matcher.group(2), mediaType.get().toString(), data);
+    }
+
+    private Future<?> submit(List<PendingAvatar> batch, ConcurrentLinkedQueue<IndexedEntry> results) {
+        return workers.submit(() -> saveBatch(batch, results));
+    }
+
+    /**
+     * Saves the avatars of one batch in a single transaction: two lookups for the whole batch,
+     * then the inserts and updates flushed together. Each file is first written to a temporary
+     * file next to its target and moved over it only once the transaction has committed, so a
+     * failed batch leaves the previous avatars on disk untouched.
+     */
+    private void saveBatch(List<PendingAvatar> batch, ConcurrentLinkedQueue<IndexedEntry> results) {
+        List<IndexedEntry> outcome = new ArrayList<>(batch.size());
+        Map<PendingAvatar, Path> written = new LinkedHashMap<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Long> studentIds = batch.stream().map(PendingAvatar::studentId).distinct().toList();
+                Map<Long, Student> students = studentRepository.findAllById(studentIds).stream()
+                        .collect(Collectors.toMap(Student::getId, Function.identity()));
+                Map<Long, Avatar> avatars = avatarRepository.findByStudentIdIn(studentIds).stream()
+                        .collect(Collectors.toMap(avatar -> avatar.getStudent().getId(), Function.identity()));
+                Map<Long, Avatar> changed = new LinkedHashMap<>();
+                for (PendingAvatar pending : batch) {
+                    Student student = students.get(pending.studentId());
+                    if (student == null) {
+                        outcome.add(pending.result(Status.UNKNOWN_STUDENT, "No such student"));
+                        continue;
+                    }
+                    Path filePath = pending.filePath(avatarsDir);
+                    try {
+                        Files.createDirectories(filePath.getParent());
+                        Path tmp = Files.createTempFile(filePath.getParent(), ".upload-", ".tmp");
+                        written.put(pending, tmp);
+                        Files.write(tmp, pending.data());
+                    } catch (IOException e) {
+                        Optional.ofNullable(written.remove(pending)).ifPresent(AvatarImportService::deleteQuietly);
+                        outcome.add(pending.result(Status.FAILED, e.getMessage()));
+                        continue;
+                    }
+                    Avatar avatar = avatars.computeIfAbsent(pending.studentId(), id -> new Avatar());
+                    avatar.setStudent(student);
+                    avatar.setFilePath(filePath.toString());
+                    avatar.setFileSize(pending.data().length);
+                    avatar.setMediaType(pending.mediaType());
+                    avatar.setData(pending.data());
+                    changed.put(pending.studentId(), avatar);
+                    outcome.add(pending.result(Status.SAVED, null));
+                }
+                avatarRepository.saveAll(changed.values());
+                changed.keySet().forEach(studentId -> eventPublisher.publishEvent(new AvatarChangedEvent(studentId)));
+            });
+        } catch (RuntimeException e) {
+            written.values().forEach(AvatarImportService::deleteQuietly);
+            outcome.clear();
+            batch.forEach(pending -> outcome.add(pending.result(Status.FAILED, e.getMessage())));
+            results.addAll(outcome);
+            throw e;
+        }
+        // One outcome per batch entry, in batch order
+        for (int i = 0; i < batch.size(); i++) {
+            PendingAvatar pending = batch.get(i);
+            Path tmp = written.get(pending);
+            if (tmp == null) {
+                continue;
+            }
+            try {
+                Files.move(tmp, pending.filePath(avatarsDir), REPLACE_EXISTING, ATOMIC_MOVE);
+            } catch (IOException e) {
+                deleteQuietly(tmp);
+                outcome.set(i, pending.result(Status.FAILED, e.getMessage()));
+            }
+        }
+        results.addAll(outcome);
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // Left for the consistency scanner's orphan sweep
+        }
+    }
+
+    private record PendingAvatar(int index, String name, long studentId, String extension, String mediaType,
+                                 byte[] data) {
+
+        Path filePath(String avatarsDir) {
+            return Path.of(avatarsDir, studentId + "." + extension);
+        }
+
+        IndexedEntry result(Status status, String message) {
+            return new IndexedEntry(index, new Entry(name, studentId, status, message));
+        }
+    }
+
+    private record IndexedEntry(int index, Entry entry) {
+    }
+}
@@ -0,0 +1,353 @@
+package ru.hogwarts.school.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.hogwarts.school.dto.AvatarFile;
+import ru.hogwarts.school.dto.AvatarScanReport;
+import ru.hogwarts.school.dto.AvatarScanReport.Issue;
+import ru.hogwarts.school.dto.AvatarScanReport.Kind;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.ratelimit.TokenBucket;
+import ru.hogwarts.school.repository.AvatarRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Reconciles the files under {@code avatars.dir.path} with the {@code avatar} table. The
+ * directory tree is listed and stat'ed on a small pool of minimum-priority threads, then avatar
+ * rows are read in keyset pages and matched against it. Every file stat, row and repair takes a
+ * token from a bucket refilled at {@code avatars.scan.rate} per second, which is what keeps the
+ * scan off production I/O; thread priority alone is ignored by Linux JVMs by default.
+ * <p>
+ * With {@code repair}, orphan files older than {@code avatars.scan.orphan-grace} are deleted (a
+ * younger one may belong to an upload that has not committed yet), and missing or truncated
+ * files are rewritten from the row's {@code data} when that holds exactly {@code fileSize} bytes.
+ */
+@Service
+public class AvatarScanService {
+
+    static final int MAX_ISSUES = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(AvatarScanService.class);
+
+    private static final int PAGE_SIZE = 500;
+    private static final int STAT_CHUNK = 256;
+
+    @Value("${avatars.dir.path}")
+    private String avatarsDir;
+
+    private final AvatarRepository avatarRepository;
+    private final double rate;
+    private final Duration orphanGrace;
+    private final ForkJoinPool walkers;
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "avatar-scan");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final boolean scheduledRepair;
+
+    private volatile AvatarScanReport lastReport;
+
+    public AvatarScanService(AvatarRepository avatarRepository,
+                             @Value("${avatars.scan.rate:500}") double rate,
+                             @Value("${avatars.scan.parallelism:2}") int parallelism,
+                             @Value("${avatars.scan.orphan-grace:1h}") Duration orphanGrace,
+                             @Value("${avatars.scan.repair:false}") boolean scheduledRepair) {
+        this.avatarRepository = avatarRepository;
+        this.rate = rate;
+        this.orphanGrace = orphanGrace;
+        this.scheduledRepair = scheduledRepair;
+        this.walkers = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("avatar-scan-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Starts a scan in the background unless one is already running.
+     *
+     * @return false if a scan is already running
+     */
+    public boolean start(boolean repair) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        runner.execute(() -> {
+            try {
+                scan(repair);
+            } catch (RuntimeException e) {
+                log.error("Avatar scan failed", e);
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    @Scheduled(cron = "${avatars.scan.cron:-}")
+    public void scheduledScan() {
+        start(scheduledRepair);
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public AvatarScanReport lastReport() {
+        return lastReport;
+    }
+
+    public AvatarScanReport scan(boolean repair) {
+        Instant startedAt = Instant.now();
+        Throttle throttle = new Throttle(rate);
+        Map<Path, FileInfo> files = new ConcurrentHashMap<>();
+        Path root = Path.of(avatarsDir).toAbsolutePath().normalize();
+        if (Files.isDirectory(root)) {
+            walkers.invoke(new DirectoryScan(root, files, throttle));
+        }
+        long fileCount = files.size();
+
+        Tally tally = new Tally(repair);
+        long rows = 0;
+        long afterId = 0;
+        List<AvatarFile> page;
+        do {
+            page = avatarRepository.findFilesAfter(afterId, Instant.EPOCH, null, Limit.of(PAGE_SIZE));
+            for (AvatarFile row : page) {
+                throttle.acquire();
+                check(row, files, tally, throttle);
+                afterId = row.id();
+                rows++;
+            }
+        } while (page.size() == PAGE_SIZE);
+
+        Instant orphanCutoff = startedAt.minus(orphanGrace);
+        files.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> {
+                    boolean repaired = repair && entry.getValue().lastModified().isBefore(orphanCutoff)
+                            && deleteOrphan(entry.getKey(), throttle);
+                    tally.add(new Issue(Kind.ORPHAN_FILE, entry.getKey().toString(), null, null,
+                            entry.getValue().size(), repaired));
+                });
+
+        AvatarScanReport report = new AvatarScanReport(startedAt, Instant.now(), repair, fileCount, rows,
+                tally.counts.getOrDefault(Kind.ORPHAN_FILE, 0L), tally.counts.getOrDefault(Kind.MISSING_FILE, 0L),
+                tally.counts.getOrDefault(Kind.SIZE_MISMATCH, 0L), tally.repaired, List.copyOf(tally.issues));
+        lastReport = report;
+        return report;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+        walkers.shutdownNow();
+    }
+
+    private void check(AvatarFile row, Map<Path, FileInfo> files, Tally tally, Throttle throttle) {
+        if (row.filePath() == null) {
+            return;
+        }
+        Path path = Path.of(row.filePath()).toAbsolutePath().normalize();
+        FileInfo file = files.remove(path);
+        if (file == null) {
+            file = stat(path, throttle);
+        }
+        Kind kind;
+        if (file == null) {
+            kind = Kind.MISSING_FILE;
+        } else if (file.size() != row.fileSize()) {
+            kind = Kind.SIZE_MISMATCH;
+        } else {
+            return;
+        }
+        boolean repaired = tally.repair && restore(row, path, throttle);
+        tally.add(new Issue(kind, path.toString(), row.id(), row.fileSize(), file == null ? null : file.size(),
+                repaired));
+    }
+
+    private boolean restore(AvatarFile row, Path path, Throttle throttle) {
+        throttle.acquire();
+        Avatar avatar = avatarRepository.findById(row.id()).orElse(null);
+        if (avatar == null || avatar.getData() == null || avatar.getData().length != row.fileSize()) {
+            return false;
+        }
+        try {
+            Files.createDirectories(path.getParent());
+            Path tmp = Files.createTempFile(path.getParent(), ".restore-", ".tmp");
+            Files.write(tmp, avatar.getData());
+            Files.move(tmp, path, REPLACE_EXISTING, ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            log.warn("Cannot restore avatar file {}", path, e);
+            return false;
+        }
+    }
+
+    private boolean deleteOrphan(Path path, Throttle throttle) {
+        throttle.acquire();
+        try {
+            return Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Cannot delete orphan avatar file {}", path, e);
+            return false;
+        }
+    }
+
+    private static FileInfo stat(Path path, Throttle throttle) {
+        throttle.acquire();
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return new FileInfo(attributes.size(), attributes.lastModifiedTime().toInstant());
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record FileInfo(long size, Instant lastModified) {
+    }
+
+    private static final class DirectoryScan extends RecursiveAction {
+
+        private final Path dir;
+        private final Map<Path, FileInfo> files;
+        private final Throttle throttle;
+
+        DirectoryScan(Path dir, Map<Path, FileInfo> files, Throttle throttle) {
+            this.dir = dir;
+            this.files = files;
+            this.throttle = throttle;
+        }
+
+        @Override
+        protected void compute() {
+            List<RecursiveAction> tasks = new ArrayList<>();
+            List<Path> chunk = new ArrayList<>(STAT_CHUNK);
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                for (Path entry : entries) {
+                    if (Files.isDirectory(entry)) {
+                        tasks.add(new DirectoryScan(entry, files, throttle));
+                        continue;
+                    }
+                    chunk.add(entry);
+                    if (chunk.size() == STAT_CHUNK) {
+                        tasks.add(new FileStats(chunk, files, throttle));
+                        chunk = new ArrayList<>(STAT_CHUNK);
+                    }
+                }
+            } catch (NoSuchFileException e) {
+                return;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (!chunk.isEmpty()) {
+                tasks.add(new FileStats(chunk, files, throttle));
+            }
+            invokeAll(tasks);
+        }
+    }
+
+    private static final class FileStats extends RecursiveAction {
+
+        private final List<Path> paths;
+        private final Map<Path, FileInfo> files;
+        private final Throttle throttle;
+
+        FileStats(List<Path> paths, Map<Path, FileInfo> files, Throttle throttle) {
+            this.paths = paths;
+            this.files = files;
+            this.throttle = throttle;
+        }
+
+        @Override
+        protected void compute() {
+            for (Path path : paths) {
+                FileInfo info = stat(path, throttle);
+                if (info != null) {
+                    files.put(path.toAbsolutePath().normalize(), info);
+                }
+            }
+        }
+    }
+
+    /**
+     * Blocks until a token is available; a non-positive rate disables throttling.
+     */
+    private static final class Throttle {
+
+        private final TokenBucket bucket;
+        private final long pauseNanos;
+
+        Throttle(double rate) {
+            this.bucket = rate > 0 ? new TokenBucket(rate, Math.max(1, rate / 10), System.nanoTime()) : null;
+            this.pauseNanos = rate > 0 ? (long) (1e9 / rate) : 0;
+        }
+
+        void acquire() {
+            if (bucket == null) {
+                return;
+            }
+            while (!bucket.tryAcquire(System.nanoTime())) {
+                LockSupport.parkNanos(pauseNanos);
+            }
+        }
+    }
+
+    private static final class Tally {
+
+        private final boolean repair;
+        private final Map<Kind, Long> counts = new EnumMap<>(Kind.class);
+        private final List<Issue> issues = new ArrayList<>();
+        private long repaired;
+
+        Tally(boolean repair) {
+            this.repair = repair;
+        }
+
+        void add(Issue issue) {
+            counts.merge(issue.kind(), 1L, Long::sum);
+            if (issue.repaired()) {
+                repaired++;
+            }
+            if (issues.size() < MAX_ISSUES) {
+                issues.add(issue);
+            }
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package ru.hogwarts.school.service;
 
-import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
+import ru.hogwarts.school.event.AvatarChangedEvent;
 import ru.hogwarts.school.model.Avatar;
 import ru.hogwarts.school.model.Student;
 import ru.hogwarts.school.repository.AvatarRepository;
@@ -26,16 +28,21 @@ public class AvatarService {
 
     private final StudentService studentService;
     private final AvatarRepository avatarRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public AvatarService(StudentService studentService, AvatarRepository avatarRepository) {
+    public AvatarService(StudentService studentService, AvatarRepository avatarRepository,
+                         ApplicationEventPublisher eventPublisher) {
         this.studentService = studentService;
         this.avatarRepository = avatarRepository;
+        this.eventPublisher = eventPublisher;
     }
 
+    @Transactional(readOnly = true)
     public Avatar findAvatar(Long studentId) {
         return avatarRepository.findByStudentId(studentId).orElse(new Avatar());
     }
 
+    @Transactional(readOnly = true)
     public Collection<Avatar> getAllAvatars(Integer pageNumber, Integer pageSize) {
         PageRequest pageRequest = PageRequest.of(pageNumber - 1, pageSize);
         return avatarRepository.findAll(pageRequest).getContent();
@@ -61,6 +68,7 @@ public class AvatarService {
         avatar.setMediaType(avatarFile.getContentType());
         avatar.setData(avatarFile.getBytes());
         avatarRepository.save(avatar);
+        eventPublisher.publishEvent(new AvatarChangedEvent(studentId));
     }
 
     private String getExtensions(String fileName) {
@@ -0,0 +1,238 @@
+package ru.hogwarts.school.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.hogwarts.school.datasource.ReadYourWrites;
+import ru.hogwarts.school.event.FacultyChangedEvent;
+import ru.hogwarts.school.event.StudentChangedEvent;
+import ru.hogwarts.school.model.ChangeEvent;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.ChangeEventRepository;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transactional outbox for student and faculty changes. Events are written in the same
+ * transaction as the change and read back in sequence order by pollers and SSE subscribers.
+ * On Postgres a reader passes a gap in the sequence only once no transaction that could fill it
+ * is still running. Elsewhere, and for events written before the horizon column existed, a gap
+ * is given up after {@code events.gap-timeout}; an event committed later than that behind a
+ * reader's cursor is not delivered to that reader.
+ */
+@Service
+public class ChangeEventService {
+
+    private static final Duration POLL_INTERVAL = Duration.ofSeconds(1);
+    private static final Duration STREAM_WAIT = Duration.ofSeconds(15);
+    private static final int STREAM_BATCH = 100;
+
+    private final ChangeEventRepository changeEventRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration retention;
+    private final Duration gapTimeout;
+    private final ThreadPoolExecutor streamExecutor;
+
+    private final AtomicLong commits = new AtomicLong();
+    private final Object signal = new Object();
+
+    public ChangeEventService(ChangeEventRepository changeEventRepository, ObjectMapper objectMapper,
+                              @Value("${events.retention:7d}") Duration retention,
+                              @Value("${events.gap-timeout:5m}") Duration gapTimeout,
+                              @Value("${events.stream.max-subscribers:32}") int maxSubscribers) {
+        this.changeEventRepository = changeEventRepository;
+        this.objectMapper = objectMapper;
+        this.retention = retention;
+        this.gapTimeout = gapTimeout;
+        this.streamExecutor = new ThreadPoolExecutor(0, maxSubscribers, 60, TimeUnit.SECONDS, new SynchronousQueue<>());
+    }
+
+    @EventListener
+    public void onStudentChanged(StudentChangedEvent event) {
+        Object payload = null;
+        if (event.isPatched()) {
+            payload = event.patch();
+        } else if (!event.isDeleted()) {
+            Student student = event.student();
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("id", student.getId());
+            fields.put("name", student.getName());
+            fields.put("age", student.getAge());
+            fields.put("facultyId", student.getFaculty() == null ? null : student.getFaculty().getId());
+            payload = fields;
+        }
+        record("student", event.studentId(), type(event.isPatched(), event.isDeleted()), payload);
+    }
+
+    @EventListener
+    public void onFacultyChanged(FacultyChangedEvent event) {
+        Object payload = null;
+        if (event.isPatched()) {
+            payload = event.patch();
+        } else if (!event.isDeleted()) {
+            Faculty faculty = event.faculty();
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("id", faculty.getId());
+            fields.put("name", faculty.getName());
+            fields.put("color", faculty.getColor());
+            payload = fields;
+        }
+        record("faculty", event.facultyId(), type(event.isPatched(), event.isDeleted()), payload);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentCommitted(StudentChangedEvent event) {
+        wakeUp();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFacultyCommitted(FacultyChangedEvent event) {
+        wakeUp();
+    }
+
+    /**
+     * Returns events with a sequence number above {@code seq}, waiting up to {@code wait} for
+     * new ones. Stops before a gap in the sequence that a running transaction may still fill.
+     * {@code seq = 0} reads from the oldest retained event, once nothing can commit before it.
+     */
+    public List<ChangeEvent> findAfter(long seq, int limit, Duration wait) throws InterruptedException {
+        long deadline = System.nanoTime() + wait.toNanos();
+        while (true) {
+            long observedCommits = commits.get();
+            List<ChangeEvent> events = settled(seq, limit);
+            long remaining = deadline - System.nanoTime();
+            if (!events.isEmpty() || remaining <= 0) {
+                return events;
+            }
+            long waitMillis = Math.max(1, Math.min(TimeUnit.NANOSECONDS.toMillis(remaining), POLL_INTERVAL.toMillis()));
+            synchronized (signal) {
+                if (commits.get() == observedCommits) {
+                    signal.wait(waitMillis);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tails the outbox into {@code emitter} on a dedicated thread until the client goes away.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException when all subscriber slots are taken
+     */
+    public void stream(long seq, SseEmitter emitter) {
+        streamExecutor.execute(() -> {
+            long last = seq;
+            try {
+                while (true) {
+                    List<ChangeEvent> events = findAfter(last, STREAM_BATCH, STREAM_WAIT);
+                    if (events.isEmpty()) {
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    }
+                    for (ChangeEvent event : events) {
+                        emitter.send(SseEmitter.event()
+                                .id(String.valueOf(event.getSeq()))
+                                .name(event.getEntity())
+                                .data(event));
+                        last = event.getSeq();
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                emitter.complete();
+            }
+        });
+    }
+
+    @Scheduled(cron = "${events.purge.cron:0 0 3 * * *}")
+    @Transactional
+    public void purge() {
+        changeEventRepository.deleteOlderThan(Instant.now().minus(retention));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        streamExecutor.shutdownNow();
+    }
+
+    private void record(String entity, long entityId, String type, Object payload) {
+        try {
+            String json = payload == null ? null : objectMapper.writeValueAsString(payload);
+            changeEventRepository.save(new ChangeEvent(entity, entityId, type, json, Instant.now()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + entity + " change", e);
+        }
+    }
+
+    private String type(boolean patched, boolean deleted) {
+        if (deleted) {
+            return "DELETED";
+        }
+        return patched ? "PATCHED" : "SAVED";
+    }
+
+    private void wakeUp() {
+        commits.incrementAndGet();
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+    }
+
+    /**
+     * Events after {@code seq} up to the first one that an unfinished transaction may still
+     * precede. Deciding that on Postgres needs the running-transaction xmin read before the
+     * events, so that case re-reads them after it, both on the primary.
+     */
+    private List<ChangeEvent> settled(long seq, int limit) {
+        List<ChangeEvent> events = changeEventRepository.findBySeqGreaterThanOrderBySeq(seq, Limit.of(limit));
+        int unsettled = firstUnsettled(seq, events, null);
+        if (unsettled < 0) {
+            return events;
+        }
+        if (events.get(unsettled).getTxidHorizon() == null) {
+            return events.subList(0, unsettled);
+        }
+        return ReadYourWrites.onPrimary(() -> {
+            long xmin = changeEventRepository.findTransactionXmin();
+            List<ChangeEvent> fresh = changeEventRepository.findBySeqGreaterThanOrderBySeq(seq, Limit.of(limit));
+            int cut = firstUnsettled(seq, fresh, xmin);
+            return cut < 0 ? fresh : fresh.subList(0, cut);
+        });
+    }
+
+    private int firstUnsettled(long seq, List<ChangeEvent> events, Long xmin) {
+        Instant gapCutoff = Instant.now().minus(gapTimeout);
+        long expected = seq + 1;
+        for (int i = 0; i < events.size(); i++) {
+            ChangeEvent event = events.get(i);
+            Long horizon = event.getTxidHorizon();
+            boolean gap = seq == 0 && i == 0 ? horizon != null : event.getSeq() != expected;
+            boolean settled = horizon == null
+                    ? !event.getCreatedAt().isAfter(gapCutoff)
+                    : xmin != null && xmin >= horizon;
+            if (gap && !settled) {
+                return i;
+            }
+            expected = event.getSeq() + 1;
+        }
+        return -1;
+    }
+}
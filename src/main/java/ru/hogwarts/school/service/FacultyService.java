@@ -1,43 +1,147 @@
 package ru.hogwarts.school.service;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.hogwarts.school.dto.FacultyPatch;
+import ru.hogwarts.school.dto.FacultyRoster;
+import ru.hogwarts.school.event.FacultyChangedEvent;
 import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
 import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 public class FacultyService {
 
     private final FacultyRepository facultyRepository;
+    private final StudentRepository studentRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public FacultyService(FacultyRepository facultyRepository) {
+    public FacultyService(FacultyRepository facultyRepository, StudentRepository studentRepository,
+                          ApplicationEventPublisher eventPublisher) {
         this.facultyRepository = facultyRepository;
+        this.studentRepository = studentRepository;
+        this.eventPublisher = eventPublisher;
     }
 
+    @Transactional
     public Faculty addFaculty(Faculty faculty) {
-        return facultyRepository.save(faculty);
+        Faculty saved = facultyRepository.save(faculty);
+        eventPublisher.publishEvent(FacultyChangedEvent.saved(saved));
+        return saved;
     }
 
+    @Transactional(readOnly = true)
     public Faculty findFaculty(long id) {
         return facultyRepository.findById(id).get();
     }
 
+    @Transactional
     public Faculty editFaculty(Faculty faculty) {
-        return facultyRepository.save(faculty);
+        Faculty current = facultyRepository.findById(faculty.getId()).orElse(null);
+        if (current == null) {
+            return null;
+        }
+        faculty.setVersion(current.getVersion());
+        Faculty saved = facultyRepository.save(faculty);
+        eventPublisher.publishEvent(FacultyChangedEvent.saved(saved));
+        return saved;
+    }
+
+    @Transactional
+    public Faculty editFaculty(Faculty faculty, long expectedVersion) {
+        if (!facultyRepository.existsById(faculty.getId())) {
+            return null;
+        }
+        faculty.setVersion(expectedVersion);
+        Faculty saved = facultyRepository.save(faculty);
+        eventPublisher.publishEvent(FacultyChangedEvent.saved(saved));
+        return saved;
     }
 
+    @Transactional
+    public boolean patchFaculty(long id, FacultyPatch patch, Long expectedVersion) {
+        int updated = expectedVersion == null
+                ? facultyRepository.patch(id, patch.name(), patch.color())
+                : facultyRepository.patch(id, patch.name(), patch.color(), expectedVersion);
+        if (updated == 0) {
+            if (expectedVersion != null && facultyRepository.existsById(id)) {
+                throw new ObjectOptimisticLockingFailureException(Faculty.class, id);
+            }
+            return false;
+        }
+        eventPublisher.publishEvent(FacultyChangedEvent.patched(id, patch));
+        return true;
+    }
+
+    @Transactional
     public void deleteFaculty(long id) {
         facultyRepository.deleteById(id);
+        eventPublisher.publishEvent(FacultyChangedEvent.deleted(id));
     }
 
+    @Transactional(readOnly = true)
     public Faculty findByColor(String color) {
         return facultyRepository.findFacultyByColorIgnoreCase(color);
     }
 
+    @Transactional(readOnly = true)
     public Faculty findByName(String name) {
         return facultyRepository.findFacultyByNameIgnoreCase(name);
     }
 
+    @Transactional(readOnly = true)
     public Faculty findByStudentName(String studentName) {
         return facultyRepository.findByStudents_Name(studentName);
     }
-}
\ No newline at end of file
+
+    /**
+     * One page of a faculty's students in id order, starting after {@code afterId}. Returns
+     * {@code null} when the faculty does not exist.
+     */
+    @Transactional(readOnly = true)
+    public List<Student> findStudents(long facultyId, long afterId, int limit) {
+        List<Student> students = studentRepository.findByFaculty_IdAndIdGreaterThanOrderById(facultyId, afterId,
+                Limit.of(limit));
+        if (students.isEmpty() && !facultyRepository.existsById(facultyId)) {
+            return null;
+        }
+        return students;
+    }
+
+    /**
+     * The first {@code perFaculty} students of several faculties in two queries, one for the
+     * faculties and one for their students, however many faculties are asked for. Each roster
+     * carries the cursor to page the rest with {@link #findStudents}. Unknown ids are skipped.
+     */
+    @Transactional(readOnly = true)
+    public List<FacultyRoster> findRosters(Collection<Long> facultyIds, int perFaculty) {
+        if (facultyIds.isEmpty()) {
+            return List.of();
+        }
+        List<Faculty> faculties = facultyRepository.findAllById(facultyIds);
+        Map<Long, List<Student>> students = studentRepository.findFirstByFacultyIdIn(facultyIds, perFaculty + 1).stream()
+                .collect(Collectors.groupingBy(student -> student.getFaculty().getId()));
+        return faculties.stream()
+                .sorted(Comparator.comparingLong(Faculty::getId))
+                .map(faculty -> roster(faculty, students.getOrDefault(faculty.getId(), List.of()), perFaculty))
+                .toList();
+    }
+
+    private static FacultyRoster roster(Faculty faculty, List<Student> students, int perFaculty) {
+        if (students.size() <= perFaculty) {
+            return new FacultyRoster(faculty.getId(), faculty.getName(), students, null);
+        }
+        List<Student> page = students.subList(0, perFaculty);
+        return new FacultyRoster(faculty.getId(), faculty.getName(), page, page.get(perFaculty - 1).getId());
+    }
+}
@@ -0,0 +1,41 @@
+package ru.hogwarts.school.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.hogwarts.school.model.FacultyStats;
+import ru.hogwarts.school.repository.FacultyStatsRepository;
+
+import java.util.List;
+
+/**
+ * Reads the trigger-maintained {@code faculty_stats} table. {@link #rebuild()} recomputes it from
+ * scratch; on Postgres the triggers make that unnecessary, elsewhere schedule it with
+ * {@code school.stats.rebuild.cron}.
+ */
+@Service
+public class FacultyStatsService {
+
+    private final FacultyStatsRepository facultyStatsRepository;
+
+    public FacultyStatsService(FacultyStatsRepository facultyStatsRepository) {
+        this.facultyStatsRepository = facultyStatsRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public FacultyStats findStats(long facultyId) {
+        return facultyStatsRepository.findById(facultyId).orElse(null);
+    }
+
+    @Transactional(readOnly = true)
+    public List<FacultyStats> findAllStats() {
+        return facultyStatsRepository.findAllByOrderByFacultyId();
+    }
+
+    @Scheduled(cron = "${school.stats.rebuild.cron:-}")
+    @Transactional
+    public void rebuild() {
+        facultyStatsRepository.clear();
+        facultyStatsRepository.recompute();
+    }
+}
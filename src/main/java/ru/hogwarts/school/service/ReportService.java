@@ -0,0 +1,186 @@
+package ru.hogwarts.school.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.hogwarts.school.deadline.Deadline;
+import ru.hogwarts.school.dto.FacultyReport;
+import ru.hogwarts.school.dto.SchoolReport;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Per-faculty roster statistics (head count, ages, avatar coverage) computed in one pass, plus
+ * a bucket for students without a faculty so the school totals cover every student.
+ * Each faculty's id range is split into partitions of at most {@code partitionSize} ids that
+ * stream their rows on a bounded fork-join pool; partial aggregates are merged on the way back
+ * up. Wall-clock time follows the largest faculty and the pool size, not the number of faculties.
+ */
+@Service
+public class ReportService {
+
+    private static final int FETCH_SIZE = 500;
+
+    private static final String FACULTY_RANGES = "SELECT f.id, f.name, MIN(s.id), MAX(s.id) "
+            + "FROM faculty f LEFT JOIN student s ON s.faculty_id = f.id GROUP BY f.id, f.name ORDER BY f.id";
+    private static final String PARTITION = "SELECT s.age, "
+            + "EXISTS (SELECT 1 FROM avatar a WHERE a.student_id = s.id) "
+            + "FROM student s WHERE s.faculty_id = ? AND s.id BETWEEN ? AND ?";
+    private static final String UNASSIGNED_RANGE = "SELECT MIN(s.id), MAX(s.id) FROM student s "
+            + "WHERE s.faculty_id IS NULL";
+    private static final String UNASSIGNED_PARTITION = "SELECT s.age, "
+            + "EXISTS (SELECT 1 FROM avatar a WHERE a.student_id = s.id) "
+            + "FROM student s WHERE s.faculty_id IS NULL AND s.id BETWEEN ? AND ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnly;
+    private final ForkJoinPool pool;
+    private final long partitionSize;
+
+    public ReportService(DataSource dataSource, PlatformTransactionManager transactionManager,
+                         @Value("${school.report.parallelism:0}") int parallelism,
+                         @Value("${school.report.partition-size:5000}") long partitionSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.partitionSize = partitionSize;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+                pool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("report-" + thread.getPoolIndex());
+                    return thread;
+                }, null, false);
+    }
+
+    public SchoolReport facultyReport() {
+        List<FacultyRange> ranges = readOnly.execute(status -> {
+            List<FacultyRange> result = new ArrayList<>(jdbcTemplate.query(FACULTY_RANGES, (rs, rowNum) ->
+                    new FacultyRange(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getLong(4))));
+            result.add(jdbcTemplate.queryForObject(UNASSIGNED_RANGE, (rs, rowNum) ->
+                    new FacultyRange(null, null, rs.getLong(1), rs.getLong(2))));
+            return result;
+        });
+        long deadline = Deadline.isSet() ? System.nanoTime() + Deadline.remainingNanos() : 0;
+
+        List<ForkJoinTask<Partial>> tasks = new ArrayList<>();
+        for (FacultyRange range : ranges) {
+            tasks.add(range.maxId() == 0
+                    ? null
+                    : pool.submit(new PartitionTask(range.facultyId(), range.minId(), range.maxId(), deadline)));
+        }
+
+        List<FacultyReport> reports = new ArrayList<>(ranges.size());
+        Partial total = new Partial();
+        for (int i = 0; i < ranges.size(); i++) {
+            Partial partial = tasks.get(i) == null ? new Partial() : tasks.get(i).join();
+            reports.add(partial.toReport(ranges.get(i)));
+            total.merge(partial);
+        }
+        FacultyReport unassigned = reports.remove(reports.size() - 1);
+        return new SchoolReport(total.students, total.averageAge(), total.withAvatar, reports, unassigned);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private Partial scan(Long facultyId, long fromId, long toId) {
+        Partial partial = new Partial();
+        RowCallbackHandler rows = rs -> partial.accept(rs.getInt(1), rs.getBoolean(2));
+        readOnly.executeWithoutResult(status -> {
+            if (facultyId == null) {
+                jdbcTemplate.query(UNASSIGNED_PARTITION, rows, fromId, toId);
+            } else {
+                jdbcTemplate.query(PARTITION, rows, facultyId, fromId, toId);
+            }
+        });
+        return partial;
+    }
+
+    private final class PartitionTask extends RecursiveTask<Partial> {
+
+        private final Long facultyId;
+        private final long fromId;
+        private final long toId;
+        private final long deadline;
+
+        PartitionTask(Long facultyId, long fromId, long toId, long deadline) {
+            this.facultyId = facultyId;
+            this.fromId = fromId;
+            this.toId = toId;
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (toId - fromId < partitionSize) {
+                if (deadline != 0) {
+                    Deadline.set(deadline);
+                }
+                try {
+                    return scan(facultyId, fromId, toId);
+                } finally {
+                    Deadline.clear();
+                }
+            }
+            long middle = fromId + (toId - fromId) / 2;
+            PartitionTask left = new PartitionTask(facultyId, fromId, middle, deadline);
+            left.fork();
+            Partial right = new PartitionTask(facultyId, middle + 1, toId, deadline).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    private record FacultyRange(Long facultyId, String facultyName, long minId, long maxId) {
+    }
+
+    private static final class Partial {
+
+        private long students;
+        private long ageSum;
+        private int minAge = Integer.MAX_VALUE;
+        private int maxAge = Integer.MIN_VALUE;
+        private long withAvatar;
+
+        void accept(int age, boolean hasAvatar) {
+            students++;
+            ageSum += age;
+            minAge = Math.min(minAge, age);
+            maxAge = Math.max(maxAge, age);
+            if (hasAvatar) {
+                withAvatar++;
+            }
+        }
+
+        Partial merge(Partial other) {
+            students += other.students;
+            ageSum += other.ageSum;
+            minAge = Math.min(minAge, other.minAge);
+            maxAge = Math.max(maxAge, other.maxAge);
+            withAvatar += other.withAvatar;
+            return this;
+        }
+
+        Double averageAge() {
+            return students == 0 ? null : (double) ageSum / students;
+        }
+
+        FacultyReport toReport(FacultyRange range) {
+            return new FacultyReport(range.facultyId(), range.facultyName(), students,
+                    students == 0 ? null : minAge, students == 0 ? null : maxAge, averageAge(), withAvatar,
+                    students == 0 ? 0 : (double) withAvatar / students);
+        }
+    }
+}
@@ -1,8 +1,20 @@
 package ru.hogwarts.school.service;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import ru.hogwarts.school.cache.FacultyRosterIndex;
+import ru.hogwarts.school.cache.StudentAgeIndex;
+import ru.hogwarts.school.deadline.Deadline;
+import ru.hogwarts.school.dto.StudentPatch;
+import ru.hogwarts.school.event.AvatarChangedEvent;
+import ru.hogwarts.school.event.AvatarFilesReleasedEvent;
+import ru.hogwarts.school.event.StudentChangedEvent;
 import ru.hogwarts.school.model.Avatar;
 import ru.hogwarts.school.model.Student;
 import ru.hogwarts.school.repository.AvatarRepository;
@@ -11,94 +23,226 @@ import ru.hogwarts.school.repository.StudentRepository;
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 
-import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 
 @Service
 public class StudentService {
 
+    private static final int DELETE_CHUNK = 1000;
+
     @Value("${avatars.dir.path}")
     private String avatarsDir;
 
     private final StudentRepository studentRepository;
     private final AvatarRepository avatarRepository;
-
-    public StudentService(StudentRepository studentRepository, AvatarRepository avatarRepository) {
+    private final FacultyRosterIndex facultyRosterIndex;
+    private final StudentAgeIndex studentAgeIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    public StudentService(StudentRepository studentRepository, AvatarRepository avatarRepository,
+                          FacultyRosterIndex facultyRosterIndex, StudentAgeIndex studentAgeIndex,
+                          ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager) {
         this.studentRepository = studentRepository;
         this.avatarRepository = avatarRepository;
+        this.facultyRosterIndex = facultyRosterIndex;
+        this.studentAgeIndex = studentAgeIndex;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
+    @Transactional
     public Student addStudent(Student student) {
-        return studentRepository.save(student);
+        Student saved = studentRepository.save(student);
+        eventPublisher.publishEvent(StudentChangedEvent.saved(saved));
+        return saved;
     }
 
+    @Transactional(readOnly = true)
     public Student findStudent(long id) {
         return studentRepository.findById(id).get();
     }
 
+    @Transactional(readOnly = true)
     public List<Student> findAllStudents() {
         return studentRepository.findAll();
     }
 
+    @Transactional
     public Student editStudent(Student student) {
-        return studentRepository.save(student);
+        Student current = studentRepository.findById(student.getId()).orElse(null);
+        if (current == null) {
+            return null;
+        }
+        student.setVersion(current.getVersion());
+        Student saved = studentRepository.save(student);
+        eventPublisher.publishEvent(StudentChangedEvent.saved(saved));
+        return saved;
+    }
+
+    @Transactional
+    public Student editStudent(Student student, long expectedVersion) {
+        if (!studentRepository.existsById(student.getId())) {
+            return null;
+        }
+        student.setVersion(expectedVersion);
+        Student saved = studentRepository.save(student);
+        eventPublisher.publishEvent(StudentChangedEvent.saved(saved));
+        return saved;
     }
 
+    @Transactional
+    public boolean patchStudent(long id, StudentPatch patch, Long expectedVersion) {
+        int updated = expectedVersion == null
+                ? studentRepository.patch(id, patch.name(), patch.age())
+                : studentRepository.patch(id, patch.name(), patch.age(), expectedVersion);
+        if (updated == 0) {
+            if (expectedVersion != null && studentRepository.existsById(id)) {
+                throw new ObjectOptimisticLockingFailureException(Student.class, id);
+            }
+            return false;
+        }
+        long version = expectedVersion == null ? studentRepository.findVersionById(id) : expectedVersion + 1;
+        eventPublisher.publishEvent(StudentChangedEvent.patched(id, patch, version));
+        return true;
+    }
+
+    @Transactional
     public void deleteStudent(long id) {
-        studentRepository.deleteById(id);
+        deleteStudents(List.of(id));
     }
 
+    /**
+     * Deletes students and their avatar rows with set-based statements in one transaction.
+     * The avatar files are handed to {@link AvatarFileCleaner} and removed after commit.
+     *
+     * @return ids of the students that existed and were deleted
+     */
+    @Transactional
+    public List<Long> deleteStudents(Collection<Long> ids) {
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<Long> deleted = new ArrayList<>();
+        List<String> filePaths = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += DELETE_CHUNK) {
+            List<Long> found = studentRepository.findIdsByIdIn(
+                    distinct.subList(from, Math.min(from + DELETE_CHUNK, distinct.size())));
+            if (found.isEmpty()) {
+                continue;
+            }
+            filePaths.addAll(avatarRepository.findFilePathsByStudentIdIn(found));
+            avatarRepository.deleteByStudentIdIn(found);
+            studentRepository.deleteByIdIn(found);
+            deleted.addAll(found);
+        }
+        deleted.forEach(id -> eventPublisher.publishEvent(StudentChangedEvent.deleted(id)));
+        if (!filePaths.isEmpty()) {
+            eventPublisher.publishEvent(new AvatarFilesReleasedEvent(filePaths));
+        }
+        return deleted;
+    }
+
+    @Transactional(readOnly = true)
     public Collection<Student> findByAge(int min, int max) {
+        if (studentAgeIndex.isEnabled()) {
+            return studentAgeIndex.findByAge(min, max);
+        }
         return studentRepository.findByAgeBetween(min, max);
     }
 
+    @Transactional(readOnly = true)
     public Collection<Student> findByFaculty(String facultyName) {
-        return studentRepository.findStudentsByFaculty_Name(facultyName);
+        return facultyRosterIndex.findByFaculty(facultyName);
     }
 
+    @Transactional(readOnly = true)
     public Avatar findAvatar(long studentId) {
         return avatarRepository.findByStudentId(studentId).orElseThrow();
     }
 
     public void uploadAvatar(Long studentId, MultipartFile file) throws IOException {
+        uploadAvatar(studentId, file.getInputStream(), file.getContentType(), getExtension(file.getOriginalFilename()));
+    }
+
+    /**
+     * Streams an avatar body to disk in one pass, keeping a copy of the bytes for the preview
+     * column. The body goes to a temporary file next to the target that replaces it atomically
+     * only once the avatar row has been committed, so if reading fails part-way (too large,
+     * deadline, client gone) or the row cannot be saved, the previous avatar stays intact and no
+     * partial file is left behind.
+     */
+    public void uploadAvatar(Long studentId, InputStream body, String mediaType, String extension) throws IOException {
         Student student = findStudent(studentId);
 
-        Path filePath = Path.of(avatarsDir, studentId + "." + getExtension(file.getOriginalFilename()));
+        Path filePath = Path.of(avatarsDir, studentId + "." + extension);
         Files.createDirectories(filePath.getParent());
-        Files.deleteIfExists(filePath);
-
-        try (InputStream is = file.getInputStream();
-             OutputStream os = Files.newOutputStream(filePath, CREATE_NEW);
-             BufferedInputStream bis = new BufferedInputStream(is, 1024);
-             BufferedOutputStream bos = new BufferedOutputStream(os, 1024);
-        ) {
-            bis.transferTo(bos);
+        Path tmp = Files.createTempFile(filePath.getParent(), ".upload-", ".tmp");
+
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        try (InputStream is = body;
+             OutputStream os = Files.newOutputStream(tmp)) {
+            Deadline.transfer(is, new FilterOutputStream(os) {
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    data.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                    data.write(b, off, len);
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
         }
 
-        Avatar avatar = avatarRepository.findByStudentId(studentId).orElseGet(Avatar::new);
-        avatar.setStudent(student);
-        avatar.setFilePath(filePath.toString());
-        avatar.setFileSize(file.getSize());
-        avatar.setMediaType(file.getContentType());
-        avatar.setData(file.getBytes());
-
-        avatarRepository.save(avatar);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Avatar avatar = avatarRepository.findByStudentId(studentId).orElseGet(Avatar::new);
+                avatar.setStudent(student);
+                avatar.setFilePath(filePath.toString());
+                avatar.setFileSize(data.size());
+                avatar.setMediaType(mediaType);
+                avatar.setData(data.toByteArray());
+
+                avatarRepository.save(avatar);
+                eventPublisher.publishEvent(new AvatarChangedEvent(studentId));
+            });
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        try {
+            Files.move(tmp, filePath, REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
     }
 
     private String getExtension(String fileName) {
         return fileName.substring(fileName.lastIndexOf(".") + 1);
     }
 
+    @Transactional(readOnly = true)
     public Long getTotalStudentCount() {
         return studentRepository.countAllStudents();
     }
 
+    @Transactional(readOnly = true)
     public Double getAvgAgeOfStudents() {
         return studentRepository.getAvgAgeOfStudents();
     }
 
+    @Transactional(readOnly = true)
     public Collection<Student> getLastFiveStudents() {
         return studentRepository.getLastFiveStudents();
     }
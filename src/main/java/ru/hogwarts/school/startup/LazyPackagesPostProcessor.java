@@ -0,0 +1,60 @@
+package ru.hogwarts.school.startup;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+
+import java.util.List;
+
+/**
+ * Marks every bean whose class lives under one of {@code packages} as lazy, so that
+ * non-critical infrastructure (the OpenAPI endpoints, for instance) is built on first use
+ * instead of during startup.
+ */
+public class LazyPackagesPostProcessor implements BeanFactoryPostProcessor {
+
+    private final List<String> packages;
+
+    public LazyPackagesPostProcessor(List<String> packages) {
+        this.packages = packages;
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+            if (definition.getRole() != BeanDefinition.ROLE_INFRASTRUCTURE
+                    && isInLazyPackage(className(definition, beanFactory))) {
+                definition.setLazyInit(true);
+            }
+        }
+    }
+
+    /**
+     * The bean's own class, or for {@code @Bean} methods the class of the configuration that
+     * declares them.
+     */
+    private static String className(BeanDefinition definition, ConfigurableListableBeanFactory beanFactory) {
+        if (definition.getBeanClassName() != null) {
+            return definition.getBeanClassName();
+        }
+        String factoryBeanName = definition.getFactoryBeanName();
+        if (factoryBeanName != null && beanFactory.containsBeanDefinition(factoryBeanName)) {
+            return beanFactory.getBeanDefinition(factoryBeanName).getBeanClassName();
+        }
+        return null;
+    }
+
+    private boolean isInLazyPackage(String className) {
+        if (className == null) {
+            return false;
+        }
+        for (String lazyPackage : packages) {
+            if (className.startsWith(lazyPackage + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
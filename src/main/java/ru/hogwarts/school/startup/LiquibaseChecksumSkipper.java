@@ -0,0 +1,125 @@
+package ru.hogwarts.school.startup;
+
+import liquibase.integration.spring.SpringLiquibase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Skips the Liquibase update when the changelog hashes to the checksum recorded by the last
+ * successful run. Applied to the {@code SpringLiquibase} that Boot creates: before it runs, the
+ * configured {@code spring.liquibase.change-log} and every file under its directory are hashed
+ * and, if nothing changed, the bean is told not to run; after a run the new checksum is stored.
+ * Changelogs that include files outside their own directory are not fully covered.
+ */
+public class LiquibaseChecksumSkipper implements BeanPostProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiquibaseChecksumSkipper.class);
+
+    private final Map<SpringLiquibase, String> pending = new ConcurrentHashMap<>();
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof SpringLiquibase liquibase) {
+            String checksum;
+            try {
+                checksum = checksum(liquibase);
+            } catch (IOException e) {
+                throw new BeanCreationException(beanName, "Cannot read " + liquibase.getChangeLog(), e);
+            }
+            if (checksum.equals(storedChecksum(new JdbcTemplate(liquibase.getDataSource())))) {
+                logger.info("Changelog checksum {} unchanged, skipping Liquibase", checksum);
+                liquibase.setShouldRun(false);
+            } else {
+                pending.put(liquibase, checksum);
+            }
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof SpringLiquibase liquibase) {
+            String checksum = pending.remove(liquibase);
+            // The changelog seeds the row, so instances racing on the first deploy never insert it twice
+            if (checksum != null && new JdbcTemplate(liquibase.getDataSource())
+                    .update("UPDATE changelog_checksum SET checksum = ? WHERE id = 1", checksum) == 0) {
+                logger.warn("No changelog_checksum row to record {} in; Liquibase will run on every start", checksum);
+            }
+        }
+        return bean;
+    }
+
+    static String checksum(SpringLiquibase liquibase) throws IOException {
+        ResourceLoader resourceLoader = liquibase.getResourceLoader() != null
+                ? liquibase.getResourceLoader()
+                : new DefaultResourceLoader();
+        String changeLog = liquibase.getChangeLog();
+        String path = changeLog.substring(changeLog.indexOf(':') + 1);
+        String root = path.substring(0, path.lastIndexOf('/') + 1);
+        String location = root.isEmpty() ? changeLog : "classpath*:" + root + "**/*";
+        List<Resource> sorted = Arrays.stream(new PathMatchingResourcePatternResolver(resourceLoader)
+                        .getResources(location))
+                .filter(Resource::isReadable)
+                .sorted(Comparator.comparing(resource -> path(resource, root)))
+                .toList();
+        MessageDigest digest = sha256();
+        digest.update(String.valueOf(changeLog).getBytes(StandardCharsets.UTF_8));
+        digest.update(String.valueOf(liquibase.getContexts()).getBytes(StandardCharsets.UTF_8));
+        digest.update(String.valueOf(liquibase.getLabelFilter()).getBytes(StandardCharsets.UTF_8));
+        for (Resource resource : sorted) {
+            digest.update(path(resource, root).getBytes(StandardCharsets.UTF_8));
+            try (InputStream is = resource.getInputStream()) {
+                digest.update(is.readAllBytes());
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String storedChecksum(JdbcTemplate jdbcTemplate) {
+        try {
+            return jdbcTemplate.query("SELECT checksum FROM changelog_checksum WHERE id = 1",
+                    rs -> rs.next() ? rs.getString(1) : null);
+        } catch (DataAccessException e) {
+            return null;
+        }
+    }
+
+    private static String path(Resource resource, String root) {
+        try {
+            String url = resource.getURL().toString();
+            int start = root.isEmpty() ? -1 : url.lastIndexOf(root);
+            return start < 0 ? url : url.substring(start);
+        } catch (IOException e) {
+            return String.valueOf(resource.getFilename());
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
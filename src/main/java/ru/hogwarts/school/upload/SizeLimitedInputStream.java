@@ -0,0 +1,57 @@
+package ru.hogwarts.school.upload;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Fails with {@link UploadTooLargeException} as soon as more than {@code limit} bytes have been
+ * read, so an oversized body is abandoned mid-stream instead of being read to the end.
+ */
+public class SizeLimitedInputStream extends FilterInputStream {
+
+    private final long limit;
+    private long count;
+
+    public SizeLimitedInputStream(InputStream in, long limit) {
+        super(in);
+        this.limit = limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            count(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = super.read(b, off, len);
+        if (read > 0) {
+            count(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void count(long read) throws UploadTooLargeException {
+        count += read;
+        if (count > limit) {
+            throw new UploadTooLargeException(limit);
+        }
+    }
+}
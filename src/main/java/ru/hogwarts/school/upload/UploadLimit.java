@@ -0,0 +1,22 @@
+package ru.hogwarts.school.upload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Largest request body a controller method accepts. Requests that announce a larger
+ * {@code Content-Length} are answered with 413 before the body is read.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface UploadLimit {
+
+    /**
+     * A size such as {@code 300KB}, or a placeholder for one such as {@code ${avatars.max-size}}.
+     */
+    String value();
+}
@@ -0,0 +1,56 @@
+package ru.hogwarts.school.upload;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Rejects requests to {@link UploadLimit} endpoints whose {@code Content-Length} is already over
+ * the limit. Multipart bodies get {@link #MULTIPART_OVERHEAD} on top for boundaries and part
+ * headers. The connection is closed rather than drained. Chunked bodies are let through and
+ * have to be limited while they are read.
+ */
+@Component
+public class UploadLimitInterceptor implements HandlerInterceptor {
+
+    static final long MULTIPART_OVERHEAD = 8 * 1024;
+
+    private final Environment environment;
+
+    public UploadLimitInterceptor(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        UploadLimit uploadLimit = handlerMethod.getMethodAnnotation(UploadLimit.class);
+        if (uploadLimit == null) {
+            return true;
+        }
+        long limit = limit(uploadLimit);
+        String contentType = request.getContentType();
+        if (contentType != null && contentType.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE)) {
+            limit += MULTIPART_OVERHEAD;
+        }
+        if (request.getContentLengthLong() > limit) {
+            response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+            response.setHeader(HttpHeaders.CONNECTION, "close");
+            return false;
+        }
+        return true;
+    }
+
+    public long limit(UploadLimit uploadLimit) {
+        return DataSize.parse(environment.resolveRequiredPlaceholders(uploadLimit.value())).toBytes();
+    }
+}
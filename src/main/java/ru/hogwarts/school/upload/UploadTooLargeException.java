@@ -0,0 +1,14 @@
+package ru.hogwarts.school.upload;
+
+import java.io.IOException;
+
+/**
+ * Thrown while reading a body that has grown past its limit. An {@link IOException}, so it
+ * aborts whatever copy loop is reading the stream.
+ */
+public class UploadTooLargeException extends IOException {
+
+    public UploadTooLargeException(long limit) {
+        super("Upload exceeds " + limit + " bytes");
+    }
+}
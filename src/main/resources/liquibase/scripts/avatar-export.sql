@@ -0,0 +1,7 @@
+-- liquibase formatted sql
+
+-- changeset meliseev:1
+ALTER TABLE avatar ADD COLUMN updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP NOT NULL;
+
+-- changeset meliseev:2
+CREATE INDEX avatar_updated_at_index ON avatar (updated_at, id);
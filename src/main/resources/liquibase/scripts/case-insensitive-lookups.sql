@@ -0,0 +1,7 @@
+-- liquibase formatted sql
+
+-- changeset meliseev:1 dbms:postgresql
+CREATE INDEX faculty_lower_name_index ON faculty (lower(name));
+
+-- changeset meliseev:2 dbms:postgresql
+CREATE INDEX faculty_lower_color_index ON faculty (lower(color));
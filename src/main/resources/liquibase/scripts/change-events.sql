@@ -0,0 +1,36 @@
+-- liquibase formatted sql
+
+-- changeset meliseev:1
+CREATE TABLE change_event (
+    seq BIGSERIAL PRIMARY KEY,
+    entity VARCHAR(32) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    type VARCHAR(16) NOT NULL,
+    payload TEXT,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+-- changeset meliseev:2
+CREATE INDEX change_event_created_at_index ON change_event (created_at);
+
+-- The trigger below stamps each event with the transaction horizon seen after its seq was drawn.
+-- It assigns the transaction id first, so any transaction holding a lower seq already has an id
+-- below the horizon; once pg_snapshot_xmin passes the horizon, a gap below the event is final.
+
+-- changeset meliseev:3
+ALTER TABLE change_event ADD COLUMN txid_horizon BIGINT;
+
+-- changeset meliseev:4 dbms:postgresql splitStatements:false
+CREATE FUNCTION change_event_stamp() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_current_xact_id();
+    NEW.seq := nextval(pg_get_serial_sequence('change_event', 'seq'));
+    NEW.txid_horizon := CAST(CAST(pg_snapshot_xmax(pg_current_snapshot()) AS TEXT) AS BIGINT);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+-- changeset meliseev:5 dbms:postgresql
+ALTER TABLE change_event ALTER COLUMN seq DROP DEFAULT;
+CREATE TRIGGER change_event_stamp BEFORE INSERT ON change_event
+    FOR EACH ROW EXECUTE FUNCTION change_event_stamp();
@@ -0,0 +1,12 @@
+-- liquibase formatted sql
+
+-- changeset meliseev:1
+CREATE TABLE changelog_checksum (
+    id INT PRIMARY KEY,
+    checksum VARCHAR(64) NOT NULL
+);
+
+-- The row is created here, under the Liquibase lock, so instances starting together only UPDATE it
+-- changeset meliseev:2
+INSERT INTO changelog_checksum (id, checksum)
+SELECT 1, '' WHERE NOT EXISTS (SELECT 1 FROM changelog_checksum WHERE id = 1);
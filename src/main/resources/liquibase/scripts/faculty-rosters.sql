@@ -0,0 +1,4 @@
+-- liquibase formatted sql
+
+-- changeset meliseev:1
+CREATE INDEX student_faculty_id_index ON student (faculty_id, id);
@@ -0,0 +1,192 @@
+-- liquibase formatted sql
+
+-- changeset meliseev:1
+CREATE TABLE faculty_stats (
+    faculty_id BIGINT PRIMARY KEY REFERENCES faculty (id) ON DELETE CASCADE,
+    student_count BIGINT NOT NULL DEFAULT 0,
+    age_sum BIGINT NOT NULL DEFAULT 0,
+    avatar_count BIGINT NOT NULL DEFAULT 0
+);
+
+-- changeset meliseev:2
+INSERT INTO faculty_stats (faculty_id, student_count, age_sum, avatar_count)
+SELECT f.id,
+       (SELECT COUNT(*) FROM student s WHERE s.faculty_id = f.id),
+       (SELECT COALESCE(SUM(s.age), 0) FROM student s WHERE s.faculty_id = f.id),
+       (SELECT COUNT(*) FROM avatar a JOIN student s ON s.id = a.student_id WHERE s.faculty_id = f.id)
+FROM faculty f;
+
+-- The triggers below keep faculty_stats current. They are statement-level with transition
+-- tables, so a batched insert of many students touches each faculty row once, and updates
+-- that change nothing counted (renames) do not touch it at all.
+
+-- changeset meliseev:3 dbms:postgresql splitStatements:false
+CREATE FUNCTION faculty_stats_faculty_insert() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO faculty_stats (faculty_id) SELECT id FROM new_rows ON CONFLICT (faculty_id) DO NOTHING;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER faculty_stats_faculty_insert AFTER INSERT ON faculty
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION faculty_stats_faculty_insert();
+
+-- changeset meliseev:4 dbms:postgresql splitStatements:false
+CREATE FUNCTION faculty_stats_student_insert() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO faculty_stats AS fs (faculty_id, student_count, age_sum, avatar_count)
+    SELECT faculty_id, SUM(students), SUM(ages), SUM(avatars)
+    FROM (
+        SELECT n.faculty_id, 1 AS students, n.age AS ages,
+               (SELECT COUNT(*) FROM avatar a WHERE a.student_id = n.id) AS avatars
+        FROM new_rows n
+    ) deltas
+    WHERE faculty_id IS NOT NULL
+    GROUP BY faculty_id
+    HAVING SUM(students) <> 0 OR SUM(ages) <> 0 OR SUM(avatars) <> 0
+    ORDER BY faculty_id
+    ON CONFLICT (faculty_id) DO UPDATE SET
+        student_count = fs.student_count + EXCLUDED.student_count,
+        age_sum = fs.age_sum + EXCLUDED.age_sum,
+        avatar_count = fs.avatar_count + EXCLUDED.avatar_count;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER faculty_stats_student_insert AFTER INSERT ON student
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION faculty_stats_student_insert();
+
+-- changeset meliseev:5 dbms:postgresql splitStatements:false
+CREATE FUNCTION faculty_stats_student_update() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO faculty_stats AS fs (faculty_id, student_count, age_sum, avatar_count)
+    SELECT faculty_id, SUM(students), SUM(ages), SUM(avatars)
+    FROM (
+        SELECT o.faculty_id, -1 AS students, -o.age AS ages,
+               -(SELECT COUNT(*) FROM avatar a WHERE a.student_id = o.id) AS avatars
+        FROM old_rows o
+        UNION ALL
+        SELECT n.faculty_id, 1, n.age, (SELECT COUNT(*) FROM avatar a WHERE a.student_id = n.id)
+        FROM new_rows n
+    ) deltas
+    WHERE faculty_id IS NOT NULL
+    GROUP BY faculty_id
+    HAVING SUM(students) <> 0 OR SUM(ages) <> 0 OR SUM(avatars) <> 0
+    ORDER BY faculty_id
+    ON CONFLICT (faculty_id) DO UPDATE SET
+        student_count = fs.student_count + EXCLUDED.student_count,
+        age_sum = fs.age_sum + EXCLUDED.age_sum,
+        avatar_count = fs.avatar_count + EXCLUDED.avatar_count;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER faculty_stats_student_update AFTER UPDATE ON student
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION faculty_stats_student_update();
+
+-- changeset meliseev:6 dbms:postgresql splitStatements:false
+CREATE FUNCTION faculty_stats_student_delete() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO faculty_stats AS fs (faculty_id, student_count, age_sum, avatar_count)
+    SELECT faculty_id, SUM(students), SUM(ages), SUM(avatars)
+    FROM (
+        SELECT o.faculty_id, -1 AS students, -o.age AS ages,
+               -(SELECT COUNT(*) FROM avatar a WHERE a.student_id = o.id) AS avatars
+        FROM old_rows o
+    ) deltas
+    WHERE faculty_id IS NOT NULL
+    GROUP BY faculty_id
+    HAVING SUM(students) <> 0 OR SUM(ages) <> 0 OR SUM(avatars) <> 0
+    ORDER BY faculty_id
+    ON CONFLICT (faculty_id) DO UPDATE SET
+        student_count = fs.student_count + EXCLUDED.student_count,
+        age_sum = fs.age_sum + EXCLUDED.age_sum,
+        avatar_count = fs.avatar_count + EXCLUDED.avatar_count;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER faculty_stats_student_delete AFTER DELETE ON student
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION faculty_stats_student_delete();
+
+-- changeset meliseev:7 dbms:postgresql splitStatements:false
+CREATE FUNCTION faculty_stats_avatar_insert() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO faculty_stats AS fs (faculty_id, student_count, age_sum, avatar_count)
+    SELECT faculty_id, SUM(students), SUM(ages), SUM(avatars)
+    FROM (
+        SELECT s.faculty_id, 0 AS students, 0 AS ages, 1 AS avatars
+        FROM new_rows n JOIN student s ON s.id = n.student_id
+    ) deltas
+    WHERE faculty_id IS NOT NULL
+    GROUP BY faculty_id
+    HAVING SUM(students) <> 0 OR SUM(ages) <> 0 OR SUM(avatars) <> 0
+    ORDER BY faculty_id
+    ON CONFLICT (faculty_id) DO UPDATE SET
+        student_count = fs.student_count + EXCLUDED.student_count,
+        age_sum = fs.age_sum + EXCLUDED.age_sum,
+        avatar_count = fs.avatar_count + EXCLUDED.avatar_count;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER faculty_stats_avatar_insert AFTER INSERT ON avatar
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION faculty_stats_avatar_insert();
+
+-- changeset meliseev:8 dbms:postgresql splitStatements:false
+CREATE FUNCTION faculty_stats_avatar_update() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO faculty_stats AS fs (faculty_id, student_count, age_sum, avatar_count)
+    SELECT faculty_id, SUM(students), SUM(ages), SUM(avatars)
+    FROM (
+        SELECT s.faculty_id, 0 AS students, 0 AS ages, -1 AS avatars
+        FROM old_rows o JOIN student s ON s.id = o.student_id
+        UNION ALL
+        SELECT s.faculty_id, 0, 0, 1
+        FROM new_rows n JOIN student s ON s.id = n.student_id
+    ) deltas
+    WHERE faculty_id IS NOT NULL
+    GROUP BY faculty_id
+    HAVING SUM(students) <> 0 OR SUM(ages) <> 0 OR SUM(avatars) <> 0
+    ORDER BY faculty_id
+    ON CONFLICT (faculty_id) DO UPDATE SET
+        student_count = fs.student_count + EXCLUDED.student_count,
+        age_sum = fs.age_sum + EXCLUDED.age_sum,
+        avatar_count = fs.avatar_count + EXCLUDED.avatar_count;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER faculty_stats_avatar_update AFTER UPDATE ON avatar
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION faculty_stats_avatar_update();
+
+-- changeset meliseev:9 dbms:postgresql splitStatements:false
+CREATE FUNCTION faculty_stats_avatar_delete() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO faculty_stats AS fs (faculty_id, student_count, age_sum, avatar_count)
+    SELECT faculty_id, SUM(students), SUM(ages), SUM(avatars)
+    FROM (
+        SELECT s.faculty_id, 0 AS students, 0 AS ages, -1 AS avatars
+        FROM old_rows o JOIN student s ON s.id = o.student_id
+    ) deltas
+    WHERE faculty_id IS NOT NULL
+    GROUP BY faculty_id
+    HAVING SUM(students) <> 0 OR SUM(ages) <> 0 OR SUM(avatars) <> 0
+    ORDER BY faculty_id
+    ON CONFLICT (faculty_id) DO UPDATE SET
+        student_count = fs.student_count + EXCLUDED.student_count,
+        age_sum = fs.age_sum + EXCLUDED.age_sum,
+        avatar_count = fs.avatar_count + EXCLUDED.avatar_count;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER faculty_stats_avatar_delete AFTER DELETE ON avatar
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION faculty_stats_avatar_delete();
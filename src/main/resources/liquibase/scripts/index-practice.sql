@@ -4,4 +4,7 @@
 CREATE INDEX student_name_index ON student (name);
 
 -- changeset meliseev:2
-CREATE INDEX faculty_nc_index ON faculty (name, color);
\ No newline at end of file
+CREATE INDEX faculty_nc_index ON faculty (name, color);
+
+-- changeset meliseev:3
+CREATE INDEX student_age_index ON student (age);
\ No newline at end of file
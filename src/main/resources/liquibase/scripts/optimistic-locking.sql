@@ -0,0 +1,7 @@
+-- liquibase formatted sql
+
+-- changeset meliseev:1
+ALTER TABLE student ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- changeset meliseev:2
+ALTER TABLE faculty ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
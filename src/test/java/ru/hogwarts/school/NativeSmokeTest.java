@@ -0,0 +1,128 @@
+package ru.hogwarts.school;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the native executable against H2, checks that it serves requests and prints time to
+ * first response and resident memory next to the JVM jar's. The H2 database starts with the base
+ * tables the changelog expects and the full Liquibase changelog runs on startup, so the Liquibase
+ * runtime hints are exercised too. Build with
+ * {@code mvn -Pnative package native:compile}, then run
+ * {@code mvn test -Dtest=NativeSmokeTest -Dnative.binary=target/school}.
+ */
+@EnabledIfSystemProperty(named = "native.binary", matches = ".+")
+class NativeSmokeTest {
+
+    private static final long TIMEOUT_NANOS = 60_000_000_000L;
+
+    /**
+     * The tables that predate the Liquibase changelog.
+     */
+    private static final String BASE_SCHEMA = """
+            CREATE TABLE IF NOT EXISTS faculty (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                name VARCHAR(255), color VARCHAR(255));
+            CREATE TABLE IF NOT EXISTS student (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                name VARCHAR(255), age INT NOT NULL, faculty_id BIGINT REFERENCES faculty (id));
+            CREATE TABLE IF NOT EXISTS avatar (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                file_path VARCHAR(255), file_size BIGINT NOT NULL, media_type VARCHAR(255), data BINARY LARGE OBJECT,
+                student_id BIGINT REFERENCES student (id));
+            """;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void compareNativeAndJvmStartup() throws Exception {
+        Path binary = Path.of(System.getProperty("native.binary"));
+        Path jar = Path.of(System.getProperty("jvm.jar", "target/school-0.0.1-SNAPSHOT.jar"));
+
+        Result nativeResult = start(List.of(binary.toString()));
+        System.out.printf("native: first response %5d ms, RSS %4d MB%n", nativeResult.startupMillis, nativeResult.rssMb);
+        assertThat(nativeResult.body).isEqualTo("Please Welcome!");
+
+        if (Files.exists(jar)) {
+            Result jvmResult = start(List.of("java", "-jar", jar.toString()));
+            System.out.printf("jvm:    first response %5d ms, RSS %4d MB%n", jvmResult.startupMillis, jvmResult.rssMb);
+        }
+    }
+
+    private Result start(List<String> command) throws Exception {
+        int port = freePort();
+        Path schema = Files.createTempFile("smoke-schema", ".sql");
+        Files.writeString(schema, BASE_SCHEMA);
+        List<String> args = new ArrayList<>(command);
+        args.addAll(List.of(
+                "--server.port=" + port,
+                "--spring.datasource.url=jdbc:h2:mem:smoke;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM '"
+                        + schema.toAbsolutePath().toString().replace('\\', '/') + "'",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.liquibase.enabled=true",
+                "--spring.jpa.hibernate.ddl-auto=validate",
+                "--school.invalidation.bus=memory",
+                "--avatars.dir.path=target/avatars"));
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(args)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            String body = awaitFirstResponse(port, start, process);
+            long startupMillis = (System.nanoTime() - start) / 1_000_000;
+            return new Result(startupMillis, rssMb(process.pid()), body);
+        } finally {
+            process.destroy();
+            process.waitFor();
+            Files.deleteIfExists(schema);
+        }
+    }
+
+    private String awaitFirstResponse(int port, long start, Process process) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/")).build();
+        while (System.nanoTime() - start < TIMEOUT_NANOS) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Exited with " + process.exitValue());
+            }
+            try {
+                return client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+            } catch (IOException e) {
+                Thread.sleep(5);
+            }
+        }
+        throw new IllegalStateException("No response within 60 s");
+    }
+
+    private static long rssMb(long pid) throws IOException {
+        Path status = Path.of("/proc", String.valueOf(pid), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        return Files.readAllLines(status).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .mapToLong(line -> Long.parseLong(line.replaceAll("\\D", "")) / 1024)
+                .findFirst()
+                .orElse(-1);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private record Result(long startupMillis, long rssMb, String body) {
+    }
+}
@@ -0,0 +1,162 @@
+package ru.hogwarts.school.analytics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Sort;
+import ru.hogwarts.school.dto.StudentFilter;
+import ru.hogwarts.school.dto.StudentFilterResult;
+import ru.hogwarts.school.dto.StudentPatch;
+import ru.hogwarts.school.event.AvatarChangedEvent;
+import ru.hogwarts.school.event.StudentChangedEvent;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class StudentSnapshotTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private AvatarRepository avatarRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final Random random = new Random(42);
+    private final List<Faculty> faculties = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        faculties.add(entityManager.persist(new Faculty(0, "Gryffindor", "Red")));
+        faculties.add(entityManager.persist(new Faculty(0, "Slytherin", "Green")));
+        faculties.add(null);
+        for (int i = 0; i < 301; i++) {
+            Student student = entityManager.persist(newStudent("S".repeat(1 + random.nextInt(20)), 10 + random.nextInt(10),
+                    faculties.get(random.nextInt(faculties.size()))));
+            if (random.nextInt(3) == 0) {
+                entityManager.persist(new Avatar(student, null, "image/png", 1, "avatar.png", null));
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testUsesVectorScanWhenModuleIsPresent() {
+        assertThat(ColumnScan.best().name()).startsWith("vector-");
+    }
+
+    @Test
+    void testScansMatchReferenceFilter() {
+        for (ColumnScan scan : List.of(new ScalarColumnScan(), new VectorColumnScan())) {
+            StudentSnapshot snapshot = new StudentSnapshot(dataSource, true, scan);
+            for (int i = 0; i < 200; i++) {
+                // Arrange
+                StudentFilter filter = randomFilter();
+
+                // Act
+                StudentFilterResult result = snapshot.filter(filter, 7);
+
+                // Assert
+                assertThat(result).as("%s %s", scan.name(), filter).isEqualTo(reference(filter, 7));
+            }
+        }
+    }
+
+    @Test
+    void testFollowsWriteEvents() {
+        // Arrange
+        StudentSnapshot snapshot = new StudentSnapshot(dataSource, true, new VectorColumnScan());
+        snapshot.filter(new StudentFilter(null, null, null, null, null, null), 0);
+        List<Student> students = studentRepository.findAll(Sort.by("id"));
+        Student added = studentRepository.saveAndFlush(newStudent("Neville Longbottom", 17, faculties.get(0)));
+        Student moved = students.get(5);
+        moved.setFaculty(faculties.get(1));
+        moved.setAge(30);
+        moved = studentRepository.saveAndFlush(moved);
+        long patchedId = students.get(6).getId();
+        studentRepository.patch(patchedId, "Longer name than before", 11);
+        long deletedId = students.get(7).getId();
+        avatarRepository.findByStudentId(deletedId).ifPresent(avatarRepository::delete);
+        studentRepository.deleteById(deletedId);
+        long avatarId = students.get(8).getId();
+        avatarRepository.findByStudentId(avatarId).ifPresent(avatarRepository::delete);
+        avatarRepository.saveAndFlush(new Avatar(students.get(8), null, "image/png", 1, "avatar.png", null));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        snapshot.onStudentChanged(StudentChangedEvent.saved(added));
+        snapshot.onStudentChanged(StudentChangedEvent.saved(moved));
+        snapshot.onStudentChanged(StudentChangedEvent.patched(patchedId, new StudentPatch("Longer name than before", 11), 1));
+        snapshot.onStudentChanged(StudentChangedEvent.deleted(deletedId));
+        snapshot.onAvatarChanged(new AvatarChangedEvent(avatarId));
+
+        // Assert
+        for (int i = 0; i < 100; i++) {
+            StudentFilter filter = randomFilter();
+            assertThat(snapshot.filter(filter, 1000)).as(filter.toString()).isEqualTo(reference(filter, 1000));
+        }
+    }
+
+    private StudentFilter randomFilter() {
+        Integer minAge = random.nextBoolean() ? 10 + random.nextInt(10) : null;
+        Integer maxAge = random.nextBoolean() ? 12 + random.nextInt(20) : null;
+        Faculty faculty = faculties.get(random.nextInt(faculties.size()));
+        Long facultyId = faculty == null || random.nextBoolean() ? null : faculty.getId();
+        Integer minNameLength = random.nextBoolean() ? random.nextInt(10) : null;
+        Integer maxNameLength = random.nextBoolean() ? 5 + random.nextInt(20) : null;
+        Boolean hasAvatar = random.nextInt(3) == 0 ? null : random.nextBoolean();
+        return new StudentFilter(minAge, maxAge, facultyId, minNameLength, maxNameLength, hasAvatar);
+    }
+
+    private StudentFilterResult reference(StudentFilter filter, int limit) {
+        Set<Long> withAvatar = avatarRepository.findAll().stream()
+                .map(avatar -> avatar.getStudent().getId())
+                .collect(Collectors.toSet());
+        List<Student> matching = studentRepository.findAll().stream()
+                .filter(s -> filter.minAge() == null || s.getAge() >= filter.minAge())
+                .filter(s -> filter.maxAge() == null || s.getAge() <= filter.maxAge())
+                .filter(s -> filter.facultyId() == null
+                        || s.getFaculty() != null && s.getFaculty().getId() == filter.facultyId())
+                .filter(s -> filter.minNameLength() == null || s.getName().length() >= filter.minNameLength())
+                .filter(s -> filter.maxNameLength() == null || s.getName().length() <= filter.maxNameLength())
+                .filter(s -> filter.hasAvatar() == null || withAvatar.contains(s.getId()) == filter.hasAvatar())
+                .sorted(Comparator.comparing(Student::getId))
+                .toList();
+        return new StudentFilterResult(matching.size(),
+                matching.isEmpty() ? null : matching.stream().mapToInt(Student::getAge).average().orElseThrow(),
+                matching.stream().limit(limit).map(Student::getId).toList());
+    }
+
+    private static Student newStudent(String name, int age, Faculty faculty) {
+        Student student = new Student();
+        student.setName(name);
+        student.setAge(age);
+        student.setFaculty(faculty);
+        return student;
+    }
+}
@@ -0,0 +1,136 @@
+package ru.hogwarts.school.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Uploads the same avatars once as individual {@code PUT /student/{id}/avatar} requests from
+ * {@code load.threads} clients and once as a single ZIP to {@code POST /student/avatars}, and
+ * prints avatars per second for each.
+ * Run with {@code mvn test -Dbenchmark=true -Dtest=AvatarImportBenchmark}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "school.invalidation.bus=memory",
+        "school.rate-limit.enabled=false",
+        "avatars.dir.path=target/benchmark-avatars"
+})
+class AvatarImportBenchmark {
+
+    private static final int AVATARS = Integer.getInteger("load.avatars", 2_000);
+    private static final int THREADS = Integer.getInteger("load.threads", 8);
+    private static final int AVATAR_BYTES = 20 * 1024;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private AvatarRepository avatarRepository;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void compareSingleUploadsWithZipImport() throws Exception {
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < AVATARS; i++) {
+            Student student = new Student();
+            student.setName("Import " + i);
+            student.setAge(11);
+            students.add(student);
+        }
+        List<Long> ids = studentRepository.saveAll(students).stream().map(Student::getId).toList();
+        byte[] avatar = new byte[AVATAR_BYTES];
+        ThreadLocalRandom.current().nextBytes(avatar);
+
+        uploadOneByOne(ids.subList(0, Math.min(100, ids.size())), avatar);
+        avatarRepository.deleteAll();
+        long start = System.nanoTime();
+        uploadOneByOne(ids, avatar);
+        report("single", start);
+
+        avatarRepository.deleteAll();
+        byte[] zip = zip(ids, avatar);
+        importZip(zip);
+        avatarRepository.deleteAll();
+        start = System.nanoTime();
+        importZip(zip);
+        report("zip", start);
+    }
+
+    private void uploadOneByOne(List<Long> ids, byte[] avatar) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> uploads = new ArrayList<>();
+            for (long id : ids) {
+                uploads.add(clients.submit(() -> send(HttpRequest.newBuilder(
+                                URI.create("http://localhost:" + port + "/student/" + id + "/avatar"))
+                        .header("Content-Type", "image/png")
+                        .PUT(HttpRequest.BodyPublishers.ofByteArray(avatar))
+                        .build())));
+            }
+            for (Future<?> upload : uploads) {
+                upload.get();
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private void importZip(byte[] zip) throws Exception {
+        send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/student/avatars"))
+                .header("Content-Type", "application/zip")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(zip))
+                .build());
+    }
+
+    private Void send(HttpRequest request) throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(request.uri() + " returned " + response.statusCode());
+        }
+        return null;
+    }
+
+    private void report(String mode, long start) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-6s avatars=%d saved=%d %.2f s %.0f avatars/s%n",
+                mode, AVATARS, avatarRepository.count(), seconds, AVATARS / seconds);
+    }
+
+    private static byte[] zip(List<Long> ids, byte[] avatar) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (long id : ids) {
+                zip.putNextEntry(new ZipEntry(id + ".png"));
+                zip.write(avatar);
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
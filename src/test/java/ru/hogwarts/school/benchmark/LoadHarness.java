@@ -0,0 +1,126 @@
+package ru.hogwarts.school.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Closed-loop HTTP load against a running app: {@code threads} clients each send 80% reads and
+ * 20% inserts for {@code duration} and the harness prints throughput and latency percentiles.
+ * Compare profiles with
+ * {@code mvn test -Dbenchmark=true -Dtest=LoadHarness -Dspring.profiles.active=production}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "school.invalidation.bus=memory"
+})
+class LoadHarness {
+
+    private static final int THREADS = Integer.getInteger("load.threads", 32);
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("load.warmup", 5));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("load.duration", 20));
+    private static final int SEED_STUDENTS = 1_000;
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newFixedThreadPool(4))
+            .build();
+
+    @Test
+    void run() throws Exception {
+        for (int i = 0; i < SEED_STUDENTS; i++) {
+            insert();
+        }
+        drive(WARMUP);
+        long[] latencies = drive(DURATION);
+
+        System.out.printf("profile=%s threads=%d requests=%d throughput=%.0f req/s p50=%d us p99=%d us p999=%d us%n",
+                System.getProperty("spring.profiles.active", "default"), THREADS, latencies.length,
+                latencies.length / (double) DURATION.toSeconds(),
+                percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999));
+    }
+
+    private long[] drive(Duration duration) throws Exception {
+        long end = System.nanoTime() + duration.toNanos();
+        ExecutorService clients = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(clients.submit(() -> {
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < end) {
+                        long start = System.nanoTime();
+                        if (ThreadLocalRandom.current().nextInt(5) == 0) {
+                            insert();
+                        } else {
+                            read(1 + ThreadLocalRandom.current().nextInt(SEED_STUDENTS));
+                        }
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(samples, count);
+                }));
+            }
+            long[] all = new long[0];
+            for (Future<long[]> result : results) {
+                long[] samples = result.get();
+                int offset = all.length;
+                all = Arrays.copyOf(all, offset + samples.length);
+                System.arraycopy(samples, 0, all, offset, samples.length);
+            }
+            Arrays.sort(all);
+            return all;
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private void read(long id) throws Exception {
+        send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/student/" + id)).GET().build());
+    }
+
+    private void insert() throws Exception {
+        String body = "{\"name\":\"Load " + ThreadLocalRandom.current().nextInt() + "\",\"age\":"
+                + (11 + ThreadLocalRandom.current().nextInt(8)) + "}";
+        send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/student"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build());
+    }
+
+    private void send(HttpRequest request) throws Exception {
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() >= 500) {
+            throw new IllegalStateException(request.uri() + " returned " + response.statusCode());
+        }
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * quantile))] / 1000;
+    }
+}
@@ -0,0 +1,125 @@
+package ru.hogwarts.school.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.reactive.ReactiveReadServer;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps {@code load.concurrency} requests in flight against the same reads on the MVC and the
+ * reactive endpoints and prints throughput, p99 latency, live threads and used heap for each.
+ * Run with {@code mvn test -Dbenchmark=true -Dtest=ReactiveVsMvcBenchmark}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "school.invalidation.bus=memory",
+        "school.reactive.enabled=true",
+        "avatars.dir.path=target/avatars"
+})
+class ReactiveVsMvcBenchmark {
+
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 512);
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("load.warmup", 5));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("load.duration", 20));
+    private static final int SEED_STUDENTS = 1_000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ReactiveReadServer reactiveReadServer;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newFixedThreadPool(4))
+            .build();
+
+    @Test
+    void compareMvcAndReactive() throws Exception {
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < SEED_STUDENTS; i++) {
+            Student student = new Student();
+            student.setName("Load " + i);
+            student.setAge(11 + i % 8);
+            students.add(student);
+        }
+        long firstId = studentRepository.saveAll(students).get(0).getId();
+
+        String mvc = "http://localhost:" + port + "/student";
+        String reactive = "http://localhost:" + reactiveReadServer.getPort() + "/reactive/student";
+        for (String base : List.of(mvc, reactive)) {
+            drive(base, firstId, WARMUP);
+            long[] latencies = drive(base, firstId, DURATION);
+            System.gc();
+            System.out.printf("%-8s concurrency=%d requests=%d throughput=%.0f req/s p99=%d us threads=%d heap=%d MB%n",
+                    base.equals(mvc) ? "mvc" : "reactive", CONCURRENCY, latencies.length,
+                    latencies.length / (double) DURATION.toSeconds(), percentile(latencies, 0.99),
+                    ManagementFactory.getThreadMXBean().getPeakThreadCount(),
+                    (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) >> 20);
+            ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+        }
+    }
+
+    /**
+     * Mix of single-student lookups and short age ranges, issued asynchronously so the number of
+     * open requests stays at {@link #CONCURRENCY} regardless of how the server schedules them.
+     */
+    private long[] drive(String base, long firstId, Duration duration) throws InterruptedException {
+        long end = System.nanoTime() + duration.toNanos();
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        ConcurrentLinkedQueue<Long> samples = new ConcurrentLinkedQueue<>();
+        AtomicInteger failures = new AtomicInteger();
+        while (System.nanoTime() < end) {
+            inFlight.acquire();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            URI uri = random.nextInt(4) == 0
+                    ? URI.create(base + "?min=" + (11 + random.nextInt(8)) + "&max=" + (11 + random.nextInt(8)))
+                    : URI.create(base + "/" + (firstId + random.nextInt(SEED_STUDENTS)));
+            long start = System.nanoTime();
+            client.sendAsync(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        if (error != null || response.statusCode() >= 500) {
+                            failures.incrementAndGet();
+                        } else {
+                            samples.add(System.nanoTime() - start);
+                        }
+                        inFlight.release();
+                    });
+        }
+        inFlight.acquire(CONCURRENCY);
+        if (failures.get() > 0) {
+            System.out.printf("%s: %d failed requests%n", base, failures.get());
+        }
+        return samples.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * quantile))] / 1000;
+    }
+}
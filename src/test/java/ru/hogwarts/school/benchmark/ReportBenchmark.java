@@ -0,0 +1,71 @@
+package ru.hogwarts.school.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.hogwarts.school.service.ReportService;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates the faculty report over 200k students in 8 faculties with 1 worker and then with
+ * every core, printing the average wall-clock time of each.
+ * Run with {@code mvn test -Dbenchmark=true -Dtest=ReportBenchmark}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReportBenchmark {
+
+    private static final int FACULTIES = 8;
+    private static final int STUDENTS = 200_000;
+    private static final int RUNS = 5;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void compareSerialAndParallel() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        for (int f = 1; f <= FACULTIES; f++) {
+            jdbcTemplate.update("INSERT INTO faculty (id, name, color, version) VALUES (?, ?, ?, 0)",
+                    f, "Faculty " + f, "Color " + f);
+        }
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= STUDENTS; i++) {
+            rows.add(new Object[]{i, "Student " + i, 11 + i % 7, 1 + i % FACULTIES});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO student (id, name, age, faculty_id, version) VALUES (?, ?, ?, ?, 0)", rows);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int parallelism : cores == 1 ? List.of(1) : List.of(1, cores)) {
+            ReportService reportService = new ReportService(dataSource, transactionManager, parallelism, 10_000);
+            try {
+                reportService.facultyReport();
+                long start = System.nanoTime();
+                for (int i = 0; i < RUNS; i++) {
+                    reportService.facultyReport();
+                }
+                System.out.printf("parallelism=%d %6d ms/report%n", parallelism,
+                        (System.nanoTime() - start) / RUNS / 1_000_000);
+            } finally {
+                reportService.shutdown();
+            }
+        }
+        jdbcTemplate.update("DELETE FROM student");
+        jdbcTemplate.update("DELETE FROM faculty");
+    }
+}
@@ -0,0 +1,50 @@
+package ru.hogwarts.school.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.hogwarts.school.SchoolApplication;
+
+/**
+ * Boots the application against an in-memory database and prints the average time to a
+ * ready context, with springdoc initialized lazily (the default) and eagerly.
+ * Run with {@code mvn test -Dbenchmark=true -Dtest=StartupBenchmark}. AOT and the CDS archive
+ * only apply to the packaged jar; see the {@code fast-start} Maven profile.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class StartupBenchmark {
+
+    private static final int WARMUP = 2;
+    private static final int RUNS = 5;
+
+    @Test
+    void compareLazyAndEagerStartup() {
+        for (int i = 0; i < WARMUP; i++) {
+            start("org.springdoc");
+        }
+        System.out.printf("lazy springdoc:  %6d ms/start%n", average("org.springdoc"));
+        System.out.printf("eager springdoc: %6d ms/start%n", average(""));
+    }
+
+    private long average(String lazyPackages) {
+        long total = 0;
+        for (int i = 0; i < RUNS; i++) {
+            total += start(lazyPackages);
+        }
+        return total / RUNS;
+    }
+
+    private long start(String lazyPackages) {
+        long start = System.nanoTime();
+        try (ConfigurableApplicationContext ignored = SpringApplication.run(SchoolApplication.class,
+                "--server.port=0",
+                "--spring.liquibase.enabled=false",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--school.invalidation.bus=memory",
+                "--school.startup.lazy-packages=" + lazyPackages,
+                "--logging.level.root=WARN")) {
+            return (System.nanoTime() - start) / 1_000_000;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package ru.hogwarts.school.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import ru.hogwarts.school.cache.StudentAgeIndex;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Run with {@code mvn test -Dbenchmark=true -Dtest=StudentAgeRangeBenchmark}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class StudentAgeRangeBenchmark {
+
+    private static final int STUDENTS = 1_000_000;
+    private static final int QUERIES = 50;
+    private static final int MIN_AGE = 17;
+    private static final int MAX_AGE = 18;
+
+    @Test
+    void compareDatabaseAndInMemoryIndex() throws SQLException {
+        Random random = new Random(42);
+        List<Student> students = new ArrayList<>(STUDENTS);
+        for (int i = 1; i <= STUDENTS; i++) {
+            students.add(new Student(i, "Student " + i, 11 + random.nextInt(50)));
+        }
+
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:age_benchmark", "sa", "")) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE student (id BIGINT PRIMARY KEY, name VARCHAR(255), age INT NOT NULL)");
+            }
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO student VALUES (?, ?, ?)")) {
+                for (Student student : students) {
+                    insert.setLong(1, student.getId());
+                    insert.setString(2, student.getName());
+                    insert.setInt(3, student.getAge());
+                    insert.addBatch();
+                    if (student.getId() % 10_000 == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+
+            System.out.printf("db, no index:      %8d us/query%n", timeDatabase(connection));
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE INDEX student_age_index ON student (age)");
+            }
+            System.out.printf("db, age index:     %8d us/query%n", timeDatabase(connection));
+        }
+
+        StudentRepository studentRepository = mock(StudentRepository.class);
+        when(studentRepository.findAll()).thenReturn(students);
+        StudentAgeIndex studentAgeIndex = new StudentAgeIndex(studentRepository, true, 150);
+        long rows = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            rows += studentAgeIndex.findByAge(MIN_AGE, MAX_AGE).size();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            rows += studentAgeIndex.findByAge(MIN_AGE, MAX_AGE).size();
+        }
+        System.out.printf("in-memory index:   %8d us/query (%d rows)%n",
+                (System.nanoTime() - start) / QUERIES / 1_000, rows / QUERIES / 2);
+    }
+
+    private long timeDatabase(Connection connection) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement("SELECT * FROM student WHERE age BETWEEN ? AND ?")) {
+            query.setInt(1, MIN_AGE);
+            query.setInt(2, MAX_AGE);
+            for (int i = 0; i < QUERIES; i++) {
+                drain(query);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < QUERIES; i++) {
+                drain(query);
+            }
+            return (System.nanoTime() - start) / QUERIES / 1_000;
+        }
+    }
+
+    private void drain(PreparedStatement query) throws SQLException {
+        try (ResultSet resultSet = query.executeQuery()) {
+            while (resultSet.next()) {
+                resultSet.getLong(1);
+            }
+        }
+    }
+}
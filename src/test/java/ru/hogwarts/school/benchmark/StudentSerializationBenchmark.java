@@ -0,0 +1,57 @@
+package ru.hogwarts.school.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import ru.hogwarts.school.model.Student;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Run with {@code mvn test -Dbenchmark=true -Dtest=StudentSerializationBenchmark}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class StudentSerializationBenchmark {
+
+    private static final int STUDENTS = 100_000;
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 10;
+
+    @Test
+    void compareFormats() throws IOException {
+        List<Student> students = new ArrayList<>(STUDENTS);
+        for (int i = 1; i <= STUDENTS; i++) {
+            students.add(new Student(i, "Student " + i, 16 + i % 10));
+        }
+
+        run("json", new ObjectMapper(), students);
+        run("smile", new SmileMapper(), students);
+        run("cbor", new CBORMapper(), students);
+    }
+
+    private void run(String format, ObjectMapper mapper, List<Student> students) throws IOException {
+        byte[] bytes = null;
+        for (int i = 0; i < WARMUP; i++) {
+            bytes = mapper.writeValueAsBytes(students);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            bytes = mapper.writeValueAsBytes(students);
+        }
+        long serializeMicros = (System.nanoTime() - start) / ITERATIONS / 1_000;
+
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(bytes);
+        }
+
+        System.out.printf("%-6s serialize=%8d us  raw=%10d B  gzip=%10d B%n",
+                format, serializeMicros, bytes.length, gzipped.size());
+    }
+}
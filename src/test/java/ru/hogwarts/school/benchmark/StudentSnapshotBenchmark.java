@@ -0,0 +1,114 @@
+package ru.hogwarts.school.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.hogwarts.school.analytics.StudentSnapshot;
+import ru.hogwarts.school.dto.StudentFilter;
+import ru.hogwarts.school.dto.StudentFilterResult;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the same filters over 1M students in 8 faculties through the vectorized snapshot, the
+ * scalar snapshot and the equivalent SQL, printing the average time per query of each.
+ * Run with {@code mvn test -Dbenchmark=true -Dtest=StudentSnapshotBenchmark}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StudentSnapshotBenchmark {
+
+    private static final int FACULTIES = 8;
+    private static final int STUDENTS = 1_000_000;
+    private static final int LIMIT = 100;
+    private static final int WARMUP = 200;
+    private static final int RUNS = 100;
+
+    private static final String SQL_AGGREGATE = "SELECT COUNT(*), AVG(CAST(s.age AS DOUBLE)) FROM student s " +
+            "LEFT JOIN avatar a ON a.student_id = s.id WHERE s.age BETWEEN ? AND ? AND s.faculty_id = ? " +
+            "AND LENGTH(s.name) BETWEEN ? AND ? AND a.id IS NOT NULL";
+    private static final String SQL_IDS = "SELECT s.id FROM student s " +
+            "LEFT JOIN avatar a ON a.student_id = s.id WHERE s.age BETWEEN ? AND ? AND s.faculty_id = ? " +
+            "AND LENGTH(s.name) BETWEEN ? AND ? AND a.id IS NOT NULL ORDER BY s.id LIMIT " + LIMIT;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void compareWithSql() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        for (int f = 1; f <= FACULTIES; f++) {
+            jdbcTemplate.update("INSERT INTO faculty (id, name, color, version) VALUES (?, ?, ?, 0)",
+                    f, "Faculty " + f, "Color " + f);
+        }
+        List<Object[]> students = new ArrayList<>();
+        List<Object[]> avatars = new ArrayList<>();
+        for (int i = 1; i <= STUDENTS; i++) {
+            students.add(new Object[]{i, "Student " + "x".repeat(i % 13) + i, 11 + i % 7, 1 + i % FACULTIES});
+            if (i % 3 == 0) {
+                avatars.add(new Object[]{i, i, "image/png", 1, "avatars/" + i + ".png"});
+            }
+            if (students.size() == 50_000) {
+                insert(jdbcTemplate, students, avatars);
+            }
+        }
+        insert(jdbcTemplate, students, avatars);
+
+        int[][] filters = {{12, 15, 3, 10, 20}, {11, 17, 1, 0, 100}, {16, 16, 8, 15, 18}};
+        StudentSnapshot vectorized = new StudentSnapshot(dataSource, true, true);
+        StudentSnapshot scalar = new StudentSnapshot(dataSource, true, false);
+        for (int[] f : filters) {
+            StudentFilter filter = new StudentFilter(f[0], f[1], (long) f[2], f[3], f[4], true);
+            Supplier<StudentFilterResult> sql = () -> {
+                Object[] args = {f[0], f[1], f[2], f[3], f[4]};
+                return jdbcTemplate.queryForObject(SQL_AGGREGATE, (rs, rowNum) -> new StudentFilterResult(
+                        rs.getLong(1), rs.getLong(1) == 0 ? null : rs.getDouble(2),
+                        jdbcTemplate.queryForList(SQL_IDS, Long.class, args)), args);
+            };
+            StudentFilterResult expected = sql.get();
+            assertThat(vectorized.filter(filter, LIMIT)).isEqualTo(expected);
+            assertThat(scalar.filter(filter, LIMIT)).isEqualTo(expected);
+
+            System.out.printf("filter=%s matches=%d%n", filter, expected.count());
+            System.out.printf("  %-12s %8.3f ms/query%n", vectorized.scanName(), time(() -> vectorized.filter(filter, LIMIT)));
+            System.out.printf("  %-12s %8.3f ms/query%n", scalar.scanName(), time(() -> scalar.filter(filter, LIMIT)));
+            System.out.printf("  %-12s %8.3f ms/query%n", "sql", time(sql));
+        }
+        jdbcTemplate.update("DELETE FROM avatar");
+        jdbcTemplate.update("DELETE FROM student");
+        jdbcTemplate.update("DELETE FROM faculty");
+    }
+
+    private static void insert(JdbcTemplate jdbcTemplate, List<Object[]> students, List<Object[]> avatars) {
+        jdbcTemplate.batchUpdate("INSERT INTO student (id, name, age, faculty_id, version) VALUES (?, ?, ?, ?, 0)",
+                students);
+        jdbcTemplate.batchUpdate("INSERT INTO avatar (id, student_id, media_type, file_size, file_path) " +
+                "VALUES (?, ?, ?, ?, ?)", avatars);
+        students.clear();
+        avatars.clear();
+    }
+
+    private static double time(Supplier<?> query) {
+        for (int i = 0; i < WARMUP; i++) {
+            query.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            query.get();
+        }
+        return (System.nanoTime() - start) / (double) RUNS / 1_000_000;
+    }
+}
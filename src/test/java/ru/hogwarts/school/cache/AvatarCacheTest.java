@@ -0,0 +1,97 @@
+package ru.hogwarts.school.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AvatarCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AvatarCache avatarCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        avatarCache = new AvatarCache(10, meterRegistry);
+    }
+
+    @Test
+    void testPutAndGet() throws IOException {
+        // Arrange
+        avatarCache.put(1L, avatarCache.version(1L), "image/png", new byte[]{1, 2, 3});
+
+        // Act
+        AvatarCache.Entry entry = avatarCache.get(1L);
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        entry.writeTo(os);
+
+        // Assert
+        assertThat(entry.mediaType()).isEqualTo("image/png");
+        assertThat(entry.data().isDirect()).isTrue();
+        assertThat(os.toByteArray()).containsExactly(1, 2, 3);
+        assertThat(avatarCache.bytes()).isEqualTo(3);
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedWhenOverBudget() {
+        // Arrange
+        avatarCache.put(1L, avatarCache.version(1L), "image/png", new byte[4]);
+        avatarCache.put(2L, avatarCache.version(2L), "image/png", new byte[4]);
+        avatarCache.get(1L);
+
+        // Act
+        avatarCache.put(3L, avatarCache.version(3L), "image/png", new byte[4]);
+
+        // Assert
+        assertThat(avatarCache.get(2L)).isNull();
+        assertThat(avatarCache.get(1L)).isNotNull();
+        assertThat(avatarCache.get(3L)).isNotNull();
+        assertThat(avatarCache.bytes()).isEqualTo(8);
+        assertThat(meterRegistry.get("cache.evictions").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testOversizedAvatarIsNotCached() {
+        // Act
+        AvatarCache.Entry entry = avatarCache.put(1L, avatarCache.version(1L), "image/png", new byte[11]);
+
+        // Assert
+        assertThat(entry.size()).isEqualTo(11);
+        assertThat(avatarCache.get(1L)).isNull();
+        assertThat(avatarCache.bytes()).isZero();
+    }
+
+    @Test
+    void testInvalidate() {
+        // Arrange
+        avatarCache.put(1L, avatarCache.version(1L), "image/png", new byte[4]);
+
+        // Act
+        avatarCache.invalidate(1L);
+
+        // Assert
+        assertThat(avatarCache.get(1L)).isNull();
+        assertThat(avatarCache.bytes()).isZero();
+        assertThat(avatarCache.hitRatio()).isZero();
+    }
+
+    @Test
+    void testPutAfterInvalidationIsNotCached() {
+        // Arrange
+        long version = avatarCache.version(1L);
+        avatarCache.invalidate(1L);
+
+        // Act
+        AvatarCache.Entry entry = avatarCache.put(1L, version, "image/png", new byte[]{1, 2});
+
+        // Assert
+        assertThat(entry.size()).isEqualTo(2);
+        assertThat(avatarCache.get(1L)).isNull();
+        assertThat(avatarCache.bytes()).isZero();
+    }
+}
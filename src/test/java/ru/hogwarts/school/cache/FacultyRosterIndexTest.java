@@ -0,0 +1,165 @@
+package ru.hogwarts.school.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.hogwarts.school.cache.invalidation.Invalidation;
+import ru.hogwarts.school.cache.invalidation.RemoteInvalidationEvent;
+import ru.hogwarts.school.dto.StudentPatch;
+import ru.hogwarts.school.event.StudentChangedEvent;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class FacultyRosterIndexTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    private FacultyRosterIndex facultyRosterIndex;
+
+    private Faculty gryffindor;
+    private Faculty slytherin;
+
+    @BeforeEach
+    void setUp() {
+        gryffindor = entityManager.persist(new Faculty(0, "Gryffindor", "Red"));
+        slytherin = entityManager.persist(new Faculty(0, "Slytherin", "Green"));
+        persistStudent("Harry Potter", 17, gryffindor);
+        persistStudent("Ron Weasley", 17, gryffindor);
+        persistStudent("Draco Malfoy", 17, slytherin);
+        persistStudent("Luna Lovegood", 16, null);
+        entityManager.flush();
+        entityManager.clear();
+
+        facultyRosterIndex = new FacultyRosterIndex(studentRepository);
+    }
+
+    @Test
+    void testMatchesDatabaseQuery() {
+        for (String facultyName : List.of("Gryffindor", "Slytherin", "Ravenclaw")) {
+            assertThat(facultyRosterIndex.findByFaculty(facultyName))
+                    .containsExactlyInAnyOrderElementsOf(studentRepository.findStudentsByFaculty_Name(facultyName));
+        }
+    }
+
+    @Test
+    void testMatchesDatabaseQueryAfterFacultyChange() {
+        // Arrange
+        facultyRosterIndex.findByFaculty("Gryffindor");
+        Student ron = studentRepository.findStudentsByFaculty_Name("Gryffindor").stream()
+                .filter(student -> student.getName().equals("Ron Weasley"))
+                .findFirst()
+                .orElseThrow();
+        ron.setFaculty(slytherin);
+        ron.setAge(18);
+
+        // Act
+        Student saved = studentRepository.saveAndFlush(ron);
+        facultyRosterIndex.onStudentChanged(StudentChangedEvent.saved(saved));
+
+        // Assert
+        assertThat(facultyRosterIndex.findByFaculty("Gryffindor"))
+                .containsExactlyInAnyOrderElementsOf(studentRepository.findStudentsByFaculty_Name("Gryffindor"));
+        assertThat(facultyRosterIndex.findByFaculty("Slytherin"))
+                .containsExactlyInAnyOrderElementsOf(studentRepository.findStudentsByFaculty_Name("Slytherin"))
+                .hasSize(2);
+    }
+
+    @Test
+    void testMatchesDatabaseQueryAfterDelete() {
+        // Arrange
+        facultyRosterIndex.findByFaculty("Slytherin");
+        Student draco = studentRepository.findStudentsByFaculty_Name("Slytherin").iterator().next();
+
+        // Act
+        studentRepository.deleteById(draco.getId());
+        studentRepository.flush();
+        facultyRosterIndex.onStudentChanged(StudentChangedEvent.deleted(draco.getId()));
+
+        // Assert
+        assertThat(facultyRosterIndex.findByFaculty("Slytherin")).isEmpty();
+        assertThat(studentRepository.findStudentsByFaculty_Name("Slytherin")).isEmpty();
+    }
+
+    @Test
+    void testIgnoresChangesOlderThanTheAppliedVersion() {
+        // Arrange
+        facultyRosterIndex.findByFaculty("Gryffindor");
+        Student ron = studentRepository.findStudentsByFaculty_Name("Gryffindor").stream()
+                .filter(student -> student.getName().equals("Ron Weasley"))
+                .findFirst()
+                .orElseThrow();
+        Student stale = new Student(ron.getId(), "Ron Weasley", 20);
+        stale.setFaculty(gryffindor);
+        stale.setVersion(ron.getVersion());
+        ron.setAge(18);
+        Student saved = studentRepository.saveAndFlush(ron);
+        Student draco = studentRepository.findStudentsByFaculty_Name("Slytherin").iterator().next();
+
+        // Act: the second save and the patch committed first, their events arrive last
+        facultyRosterIndex.onStudentChanged(StudentChangedEvent.saved(saved));
+        facultyRosterIndex.onStudentChanged(StudentChangedEvent.saved(stale));
+        facultyRosterIndex.onStudentChanged(StudentChangedEvent.patched(ron.getId(), new StudentPatch(null, 21),
+                saved.getVersion()));
+        facultyRosterIndex.onStudentChanged(StudentChangedEvent.deleted(draco.getId()));
+        facultyRosterIndex.onStudentChanged(StudentChangedEvent.saved(draco));
+
+        // Assert
+        assertThat(facultyRosterIndex.findByFaculty("Gryffindor"))
+                .filteredOn(student -> student.getId() == ron.getId())
+                .extracting(Student::getAge)
+                .containsExactly(18);
+        assertThat(facultyRosterIndex.findByFaculty("Slytherin")).isEmpty();
+    }
+
+    @Test
+    void testAppliesRemoteStudentInvalidationsInPlace() {
+        // Arrange
+        facultyRosterIndex.findByFaculty("Gryffindor");
+        Student ron = studentRepository.findStudentsByFaculty_Name("Gryffindor").stream()
+                .filter(student -> student.getName().equals("Ron Weasley"))
+                .findFirst()
+                .orElseThrow();
+        Student draco = studentRepository.findStudentsByFaculty_Name("Slytherin").iterator().next();
+        ron.setFaculty(slytherin);
+        studentRepository.saveAndFlush(ron);
+        studentRepository.deleteById(draco.getId());
+        persistStudent("Neville Longbottom", 17, gryffindor);
+        studentRepository.flush();
+
+        // Act
+        facultyRosterIndex.onRemoteInvalidation(RemoteInvalidationEvent.of(List.of(
+                new Invalidation(Invalidation.STUDENT, ron.getId()),
+                new Invalidation(Invalidation.STUDENT, draco.getId()))));
+
+        // Assert: Neville was not invalidated, so seeing him would mean a full reload
+        assertThat(facultyRosterIndex.findByFaculty("Gryffindor"))
+                .extracting(Student::getName)
+                .containsExactly("Harry Potter");
+        assertThat(facultyRosterIndex.findByFaculty("Slytherin"))
+                .extracting(Student::getName)
+                .containsExactly("Ron Weasley");
+    }
+
+    private void persistStudent(String name, int age, Faculty faculty) {
+        Student student = new Student();
+        student.setName(name);
+        student.setAge(age);
+        student.setFaculty(faculty);
+        entityManager.persist(student);
+    }
+}
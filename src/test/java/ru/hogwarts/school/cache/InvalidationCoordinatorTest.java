@@ -0,0 +1,77 @@
+package ru.hogwarts.school.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.hogwarts.school.cache.invalidation.InMemoryInvalidationBus;
+import ru.hogwarts.school.cache.invalidation.Invalidation;
+import ru.hogwarts.school.cache.invalidation.InvalidationCoordinator;
+import ru.hogwarts.school.cache.invalidation.RemoteInvalidationEvent;
+import ru.hogwarts.school.event.AvatarChangedEvent;
+import ru.hogwarts.school.event.StudentChangedEvent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class InvalidationCoordinatorTest {
+
+    private ApplicationEventPublisher firstNodeEvents;
+    private ApplicationEventPublisher secondNodeEvents;
+    private InvalidationCoordinator firstNode;
+    private InvalidationCoordinator secondNode;
+
+    @BeforeEach
+    void setUp() {
+        InMemoryInvalidationBus invalidationBus = new InMemoryInvalidationBus();
+        firstNodeEvents = mock(ApplicationEventPublisher.class);
+        secondNodeEvents = mock(ApplicationEventPublisher.class);
+        firstNode = new InvalidationCoordinator(invalidationBus, firstNodeEvents);
+        secondNode = new InvalidationCoordinator(invalidationBus, secondNodeEvents);
+    }
+
+    @Test
+    void testBatchReachesOtherNodesOnly() {
+        // Arrange
+        firstNode.onStudentChanged(StudentChangedEvent.deleted(7L));
+        firstNode.onStudentChanged(StudentChangedEvent.deleted(7L));
+        firstNode.onAvatarChanged(new AvatarChangedEvent(7L));
+
+        // Act
+        firstNode.flush();
+
+        // Assert
+        ArgumentCaptor<RemoteInvalidationEvent> captor = ArgumentCaptor.forClass(RemoteInvalidationEvent.class);
+        verify(secondNodeEvents).publishEvent(captor.capture());
+        assertThat(captor.getValue().invalidations()).containsExactly(
+                new Invalidation(Invalidation.STUDENT, 7L),
+                new Invalidation(Invalidation.AVATAR, 7L));
+        verify(firstNodeEvents, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void testEmptyFlushSendsNothing() {
+        // Act
+        secondNode.flush();
+
+        // Assert
+        verifyNoInteractions(firstNodeEvents, secondNodeEvents);
+    }
+
+    @Test
+    void testReconnectFlushesEverything() {
+        // Act
+        firstNode.onReconnect();
+
+        // Assert
+        verify(firstNodeEvents).publishEvent(RemoteInvalidationEvent.flush());
+    }
+
+    @Test
+    void testParsesWireFormat() {
+        assertThat(Invalidation.parse("avatar:5")).isEqualTo(new Invalidation(Invalidation.AVATAR, 5L));
+        assertThat(Invalidation.parse("faculty:*")).isEqualTo(new Invalidation(Invalidation.FACULTY, null));
+        assertThat(new Invalidation(Invalidation.FACULTY, null).toString()).isEqualTo("faculty:*");
+    }
+}
@@ -0,0 +1,217 @@
+package ru.hogwarts.school.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.hogwarts.school.dto.StudentActivity;
+import ru.hogwarts.school.dto.StudentActivityPage;
+import ru.hogwarts.school.dto.StudentPatch;
+import ru.hogwarts.school.event.StudentChangedEvent;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class RecentActivityFeedTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    private RecentActivityFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        feed = new RecentActivityFeed(studentRepository, 1000);
+    }
+
+    @Test
+    void testSeedsNewestStudentsAndAppendsChanges() {
+        // Arrange
+        Faculty gryffindor = entityManager.persist(new Faculty(0, "Gryffindor", "Red"));
+        Student harry = persistStudent("Harry Potter", gryffindor);
+        Student ron = persistStudent("Ron Weasley", gryffindor);
+        Student luna = persistStudent("Luna Lovegood", null);
+        entityManager.flush();
+
+        // Act
+        feed.seed();
+        feed.onStudentChanged(StudentChangedEvent.patched(ron.getId(), new StudentPatch(null, 18), ron.getVersion() + 1));
+        feed.onStudentChanged(StudentChangedEvent.deleted(luna.getId()));
+
+        // Assert
+        assertThat(feed.latest(10))
+                .extracting(StudentActivity::seq, StudentActivity::type, StudentActivity::studentId,
+                        StudentActivity::name, StudentActivity::age, StudentActivity::facultyId)
+                .containsExactly(
+                        tuple(5L, "DELETED", luna.getId(), null, null, null),
+                        tuple(4L, "PATCHED", ron.getId(), null, 18, null),
+                        tuple(3L, "SAVED", luna.getId(), "Luna Lovegood", 17, null),
+                        tuple(2L, "SAVED", ron.getId(), "Ron Weasley", 17, gryffindor.getId()),
+                        tuple(1L, "SAVED", harry.getId(), "Harry Potter", 17, gryffindor.getId()));
+        assertThat(feed.latest(2)).extracting(StudentActivity::seq).containsExactly(5L, 4L);
+        StudentActivityPage page = feed.since(feed.epoch(), 3, 10);
+        assertThat(page.items()).extracting(StudentActivity::seq).containsExactly(4L, 5L);
+        assertThat(page.cursor()).isEqualTo(5);
+        assertThat(page.truncated()).isFalse();
+    }
+
+    @Test
+    void testSinceReportsOverwrittenAndRestartedCursors() {
+        // Arrange
+        for (long id = 1; id <= 1500; id++) {
+            feed.onStudentChanged(StudentChangedEvent.deleted(id));
+        }
+
+        // Act
+        StudentActivityPage fromStart = feed.since(null, 0, 1000);
+        StudentActivityPage overwritten = feed.since(feed.epoch(), 100, 10);
+        StudentActivityPage current = feed.since(feed.epoch(), 1500, 10);
+        StudentActivityPage restarted = feed.since(feed.epoch(), 9000, 10);
+
+        // Assert
+        assertThat(fromStart.items()).hasSize(1000);
+        assertThat(fromStart.items().get(0).seq()).isEqualTo(1500 - 1024 + 1);
+        assertThat(fromStart.truncated()).isFalse();
+        assertThat(overwritten.items().get(0).seq()).isEqualTo(477);
+        assertThat(overwritten.cursor()).isEqualTo(486);
+        assertThat(overwritten.truncated()).isTrue();
+        assertThat(current.items()).isEmpty();
+        assertThat(current.cursor()).isEqualTo(1500);
+        assertThat(current.truncated()).isFalse();
+        assertThat(restarted.items()).extracting(StudentActivity::seq).startsWith(477L);
+        assertThat(restarted.truncated()).isTrue();
+        assertThat(feed.latest(1000)).extracting(StudentActivity::seq)
+                .containsExactlyElementsOf(LongStream.rangeClosed(501, 1500).map(seq -> 2001 - seq).boxed().toList());
+    }
+
+    @Test
+    void testSinceRestartsCursorsFromAnotherEpoch() {
+        // Arrange
+        Faculty gryffindor = entityManager.persist(new Faculty(0, "Gryffindor", "Red"));
+        for (int i = 0; i < 5; i++) {
+            persistStudent("Student " + i, gryffindor);
+        }
+        entityManager.flush();
+        RecentActivityFeed before = new RecentActivityFeed(studentRepository, 1000);
+        before.seed();
+        for (long id = 1; id <= 3; id++) {
+            before.onStudentChanged(StudentChangedEvent.deleted(id));
+        }
+        StudentActivityPage lastSeen = before.since(null, 0, 1000);
+
+        // Act
+        feed.seed();
+        feed.onStudentChanged(StudentChangedEvent.deleted(1L));
+        StudentActivityPage afterRestart = feed.since(lastSeen.epoch(), 3, 10);
+        StudentActivityPage withoutEpoch = feed.since(null, 3, 10);
+        StudentActivityPage sameEpoch = feed.since(afterRestart.epoch(), 3, 10);
+
+        // Assert
+        assertThat(lastSeen.cursor()).isEqualTo(8);
+        assertThat(afterRestart.epoch()).isEqualTo(feed.epoch()).isNotEqualTo(lastSeen.epoch());
+        assertThat(afterRestart.items()).extracting(StudentActivity::seq).containsExactly(1L, 2L, 3L, 4L, 5L, 6L);
+        assertThat(afterRestart.cursor()).isEqualTo(6);
+        assertThat(afterRestart.truncated()).isTrue();
+        assertThat(withoutEpoch.items()).extracting(StudentActivity::seq).startsWith(1L);
+        assertThat(withoutEpoch.truncated()).isTrue();
+        assertThat(sameEpoch.items()).extracting(StudentActivity::seq).containsExactly(4L, 5L, 6L);
+        assertThat(sameEpoch.truncated()).isFalse();
+    }
+
+    @Test
+    void testLateWriterDoesNotOverwriteLaterLap() {
+        // Arrange: a full lap past seq 1, then the writer that claimed seq 1 finally fills its slot
+        for (long id = 1; id <= 1025; id++) {
+            feed.onStudentChanged(StudentChangedEvent.deleted(id));
+        }
+        AtomicLong next = (AtomicLong) ReflectionTestUtils.getField(feed, "next");
+        next.set(1);
+
+        // Act
+        feed.onStudentChanged(StudentChangedEvent.deleted(1L));
+        next.set(1026);
+        StudentActivityPage page = feed.since(feed.epoch(), 1024, 10);
+
+        // Assert
+        assertThat(page.items()).extracting(StudentActivity::seq).containsExactly(1025L);
+        assertThat(feed.latest(1)).extracting(StudentActivity::seq).containsExactly(1025L);
+    }
+
+    @Test
+    void testPollingReaderSeesEveryEntryInOrderWhileWritersRace() throws InterruptedException {
+        // Arrange
+        int writers = 4;
+        int perWriter = 20_000;
+        AtomicBoolean done = new AtomicBoolean();
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < perWriter; i++) {
+                    feed.onStudentChanged(StudentChangedEvent.deleted(i));
+                }
+            }));
+        }
+        List<String> violations = new ArrayList<>();
+
+        // Act
+        threads.forEach(Thread::start);
+        Thread reader = new Thread(() -> {
+            long cursor = 0;
+            while (true) {
+                boolean finished = done.get();
+                StudentActivityPage page = feed.since(feed.epoch(), cursor, 1000);
+                long expected = cursor == 0 && !page.items().isEmpty() ? page.items().get(0).seq() : cursor + 1;
+                for (StudentActivity activity : page.items()) {
+                    if (!page.truncated() && activity.seq() != expected) {
+                        violations.add("expected " + expected + " got " + activity.seq());
+                    }
+                    expected = activity.seq() + 1;
+                }
+                cursor = page.cursor();
+                if (finished && page.items().isEmpty()) {
+                    break;
+                }
+            }
+            if (cursor != (long) writers * perWriter) {
+                violations.add("stopped at " + cursor);
+            }
+        });
+        reader.start();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        done.set(true);
+        reader.join();
+
+        // Assert
+        assertThat(violations).isEmpty();
+        assertThat(feed.latest(1000)).extracting(StudentActivity::seq).containsExactlyElementsOf(
+                LongStream.range(0, 1000).map(i -> (long) writers * perWriter - i).boxed().toList());
+    }
+
+    private Student persistStudent(String name, Faculty faculty) {
+        Student student = new Student();
+        student.setName(name);
+        student.setAge(17);
+        student.setFaculty(faculty);
+        return entityManager.persist(student);
+    }
+}
@@ -0,0 +1,73 @@
+package ru.hogwarts.school.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.hogwarts.school.event.StudentChangedEvent;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StudentAgeIndexTest {
+
+    private StudentRepository studentRepository;
+    private StudentAgeIndex studentAgeIndex;
+
+    @BeforeEach
+    void setUp() {
+        studentRepository = mock(StudentRepository.class);
+        when(studentRepository.findAll()).thenReturn(List.of(
+                new Student(1L, "Harry Potter", 17),
+                new Student(2L, "Hermione Granger", 18),
+                new Student(3L, "Ginny Weasley", 16),
+                new Student(4L, "Nicholas Flamel", 2_000_000_000)));
+        studentAgeIndex = new StudentAgeIndex(studentRepository, true, 150);
+    }
+
+    @Test
+    void testFindByAgeRange() {
+        assertThat(studentAgeIndex.findByAge(17, 20))
+                .extracting(Student::getName)
+                .containsExactly("Harry Potter", "Hermione Granger");
+        assertThat(studentAgeIndex.findByAge(30, 40)).isEmpty();
+    }
+
+    @Test
+    void testMovesStudentBetweenBuckets() {
+        // Arrange
+        studentAgeIndex.findByAge(0, 100);
+
+        // Act
+        studentAgeIndex.onStudentChanged(StudentChangedEvent.saved(new Student(3L, "Ginny Weasley", 40)));
+        studentAgeIndex.onStudentChanged(StudentChangedEvent.deleted(1L));
+
+        // Assert
+        assertThat(studentAgeIndex.findByAge(16, 17)).isEmpty();
+        assertThat(studentAgeIndex.findByAge(18, 50))
+                .extracting(Student::getId)
+                .containsExactly(2L, 3L);
+    }
+
+    @Test
+    void testReadsAgesAboveIndexedRangeFromDatabase() {
+        // Arrange
+        Student flamel = new Student(4L, "Nicholas Flamel", 2_000_000_000);
+        Student ancient = new Student(5L, "Ancient", Integer.MAX_VALUE);
+        when(studentRepository.findByAgeBetween(151, Integer.MAX_VALUE)).thenReturn(List.of(flamel, ancient));
+        studentAgeIndex.findByAge(0, 100);
+
+        // Act
+        studentAgeIndex.onStudentChanged(StudentChangedEvent.saved(ancient));
+        studentAgeIndex.onStudentChanged(StudentChangedEvent.saved(new Student(2L, "Hermione Granger", Integer.MAX_VALUE)));
+
+        // Assert
+        assertThat(studentAgeIndex.findByAge(0, 150)).extracting(Student::getId).containsExactly(3L, 1L);
+        assertThat(studentAgeIndex.findByAge(17, Integer.MAX_VALUE))
+                .extracting(Student::getId)
+                .containsExactly(1L, 4L, 5L);
+    }
+}
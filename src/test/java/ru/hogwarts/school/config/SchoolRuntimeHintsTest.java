@@ -0,0 +1,46 @@
+package ru.hogwarts.school.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SchoolRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @BeforeEach
+    void setUp() {
+        new SchoolRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void testRegistersEntities() {
+        for (Class<?> entity : new Class<?>[]{Student.class, Faculty.class, Avatar.class}) {
+            assertThat(RuntimeHintsPredicates.reflection().onType(entity)
+                    .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)).accepts(hints);
+        }
+    }
+
+    @Test
+    void testRegistersDrivers() {
+        assertThat(RuntimeHintsPredicates.reflection().onType(org.postgresql.Driver.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(org.h2.Driver.class)).accepts(hints);
+    }
+
+    @Test
+    void testRegistersLiquibaseResourcesAndServices() {
+        assertThat(RuntimeHintsPredicates.resource().forResource("liquibase/changelog-master.yml")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("liquibase/scripts/index-practice.sql")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("META-INF/services/liquibase.database.Database"))
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(liquibase.database.core.PostgresDatabase.class))
+                .accepts(hints);
+    }
+}
@@ -8,9 +8,13 @@ import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
+import ru.hogwarts.school.dto.FacultyRoster;
 import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
 import ru.hogwarts.school.service.FacultyService;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
@@ -247,4 +251,52 @@ class FacultyControllerTest {
         // Assert
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetStudents_BoundsLimit() {
+        // Arrange
+        when(facultyService.findStudents(1L, 10L, 1000)).thenReturn(List.of(new Student(11L, "Harry Potter", 17)));
+
+        // Act
+        ResponseEntity<List<Student>> response = restTemplate.exchange(
+                getBaseUrl() + "/1/students?after=10&limit=5000", HttpMethod.GET, null,
+                new ParameterizedTypeReference<>() {
+                });
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).extracting(Student::getName).containsExactly("Harry Potter");
+    }
+
+    @Test
+    void testGetStudents_NotFound() {
+        // Arrange
+        when(facultyService.findStudents(999L, 0L, 100)).thenReturn(null);
+
+        // Act
+        ResponseEntity<String> response = restTemplate.getForEntity(getBaseUrl() + "/999/students", String.class);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void testGetRosters_Success() {
+        // Arrange
+        when(facultyService.findRosters(List.of(1L, 2L), 500)).thenReturn(List.of(
+                new FacultyRoster(1L, "Gryffindor", List.of(new Student(11L, "Harry Potter", 17)), 11L),
+                new FacultyRoster(2L, "Slytherin", List.of(), null)));
+
+        // Act
+        ResponseEntity<List<FacultyRoster>> response = restTemplate.exchange(
+                getBaseUrl() + "/students?ids=1,2&limit=5000", HttpMethod.GET, null,
+                new ParameterizedTypeReference<>() {
+                });
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).extracting(FacultyRoster::facultyName).containsExactly("Gryffindor", "Slytherin");
+        assertThat(response.getBody().get(0).students()).hasSize(1);
+        assertThat(response.getBody().get(0).next()).isEqualTo(11L);
+    }
+}
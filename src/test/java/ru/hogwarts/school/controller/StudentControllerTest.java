@@ -1,5 +1,6 @@
 package ru.hogwarts.school.controller;
 
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -7,23 +8,36 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.*;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.web.multipart.MultipartFile;
+import ru.hogwarts.school.dto.AvatarImportReport;
+import ru.hogwarts.school.dto.StudentActivityPage;
+import ru.hogwarts.school.dto.StudentPatch;
 import ru.hogwarts.school.model.Avatar;
 import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.service.AvatarExportService;
+import ru.hogwarts.school.service.AvatarImportService;
+import ru.hogwarts.school.service.AvatarScanService;
 import ru.hogwarts.school.service.AvatarService;
 import ru.hogwarts.school.service.StudentService;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -41,6 +55,15 @@ class StudentControllerTest {
     @MockBean
     private AvatarService avatarService;
 
+    @MockBean
+    private AvatarImportService avatarImportService;
+
+    @MockBean
+    private AvatarExportService avatarExportService;
+
+    @MockBean
+    private AvatarScanService avatarScanService;
+
     private String getBaseUrl() {
         return "http://localhost:" + port + "/student";
     }
@@ -168,6 +191,110 @@ class StudentControllerTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
     }
 
+    @Test
+    void testEditStudent_PreconditionFailed() {
+        // Arrange
+        Student student = new Student();
+        student.setId(1L);
+        student.setName("Ron Weasley");
+        student.setAge(17);
+
+        when(studentService.editStudent(any(Student.class), eq(3L)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Student.class, 1L));
+
+        // Act
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setIfMatch("\"3\"");
+        HttpEntity<Student> requestEntity = new HttpEntity<>(student, headers);
+
+        ResponseEntity<Student> response = restTemplate.exchange(
+                getBaseUrl(),
+                HttpMethod.PUT,
+                requestEntity,
+                Student.class);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    void testEditStudent_WeakETagNeverMatches() {
+        // Arrange
+        Student student = new Student();
+        student.setId(1L);
+        student.setName("Ron Weasley");
+        student.setAge(17);
+
+        when(studentService.editStudent(any(Student.class), eq(-1L)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Student.class, 1L));
+
+        // Act
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setIfMatch("W/\"3\"");
+        HttpEntity<Student> requestEntity = new HttpEntity<>(student, headers);
+
+        ResponseEntity<Student> response = restTemplate.exchange(
+                getBaseUrl(),
+                HttpMethod.PUT,
+                requestEntity,
+                Student.class);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    void testEditStudent_ConditionalNotFound() {
+        // Arrange
+        Student student = new Student();
+        student.setId(1L);
+        student.setName("Ron Weasley");
+        student.setAge(17);
+
+        when(studentService.editStudent(any(Student.class), eq(3L))).thenReturn(null);
+
+        // Act
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setIfMatch("\"3\"");
+        HttpEntity<Student> requestEntity = new HttpEntity<>(student, headers);
+
+        ResponseEntity<Student> response = restTemplate.exchange(
+                getBaseUrl(),
+                HttpMethod.PUT,
+                requestEntity,
+                Student.class);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void testPatchStudent_Success() {
+        // Arrange
+        StudentPatch patch = new StudentPatch(null, 18);
+
+        when(studentService.patchStudent(1L, patch, 3L)).thenReturn(true);
+
+        // Act
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setIfMatch("\"3\"");
+
+        ResponseEntity<Void> response = restTemplate.exchange(
+                getBaseUrl() + "/{id}",
+                HttpMethod.PATCH,
+                new HttpEntity<>(patch, headers),
+                Void.class,
+                1L);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"4\"");
+    }
+
     @Test
     void testDeleteStudent_Success() {
         // Act
@@ -258,6 +385,33 @@ class StudentControllerTest {
         assertThat(response.getBody()).isEmpty();
     }
 
+    @Test
+    void testGetAllStudents_Cbor() throws IOException {
+        // Arrange
+        Student student = new Student();
+        student.setId(1L);
+        student.setName("Harry Potter");
+        student.setAge(17);
+
+        when(studentService.findAllStudents()).thenReturn(List.of(student));
+
+        // Act
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.APPLICATION_CBOR));
+        ResponseEntity<byte[]> response = restTemplate.exchange(
+                getBaseUrl() + "/all",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                byte[].class);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR);
+        Student[] students = new CBORMapper().readValue(response.getBody(), Student[].class);
+        assertThat(students).hasSize(1);
+        assertThat(students[0].getName()).isEqualTo("Harry Potter");
+    }
+
     @Test
     void testDownloadAvatarPreview_Success() {
         // Arrange
@@ -356,4 +510,172 @@ class StudentControllerTest {
         // Будет ошибка 400, так как id должен быть числом
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testPutAvatar_StreamsBody() throws IOException {
+        // Arrange
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.IMAGE_PNG);
+
+        // Act
+        ResponseEntity<Void> response = restTemplate.exchange(getBaseUrl() + "/1/avatar", HttpMethod.PUT,
+                new HttpEntity<>(new byte[1024], headers), Void.class);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        verify(studentService).uploadAvatar(eq(1L), any(InputStream.class), eq("image/png"), eq("png"));
+    }
+
+    @Test
+    void testPutAvatar_MapsMediaTypeToExtension() throws IOException {
+        // Arrange
+        HttpHeaders jpeg = new HttpHeaders();
+        jpeg.setContentType(MediaType.IMAGE_JPEG);
+        HttpHeaders svg = new HttpHeaders();
+        svg.setContentType(MediaType.parseMediaType("image/svg+xml"));
+
+        // Act
+        ResponseEntity<Void> accepted = restTemplate.exchange(getBaseUrl() + "/1/avatar", HttpMethod.PUT,
+                new HttpEntity<>(new byte[16], jpeg), Void.class);
+        ResponseEntity<Void> rejected = restTemplate.exchange(getBaseUrl() + "/2/avatar", HttpMethod.PUT,
+                new HttpEntity<>(new byte[16], svg), Void.class);
+
+        // Assert
+        assertThat(accepted.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(rejected.getStatusCode()).isEqualTo(HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+        verify(studentService).uploadAvatar(eq(1L), any(InputStream.class), eq("image/jpeg"), eq("jpg"));
+        verify(studentService, never()).uploadAvatar(eq(2L), any(InputStream.class), any(), any());
+    }
+
+    @Test
+    void testPutAvatar_RejectsOversizeContentLength() throws IOException {
+        // Arrange
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.IMAGE_PNG);
+
+        // Act
+        ResponseEntity<String> response = restTemplate.exchange(getBaseUrl() + "/1/avatar", HttpMethod.PUT,
+                new HttpEntity<>(new byte[400 * 1024], headers), String.class);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+        verify(studentService, never()).uploadAvatar(anyLong(), any(InputStream.class), any(), any());
+    }
+
+    @Test
+    void testUploadAvatar_RejectsOversizeFile() throws IOException {
+        // Arrange
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("avatar", new ByteArrayResource(new byte[400 * 1024]) {
+            @Override
+            public String getFilename() {
+                return "big.png";
+            }
+        });
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+
+        // Act
+        ResponseEntity<String> response = restTemplate.postForEntity(getBaseUrl() + "/1/avatar",
+                new HttpEntity<>(body, headers), String.class);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+        verify(studentService, never()).uploadAvatar(anyLong(), any(MultipartFile.class));
+    }
+
+    @Test
+    void testImportAvatars_ReturnsReport() throws IOException {
+        // Arrange
+        when(avatarImportService.importZip(any(InputStream.class))).thenReturn(new AvatarImportReport(1, 1, List.of(
+                new AvatarImportReport.Entry("1.png", 1L, AvatarImportReport.Status.SAVED, null),
+                new AvatarImportReport.Entry("x.png", null, AvatarImportReport.Status.BAD_NAME, "Expected <studentId>.<ext>"))));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+
+        // Act
+        ResponseEntity<AvatarImportReport> response = restTemplate.postForEntity(getBaseUrl() + "/avatars",
+                new HttpEntity<>(new byte[16], headers), AvatarImportReport.class);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().saved()).isEqualTo(1);
+        assertThat(response.getBody().entries()).extracting(AvatarImportReport.Entry::status)
+                .containsExactly(AvatarImportReport.Status.SAVED, AvatarImportReport.Status.BAD_NAME);
+    }
+
+    @Test
+    void testExportAvatars_PassesFilters() throws IOException {
+        // Act
+        ResponseEntity<byte[]> response = restTemplate.getForEntity(
+                getBaseUrl() + "/avatars?facultyId=3&sinceId=10&since=2024-05-01T10:00:00Z", byte[].class);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.parseMediaType("application/zip"));
+        assertThat(response.getHeaders().getContentDisposition().getFilename()).isEqualTo("avatars.zip");
+        verify(avatarExportService).export(eq(3L), eq(10L), eq(Instant.parse("2024-05-01T10:00:00Z")), any());
+    }
+
+    @Test
+    void testDeleteStudents_ReturnsDeletedIds() {
+        // Arrange
+        when(studentService.deleteStudents(List.of(1L, 2L, 3L))).thenReturn(List.of(1L, 3L));
+
+        // Act
+        ResponseEntity<List<Long>> response = restTemplate.exchange(getBaseUrl(), HttpMethod.DELETE,
+                new HttpEntity<>(List.of(1L, 2L, 3L)), new ParameterizedTypeReference<>() {
+                });
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void testDeleteStudents_RejectsEmptyList() {
+        // Act
+        ResponseEntity<Void> response = restTemplate.exchange(getBaseUrl(), HttpMethod.DELETE,
+                new HttpEntity<>(List.of()), Void.class);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verify(studentService, never()).deleteStudents(any());
+    }
+
+    @Test
+    void testStartAvatarScan_ConflictsWhileRunning() {
+        // Arrange
+        when(avatarScanService.start(true)).thenReturn(true, false);
+
+        // Act
+        ResponseEntity<Void> first = restTemplate.postForEntity(getBaseUrl() + "/avatars/scan?repair=true", null, Void.class);
+        ResponseEntity<Void> second = restTemplate.postForEntity(getBaseUrl() + "/avatars/scan?repair=true", null, Void.class);
+
+        // Assert
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void testFilterStudents_NotFoundWhenSnapshotDisabled() {
+        // Act
+        ResponseEntity<String> response = restTemplate.getForEntity(getBaseUrl() + "/filter?minAge=11", String.class);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void testRecentActivity_LimitsPageSize() {
+        // Act
+        ResponseEntity<String> tooMany = restTemplate.getForEntity(getBaseUrl() + "/activity?limit=1001", String.class);
+        ResponseEntity<StudentActivityPage> since = restTemplate.getForEntity(
+                getBaseUrl() + "/activity/since?cursor=0&limit=1000", StudentActivityPage.class);
+
+        // Assert
+        assertThat(tooMany.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(since.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(since.getBody().truncated()).isFalse();
+    }
+}
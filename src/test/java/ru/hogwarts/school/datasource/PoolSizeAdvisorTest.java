@@ -0,0 +1,43 @@
+package ru.hogwarts.school.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PoolSizeAdvisorTest {
+
+    @Test
+    void testSuggestsCoresFormulaWithoutTargetRate() {
+        assertThat(PoolSizeAdvisor.suggestPoolSize(4, 0, 4, 500_000)).isEqualTo(9);
+    }
+
+    @Test
+    void testSuggestsMoreConnectionsForSlowRoundTrips() {
+        // 2000 req/s * 4 round trips * 2 ms = 16 connections busy
+        assertThat(PoolSizeAdvisor.suggestPoolSize(4, 2000, 4, 2_000_000)).isEqualTo(16);
+    }
+
+    @Test
+    void testIgnoresCoresBoundWhenDatabaseCoresUnknown() {
+        // 200 req/s * 4 round trips * 2 ms = 2 connections busy; no cores * 2 + 1 floor
+        assertThat(PoolSizeAdvisor.suggestPoolSize(0, 200, 4, 2_000_000)).isEqualTo(2);
+        assertThat(PoolSizeAdvisor.suggestPoolSize(0, 0, 4, 2_000_000)).isZero();
+    }
+
+    @Test
+    void testMeasuresRoundTrips() throws SQLException {
+        // Arrange
+        PoolSizeAdvisor advisor = new PoolSizeAdvisor(
+                new DriverManagerDataSource("jdbc:h2:mem:advisor", "sa", ""), 0, 0, 4);
+
+        // Act
+        long[] roundTrips = advisor.measureRoundTrips();
+
+        // Assert
+        assertThat(roundTrips).hasSize(50).isSorted();
+        assertThat(roundTrips[0]).isPositive();
+    }
+}
@@ -0,0 +1,60 @@
+package ru.hogwarts.school.datasource;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadYourWritesFilterTest {
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(10));
+
+    @Test
+    void testWritingRequestGetsCookie() throws Exception {
+        // Arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest(), response, (req, res) -> ReadYourWrites.markWrite());
+
+        // Assert
+        Cookie cookie = response.getCookie(ReadYourWritesFilter.COOKIE);
+        assertThat(cookie).isNotNull();
+        assertThat(cookie.getMaxAge()).isEqualTo(10);
+        assertThat(ReadYourWrites.hasWritten()).isFalse();
+    }
+
+    @Test
+    void testRecentWriteKeepsNextRequestOnPrimary() throws Exception {
+        assertThat(pinnedToPrimary(String.valueOf(System.currentTimeMillis() - 1000))).isTrue();
+        assertThat(pinnedToPrimary(String.valueOf(System.currentTimeMillis() - 60_000))).isFalse();
+        assertThat(pinnedToPrimary("garbage")).isFalse();
+    }
+
+    @Test
+    void testReadOnlyRequestGetsNoCookie() throws Exception {
+        // Arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicBoolean pinned = new AtomicBoolean(true);
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest(), response, (req, res) -> pinned.set(ReadYourWrites.hasWritten()));
+
+        // Assert
+        assertThat(pinned).isFalse();
+        assertThat(response.getCookie(ReadYourWritesFilter.COOKIE)).isNull();
+    }
+
+    private boolean pinnedToPrimary(String cookieValue) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, cookieValue));
+        AtomicBoolean pinned = new AtomicBoolean();
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> pinned.set(ReadYourWrites.hasWritten()));
+        return pinned.get();
+    }
+}
@@ -0,0 +1,130 @@
+package ru.hogwarts.school.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingDataSourceTest {
+
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("primary");
+        DataSource replica = database("replica");
+        routingDataSource = new ReplicaRoutingDataSource(primary, List.of(replica), Duration.ofSeconds(5), "SELECT 0");
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.reset();
+    }
+
+    @Test
+    void testReadOnlyTransactionGoesToReplica() {
+        assertThat(readOnlyLocation()).isEqualTo("replica");
+    }
+
+    @Test
+    void testWriteTransactionGoesToPrimary() {
+        assertThat(readWriteLocation()).isEqualTo("primary");
+    }
+
+    @Test
+    void testReadsAfterWriteStayOnPrimary() {
+        // Arrange
+        ReadYourWrites.begin(false, () -> {
+        });
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("UPDATE marker SET touched = TRUE"));
+
+        // Act
+        String location = readOnlyLocation();
+
+        // Assert
+        assertThat(ReadYourWrites.hasWritten()).isTrue();
+        assertThat(location).isEqualTo("primary");
+    }
+
+    @Test
+    void testWritesOutsideRequestAreNotRemembered() {
+        // Arrange
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("UPDATE marker SET touched = TRUE"));
+
+        // Act
+        String location = readOnlyLocation();
+
+        // Assert
+        assertThat(ReadYourWrites.hasWritten()).isFalse();
+        assertThat(location).isEqualTo("replica");
+    }
+
+    @Test
+    void testOnPrimaryBypassesReplica() {
+        // Act
+        String location = ReadYourWrites.onPrimary(this::readOnlyLocation);
+
+        // Assert
+        assertThat(location).isEqualTo("primary");
+        assertThat(ReadYourWrites.hasWritten()).isFalse();
+    }
+
+    @Test
+    void testLaggingReplicaIsTakenOutOfRotation() {
+        // Arrange
+        routingDataSource = new ReplicaRoutingDataSource(database("primary"), List.of(database("replica")),
+                Duration.ofSeconds(5), "SELECT 60");
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnly.setReadOnly(true);
+
+        // Act
+        routingDataSource.checkReplicas();
+
+        // Assert
+        assertThat(routingDataSource.isHealthy(0)).isFalse();
+        assertThat(readOnlyLocation()).isEqualTo("primary");
+    }
+
+    private String readOnlyLocation() {
+        return readOnly.execute(status -> whereAmI());
+    }
+
+    private String readWriteLocation() {
+        return readWrite.execute(status -> whereAmI());
+    }
+
+    private String whereAmI() {
+        return jdbcTemplate.queryForObject("SELECT name FROM marker", String.class);
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS marker (name VARCHAR(16), touched BOOLEAN)");
+        jdbcTemplate.update("DELETE FROM marker");
+        jdbcTemplate.update("INSERT INTO marker VALUES (?, FALSE)", name);
+        return dataSource;
+    }
+}
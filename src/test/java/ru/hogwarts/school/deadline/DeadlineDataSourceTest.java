@@ -0,0 +1,85 @@
+package ru.hogwarts.school.deadline;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.sql.Connection;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeadlineDataSourceTest {
+
+    private final DeadlineDataSource dataSource = new DeadlineDataSource(
+            new DriverManagerDataSource("jdbc:h2:mem:deadline", "sa", ""));
+
+    @AfterEach
+    void tearDown() {
+        Deadline.clear();
+    }
+
+    @Test
+    void testStatementsGetRemainingTimeAsQueryTimeout() throws Exception {
+        // Arrange
+        Deadline.set(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(2500));
+
+        // Act
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.prepareStatement("SELECT 1")) {
+
+            // Assert
+            assertThat(statement.getQueryTimeout()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void testNoTimeoutWithoutDeadline() throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            assertThat(statement.getQueryTimeout()).isZero();
+        }
+    }
+
+    @Test
+    void testCancelsQueryRunningPastDeadline() throws Exception {
+        // Arrange
+        Deadline.set(System.nanoTime() + TimeUnit.SECONDS.toNanos(1));
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+
+            // Act & Assert
+            long start = System.nanoTime();
+            assertThatThrownBy(() -> statement.executeQuery(
+                    "SELECT SUM(A.X * B.X) FROM SYSTEM_RANGE(1, 100000) A, SYSTEM_RANGE(1, 100000) B"))
+                    .isInstanceOf(SQLTimeoutException.class);
+            assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(10));
+        }
+    }
+
+    @Test
+    void testRefusesConnectionsAfterDeadline() {
+        // Arrange
+        Deadline.set(System.nanoTime() - 1);
+
+        // Act & Assert
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTimeoutException.class);
+    }
+
+    @Test
+    void testTransferStopsAfterDeadline() {
+        // Arrange
+        Deadline.set(System.nanoTime() - 1);
+
+        // Act & Assert
+        assertThatThrownBy(() -> Deadline.transfer(new ByteArrayInputStream(new byte[64 * 1024]),
+                new ByteArrayOutputStream()))
+                .isInstanceOf(DeadlineExceededException.class);
+    }
+}
@@ -0,0 +1,115 @@
+package ru.hogwarts.school.deadline;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeadlineInterceptorTest {
+
+    private final DeadlineInterceptor interceptor = new DeadlineInterceptor(Duration.ofSeconds(10));
+
+    @AfterEach
+    void tearDown() {
+        Deadline.clear();
+    }
+
+    @Test
+    void testShorterHeaderWins() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(DeadlineInterceptor.TIMEOUT_HEADER, "200");
+
+        // Act
+        interceptor.preHandle(request, new MockHttpServletResponse(), handler("plain"));
+
+        // Assert
+        assertThat(Deadline.remainingNanos()).isBetween(0L, TimeUnit.MILLISECONDS.toNanos(200));
+    }
+
+    @Test
+    void testHeaderCannotExceedEndpointDeadline() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(DeadlineInterceptor.TIMEOUT_HEADER, "60000");
+
+        // Act
+        interceptor.preHandle(request, new MockHttpServletResponse(), handler("annotated"));
+
+        // Assert
+        assertThat(Deadline.remainingNanos()).isBetween(0L, TimeUnit.SECONDS.toNanos(2));
+    }
+
+    @Test
+    void testClearsDeadlineAfterCompletion() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        interceptor.preHandle(request, new MockHttpServletResponse(), handler("plain"));
+
+        // Act
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), handler("plain"), null);
+
+        // Assert
+        assertThat(Deadline.isSet()).isFalse();
+    }
+
+    @Test
+    void testRejectsMalformedHeader() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(DeadlineInterceptor.TIMEOUT_HEADER, "soon");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act & Assert
+        assertThat(interceptor.preHandle(request, response, handler("plain"))).isFalse();
+        assertThat(response.getStatus()).isEqualTo(400);
+    }
+
+    @Test
+    void testRejectsTimeoutsBelowOneMillisecond() throws Exception {
+        for (String header : new String[] {"0", "-5"}) {
+            // Arrange
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.addHeader(DeadlineInterceptor.TIMEOUT_HEADER, header);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            // Act & Assert
+            assertThat(interceptor.preHandle(request, response, handler("plain"))).isFalse();
+            assertThat(response.getStatus()).isEqualTo(400);
+            assertThat(Deadline.isSet()).isFalse();
+        }
+    }
+
+    @Test
+    void testHugeHeaderFallsBackToEndpointDeadline() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(DeadlineInterceptor.TIMEOUT_HEADER, String.valueOf(Long.MAX_VALUE));
+
+        // Act
+        interceptor.preHandle(request, new MockHttpServletResponse(), handler("plain"));
+
+        // Assert
+        assertThat(Deadline.remainingNanos()).isBetween(0L, TimeUnit.SECONDS.toNanos(10));
+    }
+
+    private static HandlerMethod handler(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new Endpoints(), Endpoints.class.getMethod(name));
+    }
+
+    static class Endpoints {
+
+        public void plain() {
+        }
+
+        @RequestDeadline("2s")
+        public void annotated() {
+        }
+    }
+}
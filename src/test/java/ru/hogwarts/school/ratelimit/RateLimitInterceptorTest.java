@@ -0,0 +1,196 @@
+package ru.hogwarts.school.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.method.HandlerMethod;
+import ru.hogwarts.school.config.RateLimitProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateLimitInterceptorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitInterceptor interceptor;
+    private HandlerMethod limited;
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new RateLimitInterceptor(new RateLimitProperties(true, "X-Api-Key", Set.of("10.0.0.1"), 3, Map.of(
+                "overridden", new RateLimitProperties.Endpoint(null, 1, null, null, null))), meterRegistry);
+        limited = new HandlerMethod(new Endpoints(), Endpoints.class.getMethod("limited"));
+    }
+
+    @Test
+    void testRejectsClientOverItsBucket() {
+        // Act
+        MockHttpServletResponse first = call(limited, "alice");
+        MockHttpServletResponse second = call(limited, "alice");
+        MockHttpServletResponse third = call(limited, "alice");
+        MockHttpServletResponse other = call(limited, "bob");
+
+        // Assert
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(second.getStatus()).isEqualTo(200);
+        assertThat(third.getStatus()).isEqualTo(429);
+        assertThat(third.getHeader("Retry-After")).isEqualTo("1000");
+        assertThat(other.getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.counter("ratelimit.rejected", "endpoint", "limited", "reason", "client_rate").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void testShedsRequestsOverConcurrencyLimit() throws Exception {
+        // Arrange
+        HandlerMethod single = new HandlerMethod(new Endpoints(), Endpoints.class.getMethod("single"));
+        MockHttpServletRequest inFlight = request("alice");
+        assertThat(interceptor.preHandle(inFlight, new MockHttpServletResponse(), single)).isTrue();
+
+        // Act
+        MockHttpServletResponse rejected = call(single, "bob");
+        interceptor.afterCompletion(inFlight, new MockHttpServletResponse(), single, null);
+        MockHttpServletResponse accepted = call(single, "bob");
+
+        // Assert
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(accepted.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void testPropertiesOverrideAnnotation() throws Exception {
+        // Arrange
+        HandlerMethod overridden = new HandlerMethod(new Endpoints(), Endpoints.class.getMethod("overridden"));
+
+        // Act & Assert
+        assertThat(call(overridden, "alice").getStatus()).isEqualTo(200);
+        assertThat(call(overridden, "alice").getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void testMethodsNamingOneEndpointShareItsLimiter() throws Exception {
+        // Arrange
+        HandlerMethod sibling = new HandlerMethod(new Endpoints(), Endpoints.class.getMethod("limitedSibling"));
+
+        // Act
+        MockHttpServletResponse first = call(limited, "alice");
+        MockHttpServletResponse second = call(sibling, "alice");
+        MockHttpServletResponse third = call(sibling, "alice");
+
+        // Assert
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(second.getStatus()).isEqualTo(200);
+        assertThat(third.getStatus()).isEqualTo(429);
+        assertThat(meterRegistry.find("ratelimit.concurrency.limit").gauges()).hasSize(1);
+    }
+
+    @Test
+    void testFailsStartupWhenOneEndpointIsDeclaredWithDifferentSettings() {
+        // Arrange
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(Conflicting.class)) {
+            interceptor.setApplicationContext(context);
+
+            // Act & Assert
+            assertThatThrownBy(interceptor::afterSingletonsInstantiated)
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("'limited'");
+        }
+    }
+
+    @Test
+    void testRegistersRejectionCountersWithTheLimiter() {
+        // Act
+        call(limited, "alice");
+
+        // Assert
+        assertThat(meterRegistry.find("ratelimit.rejected").tag("endpoint", "limited").counters())
+                .hasSize(EndpointLimiter.Rejection.values().length)
+                .allSatisfy(counter -> assertThat(counter.count()).isZero());
+    }
+
+    @Test
+    void testFallsBackToAddressWhenOneAddressRotatesKeys() {
+        // Act
+        List<Integer> statuses = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            statuses.add(call(limited, "key-" + i).getStatus());
+        }
+        MockHttpServletResponse knownKey = call(limited, "key-0");
+        MockHttpServletRequest proxied = request("key-9");
+        proxied.setRemoteAddr("10.0.0.1");
+        MockHttpServletResponse throughProxy = new MockHttpServletResponse();
+        interceptor.preHandle(proxied, throughProxy, limited);
+
+        // Assert: three keys of their own, then the address bucket of two
+        assertThat(statuses).containsExactly(200, 200, 200, 200, 200, 429);
+        assertThat(knownKey.getStatus()).isEqualTo(200);
+        assertThat(throughProxy.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void testIgnoresUnannotatedHandlers() throws Exception {
+        HandlerMethod free = new HandlerMethod(new Endpoints(), Endpoints.class.getMethod("free"));
+        for (int i = 0; i < 100; i++) {
+            assertThat(call(free, "alice").getStatus()).isEqualTo(200);
+        }
+    }
+
+    private MockHttpServletResponse call(HandlerMethod handler, String client) {
+        MockHttpServletRequest request = request(client);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        if (interceptor.preHandle(request, response, handler)) {
+            interceptor.afterCompletion(request, response, handler, null);
+        }
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-Api-Key", client);
+        return request;
+    }
+
+    static class Endpoints {
+
+        @RateLimited(value = "limited", clientRate = 0.001, clientBurst = 2)
+        public void limited() {
+        }
+
+        @RateLimited(value = "limited", clientRate = 0.001, clientBurst = 2)
+        public void limitedSibling() {
+        }
+
+        @RateLimited(value = "single", clientRate = 0, maxConcurrency = 1)
+        public void single() {
+        }
+
+        @RateLimited(value = "overridden", clientRate = 0.001, clientBurst = 100)
+        public void overridden() {
+        }
+
+        public void free() {
+        }
+    }
+
+    @RestController
+    static class Conflicting {
+
+        @RateLimited(value = "limited", clientRate = 0.001, clientBurst = 2)
+        public void limited() {
+        }
+
+        @RateLimited(value = "limited", clientRate = 0.001, clientBurst = 5)
+        public void limitedDifferently() {
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package ru.hogwarts.school.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void testAllowsBurstThenRefillsAtRate() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(2, 3, 0);
+
+        // Act & Assert
+        assertThat(bucket.tryAcquire(0)).isTrue();
+        assertThat(bucket.tryAcquire(0)).isTrue();
+        assertThat(bucket.tryAcquire(0)).isTrue();
+        assertThat(bucket.tryAcquire(0)).isFalse();
+        assertThat(bucket.secondsUntilAvailable(0)).isEqualTo(1);
+        assertThat(bucket.tryAcquire(SECOND / 2)).isTrue();
+        assertThat(bucket.tryAcquire(SECOND / 2)).isFalse();
+    }
+
+    @Test
+    void testIsFullAfterIdling() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(1, 2, 0);
+        bucket.tryAcquire(0);
+
+        // Act & Assert
+        assertThat(bucket.isFull(0)).isFalse();
+        assertThat(bucket.isFull(SECOND)).isTrue();
+    }
+
+    @Test
+    void testConcurrencyLimitBacksOffWhenLatencyDegrades() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 10);
+        assertThat(limit.tryAcquire()).isTrue();
+        limit.release(1_000_000);
+
+        // Act
+        for (int i = 0; i < AdaptiveConcurrencyLimit.DECISION_WINDOW; i++) {
+            limit.tryAcquire();
+            limit.release(10_000_000);
+        }
+
+        // Assert
+        assertThat(limit.getLimit()).isLessThan(10);
+        assertThat(limit.getInFlight()).isZero();
+    }
+
+    @Test
+    void testConcurrencyLimitIgnoresSingleSlowRequest() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 10);
+
+        // Act
+        for (int i = 0; i < 3 * AdaptiveConcurrencyLimit.DECISION_WINDOW; i++) {
+            limit.tryAcquire();
+            limit.release(i % AdaptiveConcurrencyLimit.DECISION_WINDOW == 5 ? 50_000_000 : 1_000_000);
+        }
+
+        // Assert
+        assertThat(limit.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void testRejectionRefundsClientToken() {
+        // Arrange
+        EndpointLimiter limiter = new EndpointLimiter("test", 1, 2, 0, 0, 1, 0);
+        assertThat(limiter.tryAcquire("a", 0)).isNull();
+
+        // Act
+        EndpointLimiter.Rejection shed = limiter.tryAcquire("a", 0);
+        limiter.release(1_000_000);
+
+        // Assert
+        assertThat(shed).isEqualTo(EndpointLimiter.Rejection.CONCURRENCY);
+        assertThat(limiter.tryAcquire("a", 0)).isNull();
+    }
+
+    @Test
+    void testConcurrencyLimitRejectsOverLimit() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 2);
+
+        // Act & Assert
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+    }
+}
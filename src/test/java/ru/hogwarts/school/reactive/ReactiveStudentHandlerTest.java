@@ -0,0 +1,159 @@
+package ru.hogwarts.school.reactive;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "school.invalidation.bus=memory",
+        "school.reactive.enabled=true",
+        "avatars.dir.path=target/avatars"
+})
+class ReactiveStudentHandlerTest {
+
+    @Autowired
+    private ReactiveReadServer reactiveReadServer;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    @Autowired
+    private AvatarRepository avatarRepository;
+
+    @TempDir
+    private Path avatarsDir;
+
+    private WebTestClient client;
+    private Student harry;
+    private Student draco;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToServer().baseUrl("http://localhost:" + reactiveReadServer.getPort()).build();
+        Faculty gryffindor = facultyRepository.save(new Faculty(0, "Gryffindor", "Red"));
+        Faculty slytherin = facultyRepository.save(new Faculty(0, "Slytherin", "Green"));
+        harry = saveStudent("Harry Potter", 17, gryffindor);
+        saveStudent("Ron Weasley", 18, gryffindor);
+        draco = saveStudent("Draco Malfoy", 16, slytherin);
+    }
+
+    @AfterEach
+    void tearDown() {
+        avatarRepository.deleteAll();
+        studentRepository.deleteAll();
+        facultyRepository.deleteAll();
+    }
+
+    @Test
+    void testGetStudent() {
+        client.get().uri("/reactive/student/{id}", harry.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Harry Potter")
+                .jsonPath("$.age").isEqualTo(17);
+
+        client.get().uri("/reactive/student/{id}", Long.MAX_VALUE)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testFindByAgeStreamsNdjson() {
+        // Act
+        var students = client.get().uri("/reactive/student?min=16&max=17")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(StudentView.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        // Assert
+        assertThat(students).extracting(StudentView::name).containsExactly("Harry Potter", "Draco Malfoy");
+    }
+
+    @Test
+    void testFindByFacultyAsJsonArray() {
+        client.get().uri("/reactive/student?facultyName=Gryffindor")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(StudentView.class)
+                .hasSize(2);
+    }
+
+    @Test
+    void testMalformedParametersAreBadRequests() {
+        client.get().uri("/reactive/student?min=young&max=17")
+                .exchange()
+                .expectStatus().isBadRequest();
+        client.get().uri("/reactive/student/harry")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testCountAndAverageAge() {
+        client.get().uri("/reactive/student/count")
+                .exchange()
+                .expectBody(Long.class).isEqualTo(3L);
+        client.get().uri("/reactive/student/avgage")
+                .exchange()
+                .expectBody(Double.class).isEqualTo(17.0);
+    }
+
+    @Test
+    void testDownloadAvatar() throws IOException {
+        // Arrange
+        byte[] bytes = new byte[40_000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        Path file = Files.write(avatarsDir.resolve("draco.png"), bytes);
+        avatarRepository.save(new Avatar(draco, null, "image/png", bytes.length, file.toString(), null));
+
+        // Act & Assert
+        client.get().uri("/reactive/student/{id}/avatar", draco.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.IMAGE_PNG)
+                .expectHeader().contentLength(bytes.length)
+                .expectBody(byte[].class).isEqualTo(bytes);
+
+        client.get().uri("/reactive/student/{id}/avatar", harry.getId())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    private Student saveStudent(String name, int age, Faculty faculty) {
+        Student student = new Student();
+        student.setName(name);
+        student.setAge(age);
+        student.setFaculty(faculty);
+        return studentRepository.save(student);
+    }
+}
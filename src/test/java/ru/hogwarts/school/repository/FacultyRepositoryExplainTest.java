@@ -0,0 +1,82 @@
+package ru.hogwarts.school.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the case-insensitive faculty lookups are planned as index scans on Postgres.
+ * Sequential scans are disabled for the transaction, so a plan without the index means the
+ * index cannot serve the predicate at all, however small the table is.
+ * Run with {@code mvn test -Dtest=FacultyRepositoryExplainTest -Dpostgres.url=jdbc:postgresql://localhost:5432/hogwarts
+ * -Dpostgres.username=... -Dpostgres.password=...} against a database migrated by Liquibase.
+ */
+@EnabledIfSystemProperty(named = "postgres.url", matches = ".+")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DataJpaTest(properties = {
+        "spring.datasource.url=${postgres.url}",
+        "spring.datasource.username=${postgres.username:postgres}",
+        "spring.datasource.password=${postgres.password:postgres}",
+        "spring.liquibase.enabled=true",
+        "spring.liquibase.change-log=classpath:liquibase/changelog-master.yml",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "ru.hogwarts.school.repository.FacultyRepositoryExplainTest$LastSelect"
+})
+class FacultyRepositoryExplainTest {
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+    }
+
+    @Test
+    void testFindByNameUsesLowerNameIndex() {
+        assertThat(plan(() -> facultyRepository.findFacultyByNameIgnoreCase("GRYFFINDOR")))
+                .contains("faculty_lower_name_index");
+    }
+
+    @Test
+    void testFindByColorUsesLowerColorIndex() {
+        assertThat(plan(() -> facultyRepository.findFacultyByColorIgnoreCase("RED")))
+                .contains("faculty_lower_color_index");
+    }
+
+    /**
+     * Runs the lookup, then EXPLAINs the SQL Hibernate generated for it with the bind parameter
+     * inlined.
+     */
+    private String plan(Supplier<?> lookup) {
+        lookup.get();
+        String sql = LastSelect.sql.replace("?", "'x'");
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+    }
+
+    public static class LastSelect implements StatementInspector {
+
+        static volatile String sql;
+
+        @Override
+        public String inspect(String statement) {
+            if (statement.stripLeading().toLowerCase().startsWith("select")) {
+                sql = statement;
+            }
+            return statement;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package ru.hogwarts.school.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.hogwarts.school.model.Faculty;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class FacultyRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    @BeforeEach
+    void setUp() {
+        entityManager.persist(new Faculty(0, "Gryffindor", "Red"));
+        entityManager.persist(new Faculty(0, "Slytherin", "Green"));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testFindByNameIgnoresCase() {
+        assertThat(facultyRepository.findFacultyByNameIgnoreCase("gRYFFINDOR").getColor()).isEqualTo("Red");
+        assertThat(facultyRepository.findFacultyByNameIgnoreCase("Ravenclaw")).isNull();
+    }
+
+    @Test
+    void testFindByColorIgnoresCase() {
+        assertThat(facultyRepository.findFacultyByColorIgnoreCase("GREEN").getName()).isEqualTo("Slytherin");
+        assertThat(facultyRepository.findFacultyByColorIgnoreCase("Blue")).isNull();
+    }
+}
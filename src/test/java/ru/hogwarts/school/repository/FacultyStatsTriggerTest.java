@@ -0,0 +1,91 @@
+package ru.hogwarts.school.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the {@code faculty_stats} triggers keep the table equal to a full recomputation
+ * through inserts, batched inserts, faculty moves, avatar changes and deletes.
+ * Run with {@code mvn test -Dtest=FacultyStatsTriggerTest -Dpostgres.url=jdbc:postgresql://localhost:5432/hogwarts
+ * -Dpostgres.username=... -Dpostgres.password=...}; each test rolls back.
+ */
+@EnabledIfSystemProperty(named = "postgres.url", matches = ".+")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DataJpaTest(properties = {
+        "spring.datasource.url=${postgres.url}",
+        "spring.datasource.username=${postgres.username:postgres}",
+        "spring.datasource.password=${postgres.password:postgres}",
+        "spring.liquibase.enabled=true",
+        "spring.liquibase.change-log=classpath:liquibase/changelog-master.yml",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+class FacultyStatsTriggerTest {
+
+    private static final String RECOMPUTED = "SELECT f.id AS faculty_id, "
+            + "(SELECT COUNT(*) FROM student s WHERE s.faculty_id = f.id) AS student_count, "
+            + "(SELECT COALESCE(SUM(s.age), 0) FROM student s WHERE s.faculty_id = f.id) AS age_sum, "
+            + "(SELECT COUNT(*) FROM avatar a JOIN student s ON s.id = a.student_id WHERE s.faculty_id = f.id) "
+            + "AS avatar_count FROM faculty f ORDER BY f.id";
+    private static final String STORED = "SELECT faculty_id, student_count, age_sum, avatar_count "
+            + "FROM faculty_stats ORDER BY faculty_id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long gryffindor;
+    private long slytherin;
+
+    @BeforeEach
+    void setUp() {
+        gryffindor = insertFaculty("Trigger Gryffindor");
+        slytherin = insertFaculty("Trigger Slytherin");
+    }
+
+    @Test
+    void testTracksStudentAndAvatarChanges() {
+        // Insert, including a multi-row statement
+        long harry = insertStudent("Trigger Harry", 17, gryffindor);
+        jdbcTemplate.update("INSERT INTO student (name, age, faculty_id, version) VALUES "
+                + "('Trigger Ron', 18, ?, 0), ('Trigger Draco', 17, ?, 0)", gryffindor, slytherin);
+        assertStatsMatch();
+
+        // Avatar added, student moved with it, renamed only
+        jdbcTemplate.update("INSERT INTO avatar (file_path, file_size, media_type, student_id) "
+                + "VALUES ('avatars/trigger.png', 1, 'image/png', ?)", harry);
+        assertStatsMatch();
+        jdbcTemplate.update("UPDATE student SET faculty_id = ?, age = 18 WHERE id = ?", slytherin, harry);
+        assertStatsMatch();
+        jdbcTemplate.update("UPDATE student SET name = 'Trigger Harry Potter' WHERE id = ?", harry);
+        assertStatsMatch();
+
+        // Avatar and student deleted
+        jdbcTemplate.update("DELETE FROM avatar WHERE student_id = ?", harry);
+        jdbcTemplate.update("DELETE FROM student WHERE id = ?", harry);
+        assertStatsMatch();
+    }
+
+    private void assertStatsMatch() {
+        List<Map<String, Object>> stored = jdbcTemplate.queryForList(STORED);
+        assertThat(stored).isEqualTo(jdbcTemplate.queryForList(RECOMPUTED));
+    }
+
+    private long insertFaculty(String name) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO faculty (name, color, version) VALUES (?, 'Trigger', 0) RETURNING id", Long.class, name);
+    }
+
+    private long insertStudent(String name, int age, long facultyId) {
+        return jdbcTemplate.queryForObject("INSERT INTO student (name, age, faculty_id, version) "
+                + "VALUES (?, ?, ?, 0) RETURNING id", Long.class, name, age, facultyId);
+    }
+}
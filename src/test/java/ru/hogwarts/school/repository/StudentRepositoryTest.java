@@ -0,0 +1,59 @@
+package ru.hogwarts.school.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.hogwarts.school.model.Student;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class StudentRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    private long studentId;
+
+    @BeforeEach
+    void setUp() {
+        Student student = new Student();
+        student.setName("Harry Potter");
+        student.setAge(17);
+        studentId = entityManager.persistAndFlush(student).getId();
+        entityManager.clear();
+    }
+
+    @Test
+    void testPatchUpdatesOnlyGivenColumnsAndBumpsVersion() {
+        // Act
+        int updated = studentRepository.patch(studentId, null, 18);
+        entityManager.clear();
+
+        // Assert
+        Student student = studentRepository.findById(studentId).orElseThrow();
+        assertThat(updated).isEqualTo(1);
+        assertThat(student.getName()).isEqualTo("Harry Potter");
+        assertThat(student.getAge()).isEqualTo(18);
+        assertThat(student.getVersion()).isEqualTo(1);
+    }
+
+    @Test
+    void testPatchWithStaleVersionUpdatesNothing() {
+        // Act
+        int updated = studentRepository.patch(studentId, "Harry James Potter", null, 5);
+        entityManager.clear();
+
+        // Assert
+        assertThat(updated).isZero();
+        assertThat(studentRepository.findById(studentId).orElseThrow().getName()).isEqualTo("Harry Potter");
+    }
+}
@@ -0,0 +1,171 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.util.unit.DataSize;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.AvatarRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class AvatarExportServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private AvatarRepository avatarRepository;
+
+    @TempDir
+    private Path avatarsDir;
+
+    private AvatarExportService avatarExportService;
+
+    private Faculty gryffindor;
+    private Student harry;
+    private Student ron;
+    private Student draco;
+    private Student luna;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        gryffindor = entityManager.persist(new Faculty(0, "Gryffindor", "Red"));
+        Faculty slytherin = entityManager.persist(new Faculty(0, "Slytherin", "Green"));
+        harry = persistStudent("Harry Potter", gryffindor);
+        ron = persistStudent("Ron Weasley", gryffindor);
+        draco = persistStudent("Draco Malfoy", slytherin);
+        luna = persistStudent("Luna Lovegood", null);
+        persistAvatar(harry, "harry.png", new byte[]{1, 2, 3});
+        persistAvatar(ron, "ron.jpg", new byte[4096]);
+        persistAvatar(draco, "draco.png", new byte[]{4, 5});
+        persistAvatar(luna, "missing.png", null);
+        entityManager.flush();
+        entityManager.clear();
+
+        avatarExportService = new AvatarExportService(avatarRepository, 2, DataSize.ofKilobytes(1), Duration.ofMinutes(1));
+    }
+
+    @Test
+    void testExportsEveryAvatarAcrossPages() throws IOException {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        int written = avatarExportService.export(null, 0, null, out);
+
+        // Assert
+        Map<String, byte[]> entries = unzip(out.toByteArray());
+        assertThat(written).isEqualTo(3);
+        assertThat(entries.keySet()).containsExactly(harry.getId() + ".png", ron.getId() + ".jpg", draco.getId() + ".png");
+        assertThat(entries.get(harry.getId() + ".png")).containsExactly(1, 2, 3);
+        assertThat(entries.get(ron.getId() + ".jpg")).hasSize(4096);
+    }
+
+    @Test
+    void testExportsOneFaculty() throws IOException {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        avatarExportService.export(gryffindor.getId(), 0, null, out);
+
+        // Assert
+        assertThat(unzip(out.toByteArray())).containsOnlyKeys(harry.getId() + ".png", ron.getId() + ".jpg");
+    }
+
+    @Test
+    void testExportsOnlyNewerAvatars() throws IOException {
+        // Arrange
+        long harryAvatarId = avatarRepository.findByStudentId(harry.getId()).orElseThrow().getId();
+        Instant since = Instant.parse("2030-01-01T00:00:00Z");
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE avatar SET updated_at = ? WHERE student_id = ?")
+                .setParameter(1, since.plusSeconds(60))
+                .setParameter(2, draco.getId())
+                .executeUpdate();
+        ByteArrayOutputStream afterId = new ByteArrayOutputStream();
+        ByteArrayOutputStream afterTime = new ByteArrayOutputStream();
+
+        // Act
+        avatarExportService.export(null, harryAvatarId, null, afterId);
+        avatarExportService.export(null, 0, since, afterTime);
+
+        // Assert
+        assertThat(unzip(afterId.toByteArray())).containsOnlyKeys(ron.getId() + ".jpg", draco.getId() + ".png");
+        assertThat(unzip(afterTime.toByteArray())).containsOnlyKeys(draco.getId() + ".png");
+    }
+
+    @Test
+    void testReachesBackByOverlapForLateCommits() throws IOException {
+        // Arrange: Ron's change was flushed before the previous export's newest entry but committed after it
+        Instant since = Instant.parse("2030-01-01T00:00:00Z");
+        setUpdatedAt(draco, since);
+        setUpdatedAt(ron, since.minusSeconds(30));
+        setUpdatedAt(harry, since.minusSeconds(120));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        avatarExportService.export(null, 0, since, out);
+
+        // Assert
+        assertThat(unzip(out.toByteArray()).keySet()).containsExactly(ron.getId() + ".jpg", draco.getId() + ".png");
+    }
+
+    private void setUpdatedAt(Student student, Instant updatedAt) {
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE avatar SET updated_at = ? WHERE student_id = ?")
+                .setParameter(1, updatedAt)
+                .setParameter(2, student.getId())
+                .executeUpdate();
+    }
+
+    private Student persistStudent(String name, Faculty faculty) {
+        Student student = new Student();
+        student.setName(name);
+        student.setAge(17);
+        student.setFaculty(faculty);
+        return entityManager.persist(student);
+    }
+
+    private void persistAvatar(Student student, String fileName, byte[] content) throws IOException {
+        Path path = avatarsDir.resolve(fileName);
+        if (content != null) {
+            Files.write(path, content);
+        }
+        entityManager.persist(new Avatar(student, null, "image/png", content == null ? 0 : content.length,
+                path.toString(), null));
+    }
+
+    private static Map<String, byte[]> unzip(byte[] archive) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.put(entry.getName(), zip.readAllBytes());
+            }
+        }
+        return entries;
+    }
+}
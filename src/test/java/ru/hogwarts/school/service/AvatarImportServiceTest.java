@@ -0,0 +1,194 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+import ru.hogwarts.school.dto.AvatarImportReport;
+import ru.hogwarts.school.dto.AvatarImportReport.Entry;
+import ru.hogwarts.school.dto.AvatarImportReport.Status;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AvatarImportServiceTest {
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private AvatarRepository avatarRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path avatarsDir;
+
+    private AvatarImportService avatarImportService;
+    private final List<Object> events = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        avatarImportService = new AvatarImportService(studentRepository, avatarRepository, transactionManager,
+                events::add, DataSize.ofKilobytes(1), 2, 2);
+        ReflectionTestUtils.setField(avatarImportService, "avatarsDir", avatarsDir.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        avatarImportService.shutdown();
+        avatarRepository.deleteAll();
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    void testImportsEntriesAndReportsEachOne() throws IOException {
+        // Arrange
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Student student = new Student();
+            student.setName("Student " + i);
+            student.setAge(17);
+            ids.add(studentRepository.save(student).getId());
+        }
+        avatarRepository.save(new Avatar(studentRepository.findById(ids.get(0)).orElseThrow(), new byte[]{1},
+                "image/png", 1, "old.png", null));
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        for (long id : ids) {
+            entries.put("class/" + id + ".png", new byte[]{(byte) id, 2, 3});
+        }
+        entries.put("readme.txt", new byte[]{1});
+        entries.put(ids.get(0) + ".txt", new byte[]{1});
+        entries.put(ids.get(1) + ".jpg", new byte[2048]);
+        entries.put("999999.png", new byte[]{1});
+
+        // Act
+        AvatarImportReport report = avatarImportService.importZip(new ByteArrayInputStream(zip(entries)));
+
+        // Assert
+        assertThat(report.saved()).isEqualTo(5);
+        assertThat(report.failed()).isEqualTo(4);
+        assertThat(report.entries()).extracting(Entry::status).containsExactly(
+                Status.SAVED, Status.SAVED, Status.SAVED, Status.SAVED, Status.SAVED,
+                Status.BAD_NAME, Status.UNSUPPORTED_TYPE, Status.TOO_LARGE, Status.UNKNOWN_STUDENT);
+        assertThat(avatarRepository.count()).isEqualTo(5);
+        Avatar replaced = avatarRepository.findByStudentId(ids.get(0)).orElseThrow();
+        assertThat(replaced.getData()).containsExactly((byte) (long) ids.get(0), 2, 3);
+        assertThat(replaced.getMediaType()).isEqualTo("image/png");
+        assertThat(Files.readAllBytes(avatarsDir.resolve(ids.get(4) + ".png"))).hasSize(3);
+        assertThat(events).hasSize(5);
+    }
+
+    @Test
+    void testImportsFirstEntryPerStudentAcrossBatches() throws IOException {
+        // Arrange: batch size 2, so the second entry for the student lands in another batch
+        Student student = new Student();
+        student.setName("Harry Potter");
+        student.setAge(17);
+        long id = studentRepository.save(student).getId();
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put(id + ".png", new byte[]{1});
+        entries.put("999998.png", new byte[]{2});
+        entries.put("again/" + id + ".png", new byte[]{3});
+
+        // Act
+        AvatarImportReport report = avatarImportService.importZip(new ByteArrayInputStream(zip(entries)));
+
+        // Assert
+        assertThat(report.entries()).extracting(Entry::status)
+                .containsExactly(Status.SAVED, Status.UNKNOWN_STUDENT, Status.DUPLICATE);
+        assertThat(avatarRepository.count()).isEqualTo(1);
+        assertThat(avatarRepository.findByStudentId(id).orElseThrow().getData()).containsExactly(1);
+        assertThat(Files.readAllBytes(avatarsDir.resolve(id + ".png"))).containsExactly(1);
+    }
+
+    @Test
+    void testFailedBatchKeepsPreviousFiles() throws IOException {
+        // Arrange
+        Student student = new Student();
+        student.setName("Harry Potter");
+        student.setAge(17);
+        long id = studentRepository.save(student).getId();
+        Path previous = Files.write(avatarsDir.resolve(id + ".png"), new byte[]{9, 9});
+        PlatformTransactionManager failingCommit = new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return transactionManager.getTransaction(definition);
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+                transactionManager.rollback(status);
+                throw new TransactionSystemException("Commit failed");
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+                transactionManager.rollback(status);
+            }
+        };
+        AvatarImportService failing = new AvatarImportService(studentRepository, avatarRepository, failingCommit,
+                events::add, DataSize.ofKilobytes(1), 2, 1);
+        ReflectionTestUtils.setField(failing, "avatarsDir", avatarsDir.toString());
+
+        // Act
+        AvatarImportReport report;
+        try {
+            report = failing.importZip(new ByteArrayInputStream(zip(Map.of(id + ".png", new byte[]{1, 2, 3}))));
+        } finally {
+            failing.shutdown();
+        }
+
+        // Assert
+        assertThat(report.entries()).extracting(Entry::status).containsExactly(Status.FAILED);
+        assertThat(Files.readAllBytes(previous)).containsExactly(9, 9);
+        try (Stream<Path> files = Files.list(avatarsDir)) {
+            assertThat(files).containsExactly(previous);
+        }
+        assertThat(avatarRepository.count()).isZero();
+    }
+
+    private static byte[] zip(Map<String, byte[]> entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue());
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
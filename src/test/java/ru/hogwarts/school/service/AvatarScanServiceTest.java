@@ -0,0 +1,129 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.hogwarts.school.dto.AvatarScanReport;
+import ru.hogwarts.school.dto.AvatarScanReport.Issue;
+import ru.hogwarts.school.dto.AvatarScanReport.Kind;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.AvatarRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class AvatarScanServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private AvatarRepository avatarRepository;
+
+    @TempDir
+    private Path avatarsDir;
+
+    private AvatarScanService avatarScanService;
+
+    private Path oldOrphan;
+    private Path freshOrphan;
+    private Path nestedOrphan;
+    private Path missing;
+    private Path truncated;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.write(avatarsDir.resolve("1.png"), new byte[]{1, 2, 3});
+        persistAvatar("Harry Potter", avatarsDir.resolve("1.png"), new byte[]{1, 2, 3});
+        missing = avatarsDir.resolve("2.png");
+        persistAvatar("Ron Weasley", missing, new byte[]{4, 5});
+        truncated = avatarsDir.resolve("3.png");
+        Files.write(truncated, new byte[]{6});
+        persistAvatar("Draco Malfoy", truncated, new byte[]{6, 7, 8, 9});
+        entityManager.flush();
+        entityManager.clear();
+
+        oldOrphan = avatarsDir.resolve("2.jpg");
+        Files.write(oldOrphan, new byte[]{1});
+        Files.setLastModifiedTime(oldOrphan, FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+        nestedOrphan = Files.createDirectory(avatarsDir.resolve("old")).resolve("7.png");
+        Files.write(nestedOrphan, new byte[]{1, 2});
+        Files.setLastModifiedTime(nestedOrphan, FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+        freshOrphan = avatarsDir.resolve("4.png");
+        Files.write(freshOrphan, new byte[]{1});
+
+        avatarScanService = new AvatarScanService(avatarRepository, 0, 2, Duration.ofHours(1), false);
+        ReflectionTestUtils.setField(avatarScanService, "avatarsDir", avatarsDir.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        avatarScanService.shutdown();
+    }
+
+    @Test
+    void testReportsWithoutTouchingFiles() {
+        // Act
+        AvatarScanReport report = avatarScanService.scan(false);
+
+        // Assert
+        assertThat(report.files()).isEqualTo(5);
+        assertThat(report.rows()).isEqualTo(3);
+        assertThat(report.orphanFiles()).isEqualTo(3);
+        assertThat(report.missingFiles()).isEqualTo(1);
+        assertThat(report.sizeMismatches()).isEqualTo(1);
+        assertThat(report.repaired()).isZero();
+        assertThat(report.issues()).extracting(Issue::kind, Issue::path, Issue::expectedSize, Issue::actualSize)
+                .containsExactly(
+                        tuple(Kind.MISSING_FILE, missing.toString(), 2L, null),
+                        tuple(Kind.SIZE_MISMATCH, truncated.toString(), 4L, 1L),
+                        tuple(Kind.ORPHAN_FILE, oldOrphan.toString(), null, 1L),
+                        tuple(Kind.ORPHAN_FILE, freshOrphan.toString(), null, 1L),
+                        tuple(Kind.ORPHAN_FILE, nestedOrphan.toString(), null, 2L));
+        assertThat(oldOrphan).exists();
+        assertThat(missing).doesNotExist();
+        assertThat(avatarScanService.lastReport()).isEqualTo(report);
+    }
+
+    @Test
+    void testRepairsFromDatabaseAndDeletesOldOrphans() throws IOException {
+        // Act
+        AvatarScanReport report = avatarScanService.scan(true);
+
+        // Assert
+        assertThat(report.repaired()).isEqualTo(4);
+        assertThat(Files.readAllBytes(missing)).containsExactly(4, 5);
+        assertThat(Files.readAllBytes(truncated)).containsExactly(6, 7, 8, 9);
+        assertThat(oldOrphan).doesNotExist();
+        assertThat(nestedOrphan).doesNotExist();
+        assertThat(freshOrphan).exists();
+        AvatarScanReport rescan = avatarScanService.scan(false);
+        assertThat(rescan.issues()).extracting(Issue::kind, Issue::path)
+                .containsExactly(tuple(Kind.ORPHAN_FILE, freshOrphan.toString()));
+    }
+
+    private void persistAvatar(String name, Path path, byte[] data) {
+        Student student = new Student();
+        student.setName(name);
+        student.setAge(17);
+        entityManager.persist(student);
+        entityManager.persist(new Avatar(student, data, "image/png", data.length, path.toString(), null));
+    }
+}
@@ -0,0 +1,91 @@
+package ru.hogwarts.school.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import ru.hogwarts.school.dto.StudentPatch;
+import ru.hogwarts.school.event.FacultyChangedEvent;
+import ru.hogwarts.school.event.StudentChangedEvent;
+import ru.hogwarts.school.model.ChangeEvent;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.ChangeEventRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class ChangeEventServiceTest {
+
+    @Autowired
+    private ChangeEventRepository changeEventRepository;
+
+    private ChangeEventService changeEventService;
+
+    @BeforeEach
+    void setUp() {
+        changeEventService = new ChangeEventService(changeEventRepository, new ObjectMapper(), Duration.ofDays(7),
+                Duration.ofMinutes(5), 1);
+    }
+
+    @Test
+    void testRecordsEventsInOrder() throws InterruptedException {
+        // Arrange
+        changeEventService.onFacultyChanged(FacultyChangedEvent.saved(new Faculty(1L, "Gryffindor", "Red")));
+        changeEventService.onStudentChanged(StudentChangedEvent.saved(new Student(7L, "Harry Potter", 17)));
+        changeEventService.onStudentChanged(StudentChangedEvent.patched(7L, new StudentPatch(null, 18), 1));
+        changeEventService.onStudentChanged(StudentChangedEvent.deleted(7L));
+
+        // Act
+        List<ChangeEvent> events = changeEventService.findAfter(0, 100, Duration.ZERO);
+
+        // Assert
+        assertThat(events).extracting(ChangeEvent::getType)
+                .containsExactly("SAVED", "SAVED", "PATCHED", "DELETED");
+        assertThat(events.get(1).getPayload())
+                .isEqualTo("{\"id\":7,\"name\":\"Harry Potter\",\"age\":17,\"facultyId\":null}");
+        assertThat(events.get(2).getPayload()).isEqualTo("{\"name\":null,\"age\":18}");
+        assertThat(events.get(3).getPayload()).isNull();
+    }
+
+    @Test
+    void testResumesAfterSequenceNumber() throws InterruptedException {
+        // Arrange
+        changeEventService.onStudentChanged(StudentChangedEvent.saved(new Student(1L, "Harry Potter", 17)));
+        changeEventService.onStudentChanged(StudentChangedEvent.saved(new Student(2L, "Ron Weasley", 17)));
+        long firstSeq = changeEventService.findAfter(0, 1, Duration.ZERO).get(0).getSeq();
+
+        // Act
+        List<ChangeEvent> events = changeEventService.findAfter(firstSeq, 100, Duration.ZERO);
+
+        // Assert
+        assertThat(events).extracting(ChangeEvent::getEntityId).containsExactly(2L);
+    }
+
+    @Test
+    void testWaitsForGapUntilTimeoutWithoutTransactionHorizon() throws InterruptedException {
+        // Arrange
+        ChangeEvent first = changeEventRepository.save(new ChangeEvent("student", 1L, "SAVED", null, Instant.now()));
+        ChangeEvent pending = changeEventRepository.save(new ChangeEvent("student", 2L, "SAVED", null, Instant.now()));
+        ChangeEvent recent = changeEventRepository.save(new ChangeEvent("student", 3L, "SAVED", null, Instant.now()));
+        changeEventRepository.delete(pending);
+
+        // Act
+        List<ChangeEvent> beforeTimeout = changeEventService.findAfter(first.getSeq(), 100, Duration.ZERO);
+        recent.setCreatedAt(Instant.now().minus(Duration.ofMinutes(6)));
+        changeEventRepository.save(recent);
+        List<ChangeEvent> afterTimeout = changeEventService.findAfter(first.getSeq(), 100, Duration.ZERO);
+
+        // Assert
+        assertThat(beforeTimeout).isEmpty();
+        assertThat(afterTimeout).extracting(ChangeEvent::getEntityId).containsExactly(3L);
+    }
+}
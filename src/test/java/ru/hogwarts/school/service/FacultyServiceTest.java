@@ -0,0 +1,116 @@
+package ru.hogwarts.school.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.hogwarts.school.dto.FacultyRoster;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class FacultyServiceTest {
+
+    private static final int FACULTIES = 12;
+    private static final int STUDENTS_PER_FACULTY = 5;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    private FacultyService facultyService;
+    private final List<Long> facultyIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int f = 0; f < FACULTIES; f++) {
+            Faculty faculty = entityManager.persist(new Faculty(0, "Faculty " + f, "Color " + f));
+            facultyIds.add(faculty.getId());
+            for (int s = 0; s < STUDENTS_PER_FACULTY; s++) {
+                Student student = new Student();
+                student.setName("Student " + f + "-" + s);
+                student.setAge(11 + s);
+                student.setFaculty(faculty);
+                entityManager.persist(student);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        facultyService = new FacultyService(facultyRepository, studentRepository, event -> {
+        });
+    }
+
+    @Test
+    void testPagesStudentsByKeyset() {
+        // Act
+        List<Student> firstPage = facultyService.findStudents(facultyIds.get(0), 0, 2);
+        List<Student> secondPage = facultyService.findStudents(facultyIds.get(0), firstPage.get(1).getId(), 2);
+        List<Student> lastPage = facultyService.findStudents(facultyIds.get(0), secondPage.get(1).getId(), 2);
+
+        // Assert
+        assertThat(firstPage).extracting(Student::getName).containsExactly("Student 0-0", "Student 0-1");
+        assertThat(secondPage).extracting(Student::getName).containsExactly("Student 0-2", "Student 0-3");
+        assertThat(lastPage).extracting(Student::getName).containsExactly("Student 0-4");
+        assertThat(facultyService.findStudents(facultyIds.get(0), lastPage.get(0).getId(), 2)).isEmpty();
+        assertThat(facultyService.findStudents(-1, 0, 2)).isNull();
+    }
+
+    @Test
+    void testLoadsRostersWithConstantQueryCount() {
+        // Arrange
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        List<FacultyRoster> few = facultyService.findRosters(facultyIds.subList(0, 2), STUDENTS_PER_FACULTY);
+        long fewQueries = statistics.getPrepareStatementCount();
+        entityManager.clear();
+        statistics.clear();
+        List<Long> requested = new ArrayList<>(facultyIds);
+        requested.add(-1L);
+        List<FacultyRoster> all = facultyService.findRosters(requested, STUDENTS_PER_FACULTY);
+        long allQueries = statistics.getPrepareStatementCount();
+
+        // Assert
+        assertThat(few).hasSize(2);
+        assertThat(all).hasSize(FACULTIES)
+                .allSatisfy(roster -> assertThat(roster.students()).hasSize(STUDENTS_PER_FACULTY));
+        assertThat(allQueries).isEqualTo(fewQueries).isEqualTo(2);
+        assertThat(all).allSatisfy(roster -> assertThat(roster.next()).isNull());
+    }
+
+    @Test
+    void testLimitsEachRosterAndReturnsCursor() {
+        // Act
+        List<FacultyRoster> rosters = facultyService.findRosters(facultyIds.subList(0, 2), 2);
+        List<Student> rest = facultyService.findStudents(facultyIds.get(0), rosters.get(0).next(), 10);
+
+        // Assert
+        assertThat(rosters).allSatisfy(roster -> assertThat(roster.students()).hasSize(2));
+        assertThat(rosters.get(0).students()).extracting(Student::getName).containsExactly("Student 0-0", "Student 0-1");
+        assertThat(rest).extracting(Student::getName).containsExactly("Student 0-2", "Student 0-3", "Student 0-4");
+    }
+}
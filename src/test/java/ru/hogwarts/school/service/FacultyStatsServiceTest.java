@@ -0,0 +1,93 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.FacultyStats;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyStatsRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class FacultyStatsServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private FacultyStatsRepository facultyStatsRepository;
+
+    private FacultyStatsService facultyStatsService;
+
+    private Faculty gryffindor;
+    private Faculty ravenclaw;
+
+    @BeforeEach
+    void setUp() {
+        gryffindor = entityManager.persist(new Faculty(0, "Gryffindor", "Red"));
+        ravenclaw = entityManager.persist(new Faculty(0, "Ravenclaw", "Blue"));
+        Student harry = persistStudent("Harry Potter", 17, gryffindor);
+        persistStudent("Ron Weasley", 18, gryffindor);
+        persistStudent("Ginny Weasley", 16, gryffindor);
+        persistStudent("Luna Lovegood", 16, null);
+        entityManager.persist(new Avatar(harry, null, "image/png", 1, "avatars/harry.png", null));
+        entityManager.flush();
+        entityManager.clear();
+
+        facultyStatsService = new FacultyStatsService(facultyStatsRepository);
+    }
+
+    @Test
+    void testRebuildAggregatesStudentsAndAvatars() {
+        // Act
+        facultyStatsService.rebuild();
+        entityManager.clear();
+
+        // Assert
+        FacultyStats stats = facultyStatsService.findStats(gryffindor.getId());
+        assertThat(stats.getStudentCount()).isEqualTo(3);
+        assertThat(stats.getAverageAge()).isEqualTo(17.0);
+        assertThat(stats.getAvatarCount()).isEqualTo(1);
+        assertThat(stats.getAvatarCoverage()).isEqualTo(1 / 3.0);
+
+        FacultyStats empty = facultyStatsService.findStats(ravenclaw.getId());
+        assertThat(empty.getStudentCount()).isZero();
+        assertThat(empty.getAverageAge()).isNull();
+
+        assertThat(facultyStatsService.findAllStats()).extracting(FacultyStats::getFacultyId)
+                .containsExactly(gryffindor.getId(), ravenclaw.getId());
+        assertThat(facultyStatsService.findStats(-1)).isNull();
+    }
+
+    @Test
+    void testRebuildReplacesStaleRows() {
+        // Arrange
+        facultyStatsService.rebuild();
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE faculty_stats SET student_count = 99")
+                .executeUpdate();
+
+        // Act
+        facultyStatsService.rebuild();
+        entityManager.clear();
+
+        // Assert
+        assertThat(facultyStatsService.findStats(gryffindor.getId()).getStudentCount()).isEqualTo(3);
+    }
+
+    private Student persistStudent(String name, int age, Faculty faculty) {
+        Student student = new Student();
+        student.setName(name);
+        student.setAge(age);
+        student.setFaculty(faculty);
+        return entityManager.persist(student);
+    }
+}
@@ -0,0 +1,116 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.hogwarts.school.dto.FacultyReport;
+import ru.hogwarts.school.dto.SchoolReport;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReportServiceTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    @Autowired
+    private AvatarRepository avatarRepository;
+
+    private ReportService reportService;
+
+    @BeforeEach
+    void setUp() {
+        reportService = new ReportService(dataSource, transactionManager, 4, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reportService.shutdown();
+        avatarRepository.deleteAll();
+        studentRepository.deleteAll();
+        facultyRepository.deleteAll();
+    }
+
+    @Test
+    void testMergesPartitionsIntoOneReport() {
+        // Arrange
+        Faculty gryffindor = facultyRepository.save(new Faculty(0, "Gryffindor", "Red"));
+        Faculty slytherin = facultyRepository.save(new Faculty(0, "Slytherin", "Green"));
+        Faculty ravenclaw = facultyRepository.save(new Faculty(0, "Ravenclaw", "Blue"));
+        for (int i = 0; i < 20; i++) {
+            Student student = saveStudent("Student " + i, 11 + i % 7, i % 2 == 0 ? gryffindor : slytherin);
+            if (i % 4 == 0) {
+                avatarRepository.save(new Avatar(student, null, "image/png", 1, "avatars/" + i + ".png", null));
+            }
+        }
+        Student luna = saveStudent("Luna Lovegood", 16, null);
+        avatarRepository.save(new Avatar(luna, null, "image/png", 1, "avatars/luna.png", null));
+
+        // Act
+        SchoolReport report = reportService.facultyReport();
+
+        // Assert
+        assertThat(report.students()).isEqualTo(21);
+        assertThat(report.withAvatar()).isEqualTo(6);
+        assertThat(report.averageAge()).isCloseTo(studentRepository.findAll()
+                .stream().mapToInt(Student::getAge).average().orElseThrow(), within(1e-9));
+        assertThat(report.faculties()).extracting(FacultyReport::facultyName)
+                .containsExactly("Gryffindor", "Slytherin", "Ravenclaw");
+
+        FacultyReport gryffindorReport = report.faculties().get(0);
+        assertThat(gryffindorReport.students()).isEqualTo(10);
+        assertThat(gryffindorReport.withAvatar()).isEqualTo(5);
+        assertThat(gryffindorReport.avatarCoverage()).isEqualTo(0.5);
+        assertThat(gryffindorReport.minAge()).isEqualTo(11);
+        assertThat(gryffindorReport.maxAge()).isEqualTo(17);
+        assertThat(gryffindorReport.averageAge()).isCloseTo(studentRepository.findStudentsByFaculty_Name("Gryffindor")
+                .stream().mapToInt(Student::getAge).average().orElseThrow(), within(1e-9));
+
+        FacultyReport ravenclawReport = report.faculties().get(2);
+        assertThat(ravenclawReport.facultyId()).isEqualTo(ravenclaw.getId());
+        assertThat(ravenclawReport.students()).isZero();
+        assertThat(ravenclawReport.averageAge()).isNull();
+
+        FacultyReport unassigned = report.unassigned();
+        assertThat(unassigned.facultyId()).isNull();
+        assertThat(unassigned.students()).isEqualTo(1);
+        assertThat(unassigned.withAvatar()).isEqualTo(1);
+        assertThat(unassigned.averageAge()).isEqualTo(16.0);
+    }
+
+    private Student saveStudent(String name, int age, Faculty faculty) {
+        Student student = new Student();
+        student.setName(name);
+        student.setAge(age);
+        student.setFaculty(faculty);
+        return studentRepository.save(student);
+    }
+}
@@ -0,0 +1,201 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.TransactionSystemException;
+import ru.hogwarts.school.cache.FacultyRosterIndex;
+import ru.hogwarts.school.cache.StudentAgeIndex;
+import ru.hogwarts.school.event.AvatarFilesReleasedEvent;
+import ru.hogwarts.school.event.StudentChangedEvent;
+import ru.hogwarts.school.model.Avatar;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.AvatarRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+import ru.hogwarts.school.upload.SizeLimitedInputStream;
+import ru.hogwarts.school.upload.UploadTooLargeException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class StudentServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private AvatarRepository avatarRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path avatarsDir;
+
+    private StudentService studentService;
+    private long studentId;
+    private final List<Object> events = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        studentService = new StudentService(studentRepository, avatarRepository,
+                new FacultyRosterIndex(studentRepository), new StudentAgeIndex(studentRepository, false, 150), events::add,
+                transactionManager);
+        ReflectionTestUtils.setField(studentService, "avatarsDir", avatarsDir.toString());
+        Student student = new Student();
+        student.setName("Harry Potter");
+        student.setAge(17);
+        studentId = entityManager.persistAndFlush(student).getId();
+    }
+
+    @Test
+    void testStreamsAvatarToDiskAndPreview() throws IOException {
+        // Arrange
+        byte[] bytes = new byte[50_000];
+        bytes[49_999] = 42;
+
+        // Act
+        studentService.uploadAvatar(studentId, new SizeLimitedInputStream(new ByteArrayInputStream(bytes), 300 * 1024),
+                "image/png", "png");
+
+        // Assert
+        Avatar avatar = avatarRepository.findByStudentId(studentId).orElseThrow();
+        assertThat(avatar.getFileSize()).isEqualTo(bytes.length);
+        assertThat(avatar.getData()).isEqualTo(bytes);
+        assertThat(Files.readAllBytes(avatarsDir.resolve(studentId + ".png"))).isEqualTo(bytes);
+    }
+
+    @Test
+    void testAbortsOversizeAvatarWithoutLeavingFile() {
+        // Arrange
+        ByteArrayInputStream body = new ByteArrayInputStream(new byte[400 * 1024]);
+
+        // Act & Assert
+        assertThatThrownBy(() -> studentService.uploadAvatar(studentId, new SizeLimitedInputStream(body, 300 * 1024),
+                "image/png", "png"))
+                .isInstanceOf(UploadTooLargeException.class);
+        assertThat(body.available()).isPositive();
+        assertThat(avatarsDir.resolve(studentId + ".png")).doesNotExist();
+        assertThat(avatarRepository.findByStudentId(studentId)).isEmpty();
+    }
+
+    @Test
+    void testFailedUploadKeepsPreviousAvatarFile() throws IOException {
+        // Arrange
+        byte[] previous = {1, 2, 3};
+        studentService.uploadAvatar(studentId, new ByteArrayInputStream(previous), "image/png", "png");
+        ByteArrayInputStream body = new ByteArrayInputStream(new byte[400 * 1024]);
+
+        // Act & Assert
+        assertThatThrownBy(() -> studentService.uploadAvatar(studentId, new SizeLimitedInputStream(body, 300 * 1024),
+                "image/png", "png"))
+                .isInstanceOf(UploadTooLargeException.class);
+        assertThat(Files.readAllBytes(avatarsDir.resolve(studentId + ".png"))).isEqualTo(previous);
+        try (var files = Files.list(avatarsDir)) {
+            assertThat(files).containsExactly(avatarsDir.resolve(studentId + ".png"));
+        }
+    }
+
+    @Test
+    void testFailedSaveKeepsPreviousAvatarFile() throws IOException {
+        // Arrange
+        byte[] previous = {1, 2, 3};
+        studentService.uploadAvatar(studentId, new ByteArrayInputStream(previous), "image/png", "png");
+        PlatformTransactionManager failingCommit = new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return transactionManager.getTransaction(definition);
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+                transactionManager.rollback(status);
+                throw new TransactionSystemException("Commit failed");
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+                transactionManager.rollback(status);
+            }
+        };
+        StudentService failing = new StudentService(studentRepository, avatarRepository,
+                new FacultyRosterIndex(studentRepository), new StudentAgeIndex(studentRepository, false, 150), events::add,
+                failingCommit);
+        ReflectionTestUtils.setField(failing, "avatarsDir", avatarsDir.toString());
+
+        // Act & Assert
+        assertThatThrownBy(() -> failing.uploadAvatar(studentId, new ByteArrayInputStream(new byte[]{4, 5}),
+                "image/png", "png"))
+                .isInstanceOf(TransactionSystemException.class);
+        assertThat(Files.readAllBytes(avatarsDir.resolve(studentId + ".png"))).isEqualTo(previous);
+        try (var files = Files.list(avatarsDir)) {
+            assertThat(files).containsExactly(avatarsDir.resolve(studentId + ".png"));
+        }
+    }
+
+    @Test
+    void testConditionalEditOfMissingStudentReturnsNull() {
+        // Arrange
+        Student missing = new Student(studentId + 1, "Ron Weasley", 17);
+
+        // Act
+        Student edited = studentService.editStudent(missing, 0);
+
+        // Assert
+        assertThat(edited).isNull();
+        assertThat(events).isEmpty();
+    }
+
+    @Test
+    void testDeletesStudentsWithAvatarsAndReleasesFiles() throws IOException, InterruptedException {
+        // Arrange
+        Student ron = new Student();
+        ron.setName("Ron Weasley");
+        ron.setAge(17);
+        long ronId = entityManager.persistAndFlush(ron).getId();
+        studentService.uploadAvatar(studentId, new ByteArrayInputStream(new byte[]{1, 2}), "image/png", "png");
+        studentService.uploadAvatar(ronId, new ByteArrayInputStream(new byte[]{3}), "image/png", "png");
+        entityManager.clear();
+        events.clear();
+
+        // Act
+        List<Long> deleted = studentService.deleteStudents(List.of(studentId, studentId, 999_999L));
+        AvatarFileCleaner cleaner = new AvatarFileCleaner(2);
+        events.stream()
+                .filter(AvatarFilesReleasedEvent.class::isInstance)
+                .forEach(event -> cleaner.onAvatarFilesReleased((AvatarFilesReleasedEvent) event));
+        cleaner.shutdown();
+
+        // Assert
+        assertThat(deleted).containsExactly(studentId);
+        assertThat(studentRepository.existsById(studentId)).isFalse();
+        assertThat(avatarRepository.findByStudentId(studentId)).isEmpty();
+        assertThat(avatarRepository.findByStudentId(ronId)).isPresent();
+        assertThat(events).containsExactly(StudentChangedEvent.deleted(studentId),
+                new AvatarFilesReleasedEvent(List.of(avatarsDir.resolve(studentId + ".png").toString())));
+        assertThat(avatarsDir.resolve(studentId + ".png")).doesNotExist();
+        assertThat(avatarsDir.resolve(ronId + ".png")).exists();
+        assertThat(cleaner.deleted()).isEqualTo(1);
+    }
+}
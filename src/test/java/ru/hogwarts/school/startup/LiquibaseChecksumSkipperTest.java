@@ -0,0 +1,115 @@
+package ru.hogwarts.school.startup;
+
+import liquibase.exception.LiquibaseException;
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LiquibaseChecksumSkipperTest {
+
+    private final LiquibaseChecksumSkipper skipper = new LiquibaseChecksumSkipper();
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:checksum" + System.nanoTime() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE faculty (id BIGINT PRIMARY KEY, name VARCHAR(255), color VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE student (id BIGINT PRIMARY KEY, name VARCHAR(255), age INT, faculty_id BIGINT)");
+        jdbcTemplate.execute("CREATE TABLE avatar (id BIGINT PRIMARY KEY, file_path VARCHAR(255), file_size BIGINT, "
+                + "media_type VARCHAR(255), data BYTEA, student_id BIGINT)");
+    }
+
+    @Test
+    void testRecordsChecksumAfterUpdate() throws LiquibaseException {
+        // Act
+        run(liquibase());
+
+        // Assert
+        assertThat(jdbcTemplate.queryForObject("SELECT checksum FROM changelog_checksum", String.class)).hasSize(64);
+        assertThat(changeSetsRun()).isPositive();
+    }
+
+    @Test
+    void testSkipsUpdateWhenChecksumIsUnchanged() throws LiquibaseException {
+        // Arrange
+        run(liquibase());
+        jdbcTemplate.update("DELETE FROM databasechangelog");
+
+        // Act
+        run(liquibase());
+
+        // Assert
+        assertThat(changeSetsRun()).isZero();
+    }
+
+    @Test
+    void testRunsUpdateWhenChecksumChanged() throws LiquibaseException, IOException {
+        // Arrange
+        SpringLiquibase liquibase = liquibase();
+        run(liquibase);
+        jdbcTemplate.update("UPDATE changelog_checksum SET checksum = 'stale'");
+
+        // Act
+        run(liquibase());
+
+        // Assert
+        assertThat(jdbcTemplate.queryForObject("SELECT checksum FROM changelog_checksum", String.class))
+                .isEqualTo(LiquibaseChecksumSkipper.checksum(liquibase));
+    }
+
+    @Test
+    void testHashesTheConfiguredChangeLog() throws IOException {
+        // Arrange
+        SpringLiquibase other = liquibase();
+        other.setChangeLog("classpath:liquibase/scripts/changelog-checksum.sql");
+
+        // Act & Assert
+        assertThat(LiquibaseChecksumSkipper.checksum(other)).isNotEqualTo(LiquibaseChecksumSkipper.checksum(liquibase()));
+    }
+
+    @Test
+    void testChangelogSeedsChecksumRowForInstancesStartingTogether() throws LiquibaseException {
+        // Arrange
+        liquibase().afterPropertiesSet();
+        String seeded = jdbcTemplate.queryForObject("SELECT checksum FROM changelog_checksum WHERE id = 1", String.class);
+
+        // Act: both instances read the seeded row before either recorded its checksum
+        run(liquibase());
+        jdbcTemplate.update("UPDATE changelog_checksum SET checksum = ''");
+        run(liquibase());
+
+        // Assert
+        assertThat(seeded).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM changelog_checksum", Integer.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT checksum FROM changelog_checksum", String.class)).hasSize(64);
+    }
+
+    private void run(SpringLiquibase liquibase) throws LiquibaseException {
+        skipper.postProcessBeforeInitialization(liquibase, "liquibase");
+        liquibase.afterPropertiesSet();
+        skipper.postProcessAfterInitialization(liquibase, "liquibase");
+    }
+
+    private int changeSetsRun() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM databasechangelog", Integer.class);
+    }
+
+    private SpringLiquibase liquibase() {
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog("classpath:liquibase/changelog-master.yml");
+        return liquibase;
+    }
+}
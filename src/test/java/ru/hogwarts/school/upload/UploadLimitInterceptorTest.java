@@ -0,0 +1,79 @@
+package ru.hogwarts.school.upload;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UploadLimitInterceptorTest {
+
+    private final UploadLimitInterceptor interceptor =
+            new UploadLimitInterceptor(new MockEnvironment().withProperty("avatars.max-size", "1KB"));
+
+    @Test
+    void testRejectsAnnouncedOversizeBody() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContentType("image/png");
+        request.setContent(new byte[1025]);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act & Assert
+        assertThat(interceptor.preHandle(request, response, handler("limited"))).isFalse();
+        assertThat(response.getStatus()).isEqualTo(413);
+        assertThat(response.getHeader("Connection")).isEqualTo("close");
+    }
+
+    @Test
+    void testAllowsMultipartOverhead() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContentType("multipart/form-data; boundary=x");
+        request.setContent(new byte[1024 + 512]);
+
+        // Act & Assert
+        assertThat(interceptor.preHandle(request, new MockHttpServletResponse(), handler("limited"))).isTrue();
+    }
+
+    @Test
+    void testIgnoresUnannotatedEndpoints() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContent(new byte[4096]);
+
+        // Act & Assert
+        assertThat(interceptor.preHandle(request, new MockHttpServletResponse(), handler("plain"))).isTrue();
+    }
+
+    @Test
+    void testLimitedStreamFailsOncePastLimit() throws Exception {
+        // Arrange
+        InputStream in = new SizeLimitedInputStream(new ByteArrayInputStream(new byte[2048]), 1024);
+        byte[] buffer = new byte[1000];
+
+        // Act & Assert
+        assertThat(in.read(buffer)).isEqualTo(1000);
+        assertThatThrownBy(() -> in.read(buffer)).isInstanceOf(UploadTooLargeException.class);
+    }
+
+    private static HandlerMethod handler(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new Endpoints(), Endpoints.class.getMethod(name));
+    }
+
+    static class Endpoints {
+
+        public void plain() {
+        }
+
+        @UploadLimit("${avatars.max-size}")
+        public void limited() {
+        }
+    }
+}